@@ -1,5 +1,6 @@
 package software.amazon.m2.application;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.lang3.Validate;
 import software.amazon.awssdk.services.m2.M2Client;
 import software.amazon.awssdk.services.m2.model.CreateApplicationRequest;
@@ -8,6 +9,8 @@ import software.amazon.awssdk.services.m2.model.DeleteApplicationRequest;
 import software.amazon.awssdk.services.m2.model.DeleteApplicationResponse;
 import software.amazon.awssdk.services.m2.model.GetApplicationRequest;
 import software.amazon.awssdk.services.m2.model.GetApplicationResponse;
+import software.amazon.awssdk.services.m2.model.GetApplicationVersionRequest;
+import software.amazon.awssdk.services.m2.model.GetApplicationVersionResponse;
 import software.amazon.awssdk.services.m2.model.ListApplicationsRequest;
 import software.amazon.awssdk.services.m2.model.ListApplicationsResponse;
 import software.amazon.awssdk.services.m2.model.ListTagsForResourceRequest;
@@ -18,9 +21,18 @@ import software.amazon.awssdk.services.m2.model.UntagResourceRequest;
 import software.amazon.awssdk.services.m2.model.UntagResourceResponse;
 import software.amazon.awssdk.services.m2.model.UpdateApplicationRequest;
 import software.amazon.awssdk.services.m2.model.UpdateApplicationResponse;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.m2.common.ApiRateLimiter;
+import software.amazon.m2.common.CircuitBreakerRegistry;
 import software.amazon.m2.common.ExceptionHandlerWrapper;
+import software.amazon.m2.common.Hedger;
+import software.amazon.m2.common.RequestScope;
+
+import java.util.Optional;
 
 /**
  * Wrapper over M2 SDK to make API calls and wrap M2 exceptions to appropriate CFN exceptions
@@ -29,106 +41,153 @@ public class ApiWrapper {
 
     private static final String CREATE_APPLICATION_API_NAME = "CreateApplication";
     private static final String GET_APPLICATION_API_NAME = "GetApplication";
+    private static final String GET_APPLICATION_VERSION_API_NAME = "GetApplicationVersion";
     private static final String UPDATE_APPLICATION_API_NAME = "UpdateApplication";
     private static final String DELETE_APPLICATION_API_NAME = "DeleteApplication";
     private static final String LIST_APPLICATIONS_API_NAME = "ListApplications";
     private static final String UNTAG_RESOURCE_API_NAME = "UntagResource";
     private static final String TAG_RESOURCE_API_NAME = "TagResource";
     private static final String LIST_TAGS_API_NAME = "ListTagsForResource";
+    private static final String HEAD_OBJECT_API_NAME = "HeadObject";
+
+    private final ApiRateLimiter rateLimiter;
+
+    private final CircuitBreakerRegistry breakers;
+
+    private final Hedger hedger;
 
     private Logger logger;
 
+    private RequestScope scope;
+
+    public ApiWrapper() {
+        this(ApiRateLimiter.getInstance(), CircuitBreakerRegistry.getInstance(), Hedger.getInstance());
+    }
+
+    @VisibleForTesting
+    ApiWrapper(ApiRateLimiter rateLimiter, CircuitBreakerRegistry breakers, Hedger hedger) {
+        this.rateLimiter = rateLimiter;
+        this.breakers = breakers;
+        this.hedger = hedger;
+    }
+
     void setLogger(Logger logger) {
         this.logger = logger;
     }
 
+    /**
+     * Sets the account and region that the calls of the current invocation are rate limited under.
+     */
+    void setScope(RequestScope scope) {
+        this.scope = scope;
+    }
+
     CreateApplicationResponse createApplication(CreateApplicationRequest request, ProxyClient<M2Client> proxyClient) {
         Validate.notNull(request);
         Validate.notNull(proxyClient);
-        try (M2Client m2client = proxyClient.client()) {
-            logger.log(String.format("Calling %s API with application name - %s",
-                CREATE_APPLICATION_API_NAME, request.name()));
-            return ExceptionHandlerWrapper.wrapM2Exception(CREATE_APPLICATION_API_NAME,
-                () -> proxyClient.injectCredentialsAndInvokeV2(request, m2client::createApplication));
-        }
+        logger.log(String.format("Calling %s API with application name - %s",
+            CREATE_APPLICATION_API_NAME, request.name()));
+        return ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, CREATE_APPLICATION_API_NAME,
+            () -> proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::createApplication));
     }
 
     GetApplicationResponse getApplication(GetApplicationRequest request, ProxyClient<M2Client> proxyClient) {
         Validate.notNull(request);
         Validate.notNull(proxyClient);
-        try (M2Client m2client = proxyClient.client()) {
-            logger.log(String.format("Calling %s API with application id - %s",
-                GET_APPLICATION_API_NAME, request.applicationId()));
-            return ExceptionHandlerWrapper.wrapM2Exception(GET_APPLICATION_API_NAME,
-                () -> proxyClient.injectCredentialsAndInvokeV2(request, m2client::getApplication));
-        }
+        logger.log(String.format("Calling %s API with application id - %s",
+            GET_APPLICATION_API_NAME, request.applicationId()));
+        return hedger.call(GET_APPLICATION_API_NAME,
+            () -> ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, GET_APPLICATION_API_NAME,
+                () -> proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::getApplication)));
+    }
+
+    /**
+     * Same as {@link #getApplication}, but returns empty rather than throwing if the application does not exist.
+     */
+    Optional<GetApplicationResponse> findApplication(GetApplicationRequest request, ProxyClient<M2Client> proxyClient) {
+        Validate.notNull(request);
+        Validate.notNull(proxyClient);
+        logger.log(String.format("Calling %s API with application id - %s",
+            GET_APPLICATION_API_NAME, request.applicationId()));
+        return hedger.call(GET_APPLICATION_API_NAME,
+            () -> ExceptionHandlerWrapper.probeM2Resource(rateLimiter, breakers, scope, GET_APPLICATION_API_NAME,
+                () -> proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::getApplication)));
+    }
+
+    GetApplicationVersionResponse getApplicationVersion(GetApplicationVersionRequest request,
+                                                        ProxyClient<M2Client> proxyClient) {
+        Validate.notNull(request);
+        Validate.notNull(proxyClient);
+        logger.log(String.format("Calling %s API with application id - %s and version - %s",
+            GET_APPLICATION_VERSION_API_NAME, request.applicationId(), request.applicationVersion()));
+        return ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, GET_APPLICATION_VERSION_API_NAME,
+            () -> proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::getApplicationVersion));
+    }
+
+    /**
+     * Reads the metadata of an S3 object. S3 errors are not converted: callers of this optional read handle them.
+     */
+    HeadObjectResponse headObject(HeadObjectRequest request, ProxyClient<S3Client> proxyClient) {
+        Validate.notNull(request);
+        Validate.notNull(proxyClient);
+        logger.log(String.format("Calling S3 %s API with bucket - %s and key - %s",
+            HEAD_OBJECT_API_NAME, request.bucket(), request.key()));
+        return proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::headObject);
     }
 
     UpdateApplicationResponse updateApplication(UpdateApplicationRequest request, ProxyClient<M2Client> proxyClient) {
         Validate.notNull(request);
         Validate.notNull(proxyClient);
-        try (M2Client m2client = proxyClient.client()) {
-            logger.log(String.format("Calling %s API with application id - %s",
-                UPDATE_APPLICATION_API_NAME, request.applicationId()));
-            return ExceptionHandlerWrapper.wrapM2Exception(UPDATE_APPLICATION_API_NAME,
-                () -> proxyClient.injectCredentialsAndInvokeV2(request, m2client::updateApplication));
-        }
+        logger.log(String.format("Calling %s API with application id - %s",
+            UPDATE_APPLICATION_API_NAME, request.applicationId()));
+        return ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, UPDATE_APPLICATION_API_NAME,
+            () -> proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::updateApplication));
     }
 
     DeleteApplicationResponse deleteApplication(DeleteApplicationRequest request,
                                                 ProxyClient<M2Client> proxyClient) {
         Validate.notNull(request);
         Validate.notNull(proxyClient);
-        try (M2Client m2client = proxyClient.client()) {
-            logger.log(String.format("Calling %s API with application id - %s",
-                DELETE_APPLICATION_API_NAME, request.applicationId()));
-            return ExceptionHandlerWrapper.wrapM2Exception(DELETE_APPLICATION_API_NAME,
-                () -> proxyClient.injectCredentialsAndInvokeV2(request, m2client::deleteApplication));
-        }
+        logger.log(String.format("Calling %s API with application id - %s",
+            DELETE_APPLICATION_API_NAME, request.applicationId()));
+        return ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, DELETE_APPLICATION_API_NAME,
+            () -> proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::deleteApplication));
     }
 
     ListApplicationsResponse listApplications(ListApplicationsRequest request,
                                               ProxyClient<M2Client> proxyClient) {
         Validate.notNull(request);
         Validate.notNull(proxyClient);
-        try (M2Client m2client = proxyClient.client()) {
-            logger.log(String.format("Calling %s API", LIST_APPLICATIONS_API_NAME));
-            return ExceptionHandlerWrapper.wrapM2Exception(LIST_APPLICATIONS_API_NAME,
-                () -> proxyClient.injectCredentialsAndInvokeV2(request, m2client::listApplications));
-        }
+        logger.log(String.format("Calling %s API", LIST_APPLICATIONS_API_NAME));
+        return ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, LIST_APPLICATIONS_API_NAME,
+            () -> proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::listApplications));
     }
 
     UntagResourceResponse untagResource(UntagResourceRequest request, ProxyClient<M2Client> proxyClient) {
         Validate.notNull(request);
         Validate.notNull(proxyClient);
-        try (M2Client m2client = proxyClient.client()) {
-            logger.log(String.format("Calling %s API with application arn - %s",
-                UNTAG_RESOURCE_API_NAME, request.resourceArn()));
-            return ExceptionHandlerWrapper.wrapM2Exception(UNTAG_RESOURCE_API_NAME,
-                () -> proxyClient.injectCredentialsAndInvokeV2(request, m2client::untagResource));
-        }
+        logger.log(String.format("Calling %s API with application arn - %s",
+            UNTAG_RESOURCE_API_NAME, request.resourceArn()));
+        return ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, UNTAG_RESOURCE_API_NAME,
+            () -> proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::untagResource));
     }
 
     TagResourceResponse tagResource(TagResourceRequest request, ProxyClient<M2Client> proxyClient) {
         Validate.notNull(request);
         Validate.notNull(proxyClient);
-        try (M2Client m2client = proxyClient.client()) {
-            logger.log(String.format("Calling %s API with application arn - %s",
-                TAG_RESOURCE_API_NAME, request.resourceArn()));
-            return ExceptionHandlerWrapper.wrapM2Exception(TAG_RESOURCE_API_NAME,
-                () -> proxyClient.injectCredentialsAndInvokeV2(request, m2client::tagResource));
-        }
+        logger.log(String.format("Calling %s API with application arn - %s",
+            TAG_RESOURCE_API_NAME, request.resourceArn()));
+        return ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, TAG_RESOURCE_API_NAME,
+            () -> proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::tagResource));
     }
 
     ListTagsForResourceResponse listTags(ListTagsForResourceRequest request,
                                          ProxyClient<M2Client> proxyClient) {
         Validate.notNull(request);
         Validate.notNull(proxyClient);
-        try (M2Client m2client = proxyClient.client()) {
-            logger.log(String.format("Calling %s API with application arn - %s",
-                LIST_TAGS_API_NAME, request.resourceArn()));
-            return ExceptionHandlerWrapper.wrapM2Exception(LIST_TAGS_API_NAME,
-                () -> proxyClient.injectCredentialsAndInvokeV2(request, m2client::listTagsForResource));
-        }
+        logger.log(String.format("Calling %s API with application arn - %s",
+            LIST_TAGS_API_NAME, request.resourceArn()));
+        return ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, LIST_TAGS_API_NAME,
+            () -> proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::listTagsForResource));
     }
 }
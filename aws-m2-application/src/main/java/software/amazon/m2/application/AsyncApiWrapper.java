@@ -0,0 +1,102 @@
+package software.amazon.m2.application;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.lang3.Validate;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
+import software.amazon.awssdk.services.m2.model.GetApplicationRequest;
+import software.amazon.awssdk.services.m2.model.GetApplicationResponse;
+import software.amazon.awssdk.services.m2.model.ListTagsForResourceRequest;
+import software.amazon.awssdk.services.m2.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.m2.model.TagResourceRequest;
+import software.amazon.awssdk.services.m2.model.TagResourceResponse;
+import software.amazon.awssdk.services.m2.model.UntagResourceRequest;
+import software.amazon.awssdk.services.m2.model.UntagResourceResponse;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.m2.common.ApiRateLimiter;
+import software.amazon.m2.common.CircuitBreakerRegistry;
+import software.amazon.m2.common.ExceptionHandlerWrapper;
+import software.amazon.m2.common.RequestScope;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of {@link ApiWrapper}. Calls return immediately, so independent calls made in the same
+ * handler step overlap instead of waiting for each other.
+ */
+public class AsyncApiWrapper {
+
+    private static final String GET_APPLICATION_API_NAME = "GetApplication";
+    private static final String UNTAG_RESOURCE_API_NAME = "UntagResource";
+    private static final String TAG_RESOURCE_API_NAME = "TagResource";
+    private static final String LIST_TAGS_API_NAME = "ListTagsForResource";
+
+    private final ApiRateLimiter rateLimiter;
+
+    private final CircuitBreakerRegistry breakers;
+
+    private Logger logger;
+
+    private RequestScope scope;
+
+    public AsyncApiWrapper() {
+        this(ApiRateLimiter.getInstance(), CircuitBreakerRegistry.getInstance());
+    }
+
+    @VisibleForTesting
+    AsyncApiWrapper(ApiRateLimiter rateLimiter, CircuitBreakerRegistry breakers) {
+        this.rateLimiter = rateLimiter;
+        this.breakers = breakers;
+    }
+
+    void setLogger(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Sets the account and region that the calls of the current invocation are rate limited under.
+     */
+    void setScope(RequestScope scope) {
+        this.scope = scope;
+    }
+
+    CompletableFuture<GetApplicationResponse> getApplication(GetApplicationRequest request,
+                                                             ProxyClient<M2AsyncClient> proxyClient) {
+        Validate.notNull(request);
+        Validate.notNull(proxyClient);
+        logger.log(String.format("Calling %s API asynchronously with application id - %s",
+            GET_APPLICATION_API_NAME, request.applicationId()));
+        return ExceptionHandlerWrapper.wrapM2ExceptionAsync(rateLimiter, breakers, scope, GET_APPLICATION_API_NAME,
+            () -> proxyClient.injectCredentialsAndInvokeV2Async(request, proxyClient.client()::getApplication));
+    }
+
+    CompletableFuture<UntagResourceResponse> untagResource(UntagResourceRequest request,
+                                                           ProxyClient<M2AsyncClient> proxyClient) {
+        Validate.notNull(request);
+        Validate.notNull(proxyClient);
+        logger.log(String.format("Calling %s API asynchronously with application arn - %s",
+            UNTAG_RESOURCE_API_NAME, request.resourceArn()));
+        return ExceptionHandlerWrapper.wrapM2ExceptionAsync(rateLimiter, breakers, scope, UNTAG_RESOURCE_API_NAME,
+            () -> proxyClient.injectCredentialsAndInvokeV2Async(request, proxyClient.client()::untagResource));
+    }
+
+    CompletableFuture<TagResourceResponse> tagResource(TagResourceRequest request,
+                                                       ProxyClient<M2AsyncClient> proxyClient) {
+        Validate.notNull(request);
+        Validate.notNull(proxyClient);
+        logger.log(String.format("Calling %s API asynchronously with application arn - %s",
+            TAG_RESOURCE_API_NAME, request.resourceArn()));
+        return ExceptionHandlerWrapper.wrapM2ExceptionAsync(rateLimiter, breakers, scope, TAG_RESOURCE_API_NAME,
+            () -> proxyClient.injectCredentialsAndInvokeV2Async(request, proxyClient.client()::tagResource));
+    }
+
+    CompletableFuture<ListTagsForResourceResponse> listTags(ListTagsForResourceRequest request,
+                                                            ProxyClient<M2AsyncClient> proxyClient) {
+        Validate.notNull(request);
+        Validate.notNull(proxyClient);
+        logger.log(String.format("Calling %s API asynchronously with application arn - %s",
+            LIST_TAGS_API_NAME, request.resourceArn()));
+        return ExceptionHandlerWrapper.wrapM2ExceptionAsync(rateLimiter, breakers, scope, LIST_TAGS_API_NAME,
+            () -> proxyClient.injectCredentialsAndInvokeV2Async(request, proxyClient.client()::listTagsForResource));
+    }
+}
@@ -1,20 +1,42 @@
 package software.amazon.m2.application;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
 import software.amazon.awssdk.services.m2.M2Client;
 import software.amazon.awssdk.services.m2.model.ApplicationLifecycle;
 import software.amazon.awssdk.services.m2.model.ApplicationVersionLifecycle;
+import software.amazon.awssdk.services.m2.model.ApplicationVersionSummary;
 import software.amazon.awssdk.services.m2.model.GetApplicationRequest;
 import software.amazon.awssdk.services.m2.model.GetApplicationResponse;
+import software.amazon.awssdk.services.m2.model.GetApplicationVersionResponse;
+import software.amazon.awssdk.services.m2.model.ListApplicationsRequest;
+import software.amazon.awssdk.services.m2.model.ListApplicationsResponse;
+import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
 import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.resource.Serializer;
+import software.amazon.m2.common.BulkStatusCache;
+import software.amazon.m2.common.CircuitBreakerOpenException;
 import software.amazon.m2.common.ClientBuilder;
+import software.amazon.m2.common.LifecycleAwareDelay;
+import software.amazon.m2.common.LifecycleStates;
+import software.amazon.m2.common.Priming;
+import software.amazon.m2.common.RequestScope;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 
 public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
 
@@ -22,15 +44,35 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
 
     protected final ApiWrapper apiWrapper;
 
+    protected final AsyncApiWrapper asyncApiWrapper;
+
     protected Logger logger;
 
+    protected ProxyClient<M2AsyncClient> asyncProxyClient;
+
+    protected ProxyClient<S3Client> s3ProxyClient;
+
+    private RequestScope scope;
+
+    private static final BulkStatusCache<ApplicationLifecycle> LISTED_STATUSES = new BulkStatusCache<>();
+
+    static {
+        Priming.primeInLambda(ResourceModel.TYPE_NAME, BaseHandlerStd::primeHandlerPaths);
+    }
+
     public BaseHandlerStd() {
         this(new ApiWrapper());
     }
 
     @VisibleForTesting
     BaseHandlerStd(ApiWrapper apiWrapper) {
+        this(apiWrapper, new AsyncApiWrapper());
+    }
+
+    @VisibleForTesting
+    BaseHandlerStd(ApiWrapper apiWrapper, AsyncApiWrapper asyncApiWrapper) {
         this.apiWrapper = apiWrapper;
+        this.asyncApiWrapper = asyncApiWrapper;
     }
 
     @Override
@@ -40,43 +82,110 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
         final CallbackContext callbackContext,
         final Logger logger) {
 
+        final RequestScope scope = RequestScope.of(request);
         this.logger = logger;
+        this.scope = scope;
         this.apiWrapper.setLogger(logger);
-        return handleRequest(
-            proxy,
-            request,
-            callbackContext != null ? callbackContext : new CallbackContext(),
-            proxy.newProxy(ClientBuilder::getClient)
-        );
+        this.apiWrapper.setScope(scope);
+        this.asyncApiWrapper.setLogger(logger);
+        this.asyncApiWrapper.setScope(scope);
+        this.asyncProxyClient = proxy.newProxy(() -> ClientBuilder.getAsyncClient(request.getRegion()));
+        this.s3ProxyClient = proxy.newProxy(() -> S3ClientBuilder.getClient(request.getRegion()));
+        final CallbackContext context = callbackContext != null ? callbackContext : new CallbackContext();
+        try {
+            return handleRequest(
+                proxy,
+                request,
+                context,
+                proxy.newProxy(() -> ClientBuilder.getClient(request.getRegion()))
+            );
+        } catch (final CircuitBreakerOpenException e) {
+            // Come back once the breaker lets calls through again, rather than failing or blocking the handler
+            if (!supportsCallback()) {
+                throw new CfnThrottlingException(e);
+            }
+            logger.log(String.format("%s. Retrying in %d seconds.", e.getMessage(), e.getRetryAfterSeconds()));
+            return ProgressEvent.defaultInProgressHandler(context, e.getRetryAfterSeconds(),
+                request.getDesiredResourceState());
+        }
+    }
+
+    /**
+     * Returns whether the handler can return IN_PROGRESS to be called back later. Read and list handlers cannot.
+     */
+    protected boolean supportsCallback() {
+        return true;
+    }
+
+    /**
+     * Runs the serialization and translation code of a request once, with a sample model, so that its classes are
+     * loaded before the first request.
+     */
+    @VisibleForTesting
+    static void primeHandlerPaths() throws IOException {
+        final String applicationArn = "arn:aws:m2:us-east-1:123456789012:app/priming";
+        final ResourceModel sample = ResourceModel.builder()
+            .applicationArn(applicationArn)
+            .name("priming")
+            .engineType("microfocus")
+            .description("priming")
+            .definition(Definition.builder().content("{}").build())
+            .tags(Collections.singletonMap("key", "value"))
+            .build();
+
+        final Serializer serializer = new Serializer();
+        final ResourceModel model =
+            serializer.deserialize(serializer.serialize(sample), new TypeReference<ResourceModel>() {});
+
+        Translator.toCreateApplicationRequest(model, "priming", model.getTags());
+        Translator.toGetApplicationRequest(model);
+        Translator.toUpdateApplicationRequest(model, 1);
+        Translator.toGetApplicationVersionRequest("priming", 2);
+        Translator.toListTagsRequest(model);
+        Translator.getApplicationResourceModel(GetApplicationResponse.builder()
+            .applicationArn(applicationArn)
+            .applicationId("priming")
+            .name("priming")
+            .engineType("microfocus")
+            .status(ApplicationLifecycle.AVAILABLE)
+            .latestVersion(ApplicationVersionSummary.builder()
+                .applicationVersion(1)
+                .status(ApplicationVersionLifecycle.AVAILABLE)
+                .build())
+            .build());
     }
 
     /**
      * Returns true if the application has stabilized. Throws {@link CfnNotStabilizedException} if the application
-     * status indicates failure
+     * status indicates failure. The poll interval of the status read is recorded in the given delay, and the
+     * environment of the application in the callback context.
      */
     protected boolean waitForApplicationToStabilize(final String applicationId,
                                                     final ResourceModel model,
-                                                    final ProxyClient<M2Client> proxyClient) {
+                                                    final CallbackContext callbackContext,
+                                                    final ProxyClient<M2Client> proxyClient,
+                                                    final LifecycleAwareDelay delay) {
 
-        final GetApplicationResponse getApplicationResponse =
-                apiWrapper.getApplication(
-                        applicationId != null ?
-                                GetApplicationRequest.builder().applicationId(applicationId).build()
-                                : Translator.toGetApplicationRequest(model.getApplicationArn()), proxyClient);
+        final GetApplicationRequest getApplicationRequest = applicationId != null ?
+                GetApplicationRequest.builder().applicationId(applicationId).build()
+                : Translator.toGetApplicationRequest(model.getApplicationArn());
+        if (isListedInTransition(getApplicationRequest.applicationId(), callbackContext.getEnvironmentId(), proxyClient,
+                delay)) {
+            return false;
+        }
+        final GetApplicationResponse getApplicationResponse = apiWrapper.getApplication(getApplicationRequest, proxyClient);
         model.setApplicationArn(getApplicationResponse.applicationArn());
+        callbackContext.setEnvironmentId(getApplicationResponse.environmentId());
         final ApplicationLifecycle applicationStatus = getApplicationResponse.status();
         ApplicationVersionLifecycle latestVersionStatus = getApplicationResponse.latestVersion().status();
-        switch (applicationStatus) {
-            case CREATING:
-            case DELETING:
-                // still in-progress
+        switch (LifecycleStates.APPLICATION.outcome(applicationStatus)) {
+            case IN_PROGRESS:
+                delay.observe(LifecycleStates.APPLICATION.pollInterval(applicationStatus));
                 return false;
-            case CREATED:
-            case READY:
-            case STOPPED:
-            case AVAILABLE:
-                if (ApplicationVersionLifecycle.CREATING.equals(latestVersionStatus)) {
+            case SUCCEEDED:
+                if (LifecycleStates.APPLICATION_VERSION.outcome(latestVersionStatus) == LifecycleStates.Outcome.IN_PROGRESS) {
                     // update application: a new version is being created
+                    delay.observe(LifecycleStates.APPLICATION_VERSION.pollInterval(latestVersionStatus));
                     return false;
                 }
                 // stabilized
@@ -94,6 +203,78 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
         }
     }
 
+    /**
+     * Returns true once the given application version is available. Only the version is read, not the whole
+     * application. Throws {@link CfnGeneralServiceException} with the status reason of the version if it failed. The
+     * poll interval of the status read is recorded in the given delay.
+     */
+    protected boolean waitForApplicationVersionToStabilize(final String applicationId,
+                                                           final Integer applicationVersion,
+                                                           final ProxyClient<M2Client> proxyClient,
+                                                           final LifecycleAwareDelay delay) {
+
+        final GetApplicationVersionResponse getApplicationVersionResponse = apiWrapper.getApplicationVersion(
+                Translator.toGetApplicationVersionRequest(applicationId, applicationVersion), proxyClient);
+        final ApplicationVersionLifecycle versionStatus = getApplicationVersionResponse.status();
+        switch (LifecycleStates.APPLICATION_VERSION.outcome(versionStatus)) {
+            case IN_PROGRESS:
+                delay.observe(LifecycleStates.APPLICATION_VERSION.pollInterval(versionStatus));
+                return false;
+            case SUCCEEDED:
+                logger.log(String.format("%s [%s] version %s has been stabilized.",
+                        ResourceModel.TYPE_NAME, applicationId, applicationVersion));
+                return true;
+            case FAILED:
+                String message = String.format("Error stabilizing resource '%s' with id '%s' version %s. Reason - %s",
+                        ResourceModel.TYPE_NAME, applicationId, applicationVersion,
+                        getApplicationVersionResponse.statusReason());
+                logger.log(message);
+                throw new CfnGeneralServiceException(message);
+            default:
+                logger.log(String.format("Error stabilizing resource '%s' with id '%s' version %s. Unexpected version status - %s",
+                        ResourceModel.TYPE_NAME, applicationId, applicationVersion, versionStatus));
+                throw new CfnNotStabilizedException(ResourceModel.TYPE_NAME, applicationId);
+        }
+    }
+
+    /**
+     * Returns true if a bulk listing of the applications shows this one still in transition, in which case it need not
+     * be read for this poll. The poll interval of the listed state is recorded in the given delay. Listings are only
+     * made while many applications are waited on, and only list the applications of the given environment, if known.
+     */
+    protected boolean isListedInTransition(final String applicationId,
+                                           final String environmentId,
+                                           final ProxyClient<M2Client> proxyClient,
+                                           final LifecycleAwareDelay delay) {
+        final Optional<ApplicationLifecycle> status = LISTED_STATUSES.status(scope,
+                StringUtils.defaultString(environmentId), applicationId,
+                () -> listApplicationStatuses(environmentId, proxyClient));
+        if (!status.isPresent()
+                || LifecycleStates.APPLICATION.outcome(status.get()) != LifecycleStates.Outcome.IN_PROGRESS) {
+            return false;
+        }
+        delay.observe(LifecycleStates.APPLICATION.pollInterval(status.get()));
+        logger.log(String.format("%s [%s] is listed with status %s", ResourceModel.TYPE_NAME, applicationId, status.get()));
+        return true;
+    }
+
+    private Map<String, ApplicationLifecycle> listApplicationStatuses(final String environmentId,
+                                                                      final ProxyClient<M2Client> proxyClient) {
+        final Map<String, ApplicationLifecycle> statuses = new HashMap<>();
+        String nextToken = null;
+        int pages = 0;
+        do {
+            final ListApplicationsRequest listRequest = ListApplicationsRequest.builder()
+                .environmentId(environmentId)
+                .nextToken(nextToken)
+                .build();
+            final ListApplicationsResponse response = apiWrapper.listApplications(listRequest, proxyClient);
+            response.applications().forEach(summary -> statuses.put(summary.applicationId(), summary.status()));
+            nextToken = response.nextToken();
+        } while (nextToken != null && ++pages < BulkStatusCache.MAX_PAGES);
+        return statuses;
+    }
+
     protected String getCallGraphFormat(String api) {
         Validate.notBlank(api);
         return String.format(CALL_GRAPH_FORMAT, api);
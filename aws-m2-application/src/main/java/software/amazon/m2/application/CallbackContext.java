@@ -8,4 +8,6 @@ import software.amazon.cloudformation.proxy.StdCallbackContext;
 @lombok.EqualsAndHashCode(callSuper = true)
 public class CallbackContext extends StdCallbackContext {
     Integer currentApplicationVersion;
+    String environmentId;
+    Boolean definitionDeployed;
 }
@@ -7,6 +7,8 @@ import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.m2.common.ApplicationBackoff;
+import software.amazon.m2.common.LifecycleAwareDelay;
 
 import java.util.Map;
 
@@ -20,6 +22,11 @@ public class CreateHandler extends BaseHandlerStd {
         super(apiWrapper);
     }
 
+    @VisibleForTesting
+    CreateHandler(ApiWrapper apiWrapper, AsyncApiWrapper asyncApiWrapper) {
+        super(apiWrapper, asyncApiWrapper);
+    }
+
     @Override
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
         AmazonWebServicesClientProxy proxy,
@@ -30,7 +37,7 @@ public class CreateHandler extends BaseHandlerStd {
 
         return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext)
             .then(progress -> createApplication(proxy, progress, request, proxyClient))
-            .then(progress -> new ReadHandler(apiWrapper).handleRequest(proxy, request, callbackContext, logger));
+            .then(progress -> new ReadHandler(apiWrapper, asyncApiWrapper).handleRequest(proxy, request, callbackContext, logger));
     }
 
     private ProgressEvent<ResourceModel, CallbackContext> createApplication(
@@ -42,12 +49,17 @@ public class CreateHandler extends BaseHandlerStd {
         final String clientRequestToken = handlerRequest.getClientRequestToken();
         final Map<String, String> tags = generateTagsForCreate(handlerRequest);
 
+        final Definition definition = progress.getResourceModel().getDefinition();
+        final LifecycleAwareDelay delay = new LifecycleAwareDelay(definition == null
+            ? ApplicationBackoff.forCreate(null, null)
+            : ApplicationBackoff.forCreate(definition.getContent(), definition.getS3Location()));
         return proxy.initiate(getCallGraphFormat("CreateApplication"), proxyClient, progress.getResourceModel(),
                 progress.getCallbackContext())
             .translateToServiceRequest((model) -> Translator.toCreateApplicationRequest(model, clientRequestToken, tags))
+            .backoffDelay(delay)
             .makeServiceCall(apiWrapper::createApplication)
             .stabilize((request, response, client, model, callback)
-                -> waitForApplicationToStabilize(response.applicationId(), model, client))
+                -> waitForApplicationToStabilize(response.applicationId(), model, callback, client, delay))
             .progress();
     }
 
@@ -0,0 +1,145 @@
+package software.amazon.m2.application;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fingerprint of an application definition content, which does not depend on JSON whitespace or on the order of
+ * object keys.
+ * <p>
+ * The content is hashed while it is parsed, so no canonical copy of it is built: scalars are hashed as they are read,
+ * each object member is hashed from its key and value, and an object is hashed from the sorted hashes of its members.
+ * Array elements keep their order.
+ */
+final class DefinitionFingerprint {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String ALGORITHM = "SHA-256";
+
+    private DefinitionFingerprint() {
+    }
+
+    /**
+     * Returns the hex encoded fingerprint of the given content, or empty if it is not a single JSON value.
+     */
+    static Optional<String> of(final String content) {
+        if (content == null) {
+            return Optional.empty();
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(new StringReader(content))) {
+            final JsonToken first = parser.nextToken();
+            if (first == null) {
+                return Optional.empty();
+            }
+            final byte[] fingerprint = hash(parser, first);
+            if (parser.nextToken() != null) {
+                // trailing content
+                return Optional.empty();
+            }
+            return Optional.of(toHex(fingerprint));
+        } catch (final IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Tells whether both contents are the same JSON document, up to whitespace and key order. Contents that are not
+     * JSON never match.
+     */
+    static boolean matches(final String content, final String otherContent) {
+        final Optional<String> fingerprint = of(content);
+        return fingerprint.isPresent() && fingerprint.equals(of(otherContent));
+    }
+
+    private static byte[] hash(final JsonParser parser, final JsonToken token) throws IOException {
+        final MessageDigest digest = newDigest();
+        switch (token) {
+            case START_OBJECT: {
+                final List<byte[]> members = new ArrayList<>();
+                while (nextToken(parser) != JsonToken.END_OBJECT) {
+                    final MessageDigest member = newDigest();
+                    update(member, parser.currentName());
+                    member.update(hash(parser, nextToken(parser)));
+                    members.add(member.digest());
+                }
+                members.sort(Arrays::compare);
+                digest.update((byte) '{');
+                members.forEach(digest::update);
+                break;
+            }
+            case START_ARRAY: {
+                digest.update((byte) '[');
+                JsonToken element;
+                while ((element = nextToken(parser)) != JsonToken.END_ARRAY) {
+                    digest.update(hash(parser, element));
+                }
+                break;
+            }
+            case VALUE_STRING:
+                digest.update((byte) 's');
+                update(digest, parser.getText());
+                break;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                digest.update((byte) 'n');
+                update(digest, parser.getText());
+                break;
+            case VALUE_TRUE:
+                digest.update((byte) 't');
+                break;
+            case VALUE_FALSE:
+                digest.update((byte) 'f');
+                break;
+            case VALUE_NULL:
+                digest.update((byte) 'z');
+                break;
+            default:
+                throw new JsonParseException(parser, "Unexpected token " + token);
+        }
+        return digest.digest();
+    }
+
+    private static JsonToken nextToken(final JsonParser parser) throws IOException {
+        final JsonToken token = parser.nextToken();
+        if (token == null) {
+            throw new JsonParseException(parser, "Unexpected end of content");
+        }
+        return token;
+    }
+
+    // Length prefixed, so that consecutive texts cannot be confused
+    private static void update(final MessageDigest digest, final String text) {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -2,13 +2,19 @@ package software.amazon.m2.application;
 
 import com.google.common.annotations.VisibleForTesting;
 import software.amazon.awssdk.services.m2.M2Client;
+import software.amazon.awssdk.services.m2.model.ApplicationLifecycle;
 import software.amazon.awssdk.services.m2.model.DeleteApplicationRequest;
-import software.amazon.awssdk.services.m2.model.DeleteApplicationResponse;
-import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.awssdk.services.m2.model.GetApplicationRequest;
+import software.amazon.awssdk.services.m2.model.GetApplicationResponse;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.m2.common.ApplicationBackoff;
+import software.amazon.m2.common.LifecycleAwareDelay;
+import software.amazon.m2.common.LifecycleStates;
+
+import java.util.Optional;
 
 public class DeleteHandler extends BaseHandlerStd {
 
@@ -44,8 +50,11 @@ public class DeleteHandler extends BaseHandlerStd {
         return proxy.initiate(getCallGraphFormat("DeleteApplication-PreExistenceCheck"), proxyClient, progress.getResourceModel(), progress.getCallbackContext())
                 .translateToServiceRequest(Translator::toGetApplicationRequest)
                 .makeServiceCall((awsRequest, client) -> apiWrapper.getApplication(awsRequest, proxyClient))
-                .done(getAppResponse -> ProgressEvent.defaultInProgressHandler(progress.getCallbackContext(), 0,
-                        Translator.getApplicationResourceModel(getAppResponse)));
+                .done(getAppResponse -> {
+                    progress.getCallbackContext().setEnvironmentId(getAppResponse.environmentId());
+                    return ProgressEvent.defaultInProgressHandler(progress.getCallbackContext(), 0,
+                            Translator.getApplicationResourceModel(getAppResponse));
+                });
     }
 
     private ProgressEvent<ResourceModel, CallbackContext> deleteApplication(
@@ -54,27 +63,37 @@ public class DeleteHandler extends BaseHandlerStd {
         ResourceHandlerRequest<ResourceModel> request,
         ProxyClient<M2Client> proxyClient) {
 
+        final LifecycleAwareDelay delay = new LifecycleAwareDelay(ApplicationBackoff.forDelete());
         return proxy.initiate(getCallGraphFormat("DeleteApplication"), proxyClient, progress.getResourceModel(),
                 progress.getCallbackContext())
             .translateToServiceRequest(Translator::toDeleteApplicationRequest)
+            .backoffDelay(delay)
             .makeServiceCall(apiWrapper::deleteApplication)
-            .stabilize(this::waitForApplicationToDelete)
+            .stabilize((deleteRequest, deleteResponse, client, resourceModel, context)
+                -> waitForApplicationToDelete(deleteRequest, client, resourceModel, context, delay))
             .progress();
     }
 
     private boolean waitForApplicationToDelete(final DeleteApplicationRequest request,
-                                               final DeleteApplicationResponse deleteResponse,
                                                final ProxyClient<M2Client> proxyClient,
                                                final ResourceModel model,
-                                               final CallbackContext callbackContext) {
-        try {
-            apiWrapper.getApplication(Translator.toGetApplicationRequest(model.getApplicationArn()), proxyClient);
+                                               final CallbackContext callbackContext,
+                                               final LifecycleAwareDelay delay) {
+        final GetApplicationRequest getApplicationRequest = Translator.toGetApplicationRequest(model.getApplicationArn());
+        if (isListedInTransition(getApplicationRequest.applicationId(), callbackContext.getEnvironmentId(), proxyClient,
+                delay)) {
+            return false;
+        }
+        final Optional<GetApplicationResponse> application = apiWrapper.findApplication(getApplicationRequest, proxyClient);
+        if (application.isPresent()) {
+            final ApplicationLifecycle status = application.get().status();
+            callbackContext.setEnvironmentId(application.get().environmentId());
+            delay.observe(LifecycleStates.APPLICATION.pollInterval(status));
             // not deleted yet
             return false;
-        } catch (CfnNotFoundException e) {
-            logger.log(String.format("Successfully deleted resource '%s' with id '%s'",
-                ResourceModel.TYPE_NAME, request.applicationId()));
-            return true;
         }
+        logger.log(String.format("Successfully deleted resource '%s' with id '%s'",
+            ResourceModel.TYPE_NAME, request.applicationId()));
+        return true;
     }
 }
@@ -35,4 +35,9 @@ public class ListHandler extends BaseHandlerStd {
                 .nextToken(listEnvsResponse.nextToken())
                 .build());
     }
+
+    @Override
+    protected boolean supportsCallback() {
+        return false;
+    }
 }
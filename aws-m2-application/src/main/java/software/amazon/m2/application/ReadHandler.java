@@ -1,11 +1,17 @@
 package software.amazon.m2.application;
 
 import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.lang3.StringUtils;
 import software.amazon.awssdk.services.m2.M2Client;
+import software.amazon.awssdk.services.m2.model.GetApplicationRequest;
+import software.amazon.awssdk.services.m2.model.ListTagsForResourceResponse;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.m2.common.ExceptionHandlerWrapper;
+
+import java.util.concurrent.CompletableFuture;
 
 public class ReadHandler extends BaseHandlerStd {
 
@@ -17,6 +23,11 @@ public class ReadHandler extends BaseHandlerStd {
         super(apiWrapper);
     }
 
+    @VisibleForTesting
+    ReadHandler(ApiWrapper apiWrapper, AsyncApiWrapper asyncApiWrapper) {
+        super(apiWrapper, asyncApiWrapper);
+    }
+
     @Override
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
         AmazonWebServicesClientProxy proxy,
@@ -28,6 +39,12 @@ public class ReadHandler extends BaseHandlerStd {
         logger.log(String.format("Invoking read handler for resource type '%s'. ApplicationArn - %s",
             ResourceModel.TYPE_NAME, model.getApplicationArn()));
 
+        if (StringUtils.isNotBlank(model.getApplicationArn())) {
+            return ProgressEvent.progress(model, callbackContext)
+                .then(progress -> getApplicationWithTags(proxy, progress, proxyClient))
+                .then(progress -> ProgressEvent.defaultSuccessHandler(progress.getResourceModel()));
+        }
+
         return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext)
             .then(progress -> getApplication(proxy, progress, proxyClient))
             .then(progress -> getApplicationTags(proxy, progress, proxyClient))
@@ -47,6 +64,38 @@ public class ReadHandler extends BaseHandlerStd {
                 ProgressEvent.progress(Translator.getApplicationResourceModel(awsResponse), context));
     }
 
+    /**
+     * Reads the application and its tags at the same time. ListTagsForResource only needs the ARN, so when the
+     * caller already knows it the call is started before GetApplication and joined once the application is read. If
+     * the read fails, the tag call is cancelled.
+     */
+    private ProgressEvent<ResourceModel, CallbackContext> getApplicationWithTags(
+        AmazonWebServicesClientProxy proxy,
+        ProgressEvent<ResourceModel, CallbackContext> progress,
+        ProxyClient<M2Client> proxyClient) {
+
+        // Translating first rejects a malformed ARN before any call is made
+        final GetApplicationRequest getApplicationRequest =
+            Translator.toGetApplicationRequest(progress.getResourceModel());
+        final CompletableFuture<ListTagsForResourceResponse> listTagsFuture =
+            asyncApiWrapper.listTags(Translator.toListTagsRequest(progress.getResourceModel()), asyncProxyClient);
+
+        try {
+            return proxy.initiate(getCallGraphFormat("GetApplication"), proxyClient, progress.getResourceModel(),
+                    progress.getCallbackContext())
+                .translateToServiceRequest(model -> getApplicationRequest)
+                .makeServiceCall(apiWrapper::getApplication)
+                .done((awsRequest, awsResponse, clientProxy, resourceModel, context) -> {
+                    final ResourceModel readModel = Translator.getApplicationResourceModel(awsResponse);
+                    readModel.setTags(ExceptionHandlerWrapper.join(listTagsFuture).tags());
+                    return ProgressEvent.progress(readModel, context);
+                });
+        } finally {
+            // No-op once the tags are joined
+            listTagsFuture.cancel(true);
+        }
+    }
+
     private ProgressEvent<ResourceModel, CallbackContext> getApplicationTags(
         AmazonWebServicesClientProxy proxy,
         ProgressEvent<ResourceModel, CallbackContext> progress,
@@ -62,4 +111,9 @@ public class ReadHandler extends BaseHandlerStd {
                 return ProgressEvent.progress(resourceModel, progress.getCallbackContext());
             });
     }
+
+    @Override
+    protected boolean supportsCallback() {
+        return false;
+    }
 }
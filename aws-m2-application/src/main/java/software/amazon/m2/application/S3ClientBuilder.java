@@ -0,0 +1,54 @@
+package software.amazon.m2.application;
+
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.m2.common.ClientBuilder;
+import software.amazon.m2.common.ClientPool;
+
+import java.net.URI;
+
+/**
+ * Provides the S3 client used to check application definitions stored in S3.
+ * <p>
+ * Clients are pooled like the M2 clients of {@link ClientBuilder}, and share their HTTP client. They keep the SDK's
+ * default retry policy for S3: the retry budgets of the M2 clients depend on M2 operation names, and would count
+ * HeadObject as a mutating call. A failed HeadObject only lets the update go ahead, so it needs no larger budget. The
+ * endpoint can be overridden with the {@value #ENDPOINT_OVERRIDE_ENV_VARIABLE} environment variable, for example to
+ * use a local S3 stand-in.
+ */
+final class S3ClientBuilder {
+    static final String ENDPOINT_OVERRIDE_ENV_VARIABLE = "M2_S3_ENDPOINT_OVERRIDE";
+
+    private static final String ENDPOINT_OVERRIDE = System.getenv(ENDPOINT_OVERRIDE_ENV_VARIABLE);
+
+    private static final ClientPool<S3Client> CLIENTS = new ClientPool<>(ClientBuilder.POOL_SIZE,
+        S3ClientBuilder::buildClient, ClientPool.metricsPublisher("S3Client"));
+
+    /**
+     * Returns the pooled S3 client for the given region, building it on first use. Callers must not close the
+     * returned client.
+     */
+    static S3Client getClient(final String region) {
+        return CLIENTS.get(new ClientPool.Key(region, ENDPOINT_OVERRIDE));
+    }
+
+    private static S3Client buildClient(final ClientPool.Key key) {
+        return S3Client.builder()
+            .httpClient(ClientBuilder.getHttpClient())
+            .applyMutation(builder -> {
+                if (key.getRegion() != null) {
+                    builder.region(Region.of(key.getRegion()));
+                }
+                if (key.getEndpointOverride() != null) {
+                    // S3 stand-ins rarely resolve bucket subdomains
+                    builder.endpointOverride(URI.create(key.getEndpointOverride()))
+                        .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+                }
+            })
+            .build();
+    }
+
+    private S3ClientBuilder() {
+    }
+}
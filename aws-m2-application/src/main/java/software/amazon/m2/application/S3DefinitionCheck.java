@@ -0,0 +1,91 @@
+package software.amazon.m2.application;
+
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tells whether the object behind an S3 definition location is the one the current application version was created
+ * from, whether or not the location itself changed.
+ * <p>
+ * M2 returns the definition content of a version, so the object does not need to be downloaded: its ETag, read with a
+ * HEAD request, is compared with the MD5 digest of the version content. This relies on three assumptions:
+ * <ul>
+ *     <li>the object was uploaded in a single part: the ETag of a multipart upload is not the digest of the object,
+ *     and ends with {@code -<part count>};</li>
+ *     <li>the object is not encrypted with SSE-KMS or SSE-C, whose ETags are 32 hex characters too, but not the
+ *     digest of the object;</li>
+ *     <li>M2 returns the content of the version byte for byte, in UTF-8, as it was read from the object.</li>
+ * </ul>
+ * Only a plain 32 hex character ETag is compared at all. When an assumption does not hold, the ETag does not match
+ * and the object gets a new version, as it would without the check. The check is off unless the
+ * {@value #ENABLED_ENV_VARIABLE} environment variable is {@code true}.
+ */
+final class S3DefinitionCheck {
+
+    static final String ENABLED_ENV_VARIABLE = "M2_S3_DEFINITION_CHECK";
+
+    private static final String S3_SCHEME = "s3://";
+
+    // 32 hex characters, quoted or not, without the -<part count> suffix of multipart uploads
+    private static final Pattern MD5_ETAG = Pattern.compile("(\"?)([0-9a-fA-F]{32})\\1");
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getenv(ENABLED_ENV_VARIABLE));
+
+    private S3DefinitionCheck() {
+    }
+
+    static boolean isEnabledByEnvironment() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns the HEAD request of the object at the given {@code s3://bucket/key} location, or empty if it is not one.
+     */
+    static Optional<HeadObjectRequest> toHeadObjectRequest(final String s3Location) {
+        if (s3Location == null || !s3Location.regionMatches(true, 0, S3_SCHEME, 0, S3_SCHEME.length())) {
+            return Optional.empty();
+        }
+        final String path = s3Location.substring(S3_SCHEME.length());
+        final int delimIndex = path.indexOf('/');
+        if (delimIndex <= 0 || delimIndex == path.length() - 1) {
+            return Optional.empty();
+        }
+        return Optional.of(HeadObjectRequest.builder()
+            .bucket(path.substring(0, delimIndex))
+            .key(path.substring(delimIndex + 1))
+            .build());
+    }
+
+    /**
+     * Tells whether the object described by the given HEAD response has exactly the given content. Objects whose ETag
+     * is not a plain MD5 digest never match.
+     */
+    static boolean matches(final HeadObjectResponse object, final String content) {
+        if (object.eTag() == null || content == null) {
+            return false;
+        }
+        final Matcher eTag = MD5_ETAG.matcher(object.eTag());
+        return eTag.matches() && eTag.group(2).equalsIgnoreCase(md5Hex(content));
+    }
+
+    private static String md5Hex(final String content) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+        final StringBuilder hex = new StringBuilder(32);
+        for (final byte b : digest.digest(content.getBytes(StandardCharsets.UTF_8))) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -5,6 +5,7 @@ import software.amazon.awssdk.services.m2.model.Definition;
 import software.amazon.awssdk.services.m2.model.DeleteApplicationRequest;
 import software.amazon.awssdk.services.m2.model.GetApplicationRequest;
 import software.amazon.awssdk.services.m2.model.GetApplicationResponse;
+import software.amazon.awssdk.services.m2.model.GetApplicationVersionRequest;
 import software.amazon.awssdk.services.m2.model.ListApplicationsRequest;
 import software.amazon.awssdk.services.m2.model.ListApplicationsResponse;
 import software.amazon.awssdk.services.m2.model.ListTagsForResourceRequest;
@@ -15,6 +16,7 @@ import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -60,6 +62,13 @@ public class Translator {
         return applicationArn.substring(delimIndex + 1);
     }
 
+    static GetApplicationVersionRequest toGetApplicationVersionRequest(String applicationId, Integer applicationVersion) {
+        return GetApplicationVersionRequest.builder()
+                .applicationId(applicationId)
+                .applicationVersion(applicationVersion)
+                .build();
+    }
+
     static UpdateApplicationRequest toUpdateApplicationRequest(ResourceModel model, Integer currentApplicationVersion) {
         return UpdateApplicationRequest.builder()
                 .applicationId(getApplicationId(model.getApplicationArn()))
@@ -72,6 +81,16 @@ public class Translator {
                 .build();
     }
 
+    /**
+     * Tells whether UpdateApplication is needed to move the application from the previous model to the given one,
+     * that is whether its definition or description changed. It is always needed without a previous model.
+     */
+    static boolean hasApplicationChanges(ResourceModel model, ResourceModel previousModel) {
+        return previousModel == null
+                || !Objects.equals(model.getDefinition(), previousModel.getDefinition())
+                || !Objects.equals(model.getDescription(), previousModel.getDescription());
+    }
+
     static DeleteApplicationRequest toDeleteApplicationRequest(ResourceModel model) {
         return DeleteApplicationRequest.builder()
                 .applicationId(getApplicationId(model.getApplicationArn()))
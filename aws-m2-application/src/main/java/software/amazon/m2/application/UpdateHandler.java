@@ -1,24 +1,53 @@
 package software.amazon.m2.application;
 
 import com.google.common.annotations.VisibleForTesting;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.services.m2.M2Client;
+import software.amazon.awssdk.services.m2.model.ApplicationVersionLifecycle;
+import software.amazon.awssdk.services.m2.model.GetApplicationVersionResponse;
+import software.amazon.awssdk.services.m2.model.UpdateApplicationResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
-import software.amazon.m2.common.TagHelper;
+import software.amazon.m2.common.ApplicationBackoff;
+import software.amazon.m2.common.ExceptionHandlerWrapper;
+import software.amazon.m2.common.LifecycleAwareDelay;
+import software.amazon.m2.common.TagDiff;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class UpdateHandler extends BaseHandlerStd {
 
+    private final boolean checkS3Definitions;
+
     public UpdateHandler() {
+        this.checkS3Definitions = S3DefinitionCheck.isEnabledByEnvironment();
     }
 
     @VisibleForTesting
     UpdateHandler(ApiWrapper apiWrapper) {
         super(apiWrapper);
+        this.checkS3Definitions = S3DefinitionCheck.isEnabledByEnvironment();
+    }
+
+    @VisibleForTesting
+    UpdateHandler(ApiWrapper apiWrapper, AsyncApiWrapper asyncApiWrapper) {
+        this(apiWrapper, asyncApiWrapper, S3DefinitionCheck.isEnabledByEnvironment());
+    }
+
+    @VisibleForTesting
+    UpdateHandler(ApiWrapper apiWrapper, AsyncApiWrapper asyncApiWrapper, boolean checkS3Definitions) {
+        super(apiWrapper, asyncApiWrapper);
+        this.checkS3Definitions = checkS3Definitions;
     }
 
     @Override
@@ -29,13 +58,30 @@ public class UpdateHandler extends BaseHandlerStd {
             ProxyClient<M2Client> proxyClient) {
         logger.log(String.format("Invoking update handler for resource type '%s' with Arn '%s'",
                 ResourceModel.TYPE_NAME, request.getDesiredResourceState().getApplicationArn()));
+        // stack tags and the Tags property are not merged together by a Configuration class
+        final TagDiff tagDiff = TagDiff.of(request, ResourceModel::getTags);
 
         return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext)
-                .then(progress -> getCurrentVersion(proxy, progress, request, proxyClient))
-                .then(progress -> updateApplication(proxy, progress, proxyClient))
-                .then(progress -> removeTagsForApplication(proxy, progress, callbackContext, request, proxyClient))
-                .then(progress -> addTagsForApplication(proxy, progress, callbackContext, request, proxyClient))
-                .then(progress -> new ReadHandler(apiWrapper).handleRequest(proxy, request, callbackContext, logger));
+                // tag changes alone need no new version, nor any wait; the object behind an unchanged S3 location may
+                // have changed though
+                .then(progress -> Translator.hasApplicationChanges(progress.getResourceModel(), request.getPreviousResourceState())
+                        || hasCheckedS3Definition(progress.getResourceModel())
+                        ? getCurrentVersion(proxy, progress, request, proxyClient)
+                                .then(current -> isDefinitionDeployed(current, request.getPreviousResourceState(), proxyClient)
+                                        ? current
+                                        : updateApplication(proxy, current, proxyClient))
+                        : skipApplicationUpdate(progress))
+                .then(progress -> tagDiff.isEmpty()
+                        ? skipTagging(progress, tagDiff)
+                        : updateTagsForApplication(progress, tagDiff))
+                .then(progress -> new ReadHandler(apiWrapper, asyncApiWrapper).handleRequest(proxy, request, callbackContext, logger));
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> skipApplicationUpdate(
+        ProgressEvent<ResourceModel, CallbackContext> progress) {
+        logger.log(String.format("Definition and description of application with id '%s' are unchanged, skipping UpdateApplication",
+                progress.getResourceModel().getApplicationId()));
+        return progress;
     }
 
     private ProgressEvent<ResourceModel, CallbackContext> getCurrentVersion(final AmazonWebServicesClientProxy proxy,
@@ -53,56 +99,163 @@ public class UpdateHandler extends BaseHandlerStd {
                 );
     }
 
+    private boolean hasCheckedS3Definition(final ResourceModel model) {
+        return checkS3Definitions && model.getDefinition() != null && model.getDefinition().getContent() == null
+                && model.getDefinition().getS3Location() != null;
+    }
+
+    /**
+     * Tells whether the desired definition is already the one of the current application version, with an unchanged
+     * description. UpdateApplication would then only create a copy of the current version. The definition is
+     * compared with the content M2 returns for the version, as it is a write-only property that reads do not return:
+     * inline content up to JSON whitespace and key order, and, when enabled, an S3 object by its ETag. Inline content
+     * is first compared with the previous content, locally: only a content that fingerprints the same, such as a
+     * reformatted one, can be deployed already, so the version is not read for any other. Only an available version
+     * counts as deployed. The decision is kept in the callback context, so that later invocations
+     * of the same update do not compare again.
+     */
+    private boolean isDefinitionDeployed(
+        ProgressEvent<ResourceModel, CallbackContext> progress,
+        ResourceModel previousModel,
+        ProxyClient<M2Client> proxyClient) {
+
+        final CallbackContext callbackContext = progress.getCallbackContext();
+        if (callbackContext.getDefinitionDeployed() == null) {
+            callbackContext.setDefinitionDeployed(compareDefinition(progress.getResourceModel(), previousModel,
+                    callbackContext.getCurrentApplicationVersion(), proxyClient));
+        }
+        return callbackContext.getDefinitionDeployed();
+    }
+
+    private boolean compareDefinition(
+        ResourceModel model,
+        ResourceModel previousModel,
+        Integer currentVersion,
+        ProxyClient<M2Client> proxyClient) {
+
+        final Definition definition = model.getDefinition();
+        if (previousModel == null || currentVersion == null || definition == null
+                || !Objects.equals(model.getDescription(), previousModel.getDescription())) {
+            return false;
+        }
+        final String applicationId = Translator.toGetApplicationRequest(model).applicationId();
+        final boolean deployed;
+        if (definition.getContent() != null) {
+            final Definition previousDefinition = previousModel.getDefinition();
+            if (previousDefinition == null
+                    || !DefinitionFingerprint.matches(definition.getContent(), previousDefinition.getContent())) {
+                return false;
+            }
+            deployed = DefinitionFingerprint.matches(definition.getContent(),
+                    getAvailableVersionContent(applicationId, currentVersion, proxyClient));
+        } else if (hasCheckedS3Definition(model)) {
+            // the object is read first, as its ETag may not be comparable at all
+            final Optional<HeadObjectResponse> object = headDefinitionObject(definition.getS3Location());
+            deployed = object.isPresent() && S3DefinitionCheck.matches(object.get(),
+                    getAvailableVersionContent(applicationId, currentVersion, proxyClient));
+        } else {
+            return false;
+        }
+        if (deployed) {
+            logger.log(String.format("Definition of application with id '%s' matches version %s, skipping UpdateApplication",
+                    applicationId, currentVersion));
+        }
+        return deployed;
+    }
+
+    /**
+     * Returns the definition content of the given version, or null if the version is not available: a failed or
+     * still creating version must not stand in for the desired definition.
+     */
+    private String getAvailableVersionContent(String applicationId, Integer applicationVersion,
+                                              ProxyClient<M2Client> proxyClient) {
+        final GetApplicationVersionResponse version = apiWrapper.getApplicationVersion(
+                Translator.toGetApplicationVersionRequest(applicationId, applicationVersion), proxyClient);
+        return version.status() == ApplicationVersionLifecycle.AVAILABLE ? version.definitionContent() : null;
+    }
+
+    /**
+     * Reads the metadata of the definition object, or returns empty if it cannot be read: the update then goes ahead
+     * and M2 reports any problem with the object.
+     */
+    private Optional<HeadObjectResponse> headDefinitionObject(String s3Location) {
+        final Optional<HeadObjectRequest> request = S3DefinitionCheck.toHeadObjectRequest(s3Location);
+        if (!request.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            final HeadObjectResponse response = apiWrapper.headObject(request.get(), s3ProxyClient);
+            logger.log(String.format("Definition object '%s' has ETag %s and version id %s",
+                    s3Location, response.eTag(), response.versionId()));
+            return Optional.of(response);
+        } catch (final SdkException e) {
+            logger.log(String.format("Could not read definition object '%s', updating the application: %s",
+                    s3Location, e.getMessage()));
+            return Optional.empty();
+        }
+    }
+
     private ProgressEvent<ResourceModel, CallbackContext> updateApplication(
         AmazonWebServicesClientProxy proxy,
         ProgressEvent<ResourceModel, CallbackContext> progress,
         ProxyClient<M2Client> proxyClient) {
 
+        final Definition definition = progress.getResourceModel().getDefinition();
+        final LifecycleAwareDelay delay = new LifecycleAwareDelay(definition == null
+                ? ApplicationBackoff.forNewVersion(null, null)
+                : ApplicationBackoff.forNewVersion(definition.getContent(), definition.getS3Location()));
         return proxy.initiate(getCallGraphFormat("UpdateApplication"), proxyClient, progress.getResourceModel(),
                         progress.getCallbackContext())
                 .translateToServiceRequest(model ->
                         Translator.toUpdateApplicationRequest(model,
                                 progress.getCallbackContext().getCurrentApplicationVersion()))
+                .backoffDelay(delay)
                 .makeServiceCall(apiWrapper::updateApplication)
-                .stabilize((request, response, client, model, callback)
-                        -> waitForApplicationToStabilize(request.applicationId(), model, client))
+                .stabilize((request, response, client, model, callback) -> request.definition() == null
+                        // no new version: only the application itself changes
+                        ? waitForApplicationToStabilize(request.applicationId(), model, callback, client, delay)
+                        : waitForApplicationVersionToStabilize(request.applicationId(),
+                                newApplicationVersion(response, callback), client, delay))
                 .progress();
     }
 
-    private ProgressEvent<ResourceModel, CallbackContext> removeTagsForApplication(
-        AmazonWebServicesClientProxy proxy,
-        ProgressEvent<ResourceModel, CallbackContext> progress,
-        CallbackContext callbackContext,
-        ResourceHandlerRequest<ResourceModel> request,
-        ProxyClient<M2Client> proxyClient) {
-
-        final ResourceModel resourceModel = progress.getResourceModel();
-        final Set<String> tagsToRemove = TagHelper.generateTagsToRemove(request);
-        if (!tagsToRemove.isEmpty()) {
-            logger.log(String.format("Removing tags for application with id '%s'", resourceModel.getApplicationId()));
-            return proxy.initiate(getCallGraphFormat("UntagResource"), proxyClient, resourceModel, callbackContext)
-                .translateToServiceRequest(model -> Translator.toUntagResourceRequest(model, tagsToRemove))
-                .makeServiceCall(apiWrapper::untagResource)
-                .progress();
+    private static Integer newApplicationVersion(final UpdateApplicationResponse response,
+                                                 final CallbackContext callbackContext) {
+        if (response.applicationVersion() != null) {
+            return response.applicationVersion();
         }
-        return ProgressEvent.progress(resourceModel, callbackContext);
+        final Integer currentVersion = callbackContext.getCurrentApplicationVersion();
+        return currentVersion == null ? null : currentVersion + 1;
     }
 
-    private ProgressEvent<ResourceModel, CallbackContext> addTagsForApplication(
-        AmazonWebServicesClientProxy proxy,
+    private ProgressEvent<ResourceModel, CallbackContext> skipTagging(
         ProgressEvent<ResourceModel, CallbackContext> progress,
-        CallbackContext callbackContext, ResourceHandlerRequest<ResourceModel> requestHandler,
-        ProxyClient<M2Client> proxyClient) {
+        TagDiff tagDiff) {
+        logger.log(String.format("Tags of application with id '%s' are unchanged (%d tags), skipping tagging",
+                progress.getResourceModel().getApplicationId(), tagDiff.getUnchangedCount()));
+        return progress;
+    }
 
-        final ResourceModel resourceModel = progress.getResourceModel();
-        final Map<String, String> tagsToAdd = TagHelper.generateTagsToAdd(requestHandler);
-        if (!tagsToAdd.isEmpty()) {
-            logger.log(String.format("Adding tags for application with id '%s'", resourceModel.getApplicationId()));
-            return proxy.initiate(getCallGraphFormat("TagResource"), proxyClient, resourceModel, callbackContext)
-                .translateToServiceRequest(model -> Translator.toTagResourceRequest(model, tagsToAdd))
-                .makeServiceCall(apiWrapper::tagResource)
-                .progress();
+    /**
+     * Removes and adds the changed tags, one call per {@link TagDiff#MAX_TAGS_PER_CALL} tags. The tags removed and
+     * the tags added have different keys, so all the calls are independent and are made together.
+     */
+    private ProgressEvent<ResourceModel, CallbackContext> updateTagsForApplication(
+        ProgressEvent<ResourceModel, CallbackContext> progress,
+        TagDiff tagDiff) {
+
+        final ResourceModel model = progress.getResourceModel();
+        logger.log(String.format("Updating tags for application with id '%s'", model.getApplicationId()));
+        final List<CompletableFuture<?>> calls = new ArrayList<>();
+        for (final Set<String> tagsToRemove : tagDiff.getTagsToRemoveChunks()) {
+            calls.add(asyncApiWrapper.untagResource(Translator.toUntagResourceRequest(model, tagsToRemove),
+                    asyncProxyClient));
+        }
+        for (final Map<String, String> tagsToAdd : tagDiff.getTagsToAddChunks()) {
+            calls.add(asyncApiWrapper.tagResource(Translator.toTagResourceRequest(model, tagsToAdd),
+                    asyncProxyClient));
         }
-        return ProgressEvent.progress(resourceModel, callbackContext);
+        ExceptionHandlerWrapper.join(CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])));
+        return progress;
     }
 }
@@ -9,26 +9,39 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.services.m2.model.CreateApplicationRequest;
 import software.amazon.awssdk.services.m2.model.DeleteApplicationRequest;
 import software.amazon.awssdk.services.m2.model.GetApplicationRequest;
+import software.amazon.awssdk.services.m2.model.GetApplicationResponse;
+import software.amazon.awssdk.services.m2.model.GetApplicationVersionRequest;
 import software.amazon.awssdk.services.m2.model.ListApplicationsRequest;
 import software.amazon.awssdk.services.m2.model.ListTagsForResourceRequest;
+import software.amazon.awssdk.services.m2.model.ResourceNotFoundException;
 import software.amazon.awssdk.services.m2.model.TagResourceRequest;
 import software.amazon.awssdk.services.m2.model.UntagResourceRequest;
 import software.amazon.awssdk.services.m2.model.UpdateApplicationRequest;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.m2.common.AbstractTestBase;
+import software.amazon.m2.common.ApiRateLimiter;
+import software.amazon.m2.common.CircuitBreakerRegistry;
+import software.amazon.m2.common.Hedger;
+import software.amazon.m2.common.RequestScope;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 public class ApiWrapperTest extends AbstractTestBase {
 
-    private final ApiWrapper apiWrapper = new ApiWrapper();
+    private final ApiWrapper apiWrapper = new ApiWrapper(ApiRateLimiter.disabled(), new CircuitBreakerRegistry(), Hedger.disabled());
     @Mock
     private Logger mockLogger;
+    @Mock
+    private S3Client s3Client;
 
     @BeforeEach
-    public void setLogger() {
+    public void setup() {
         apiWrapper.setLogger(mockLogger);
+        apiWrapper.setScope(new RequestScope("123456789012", "us-east-1"));
     }
 
     @Test
@@ -73,6 +86,76 @@ public class ApiWrapperTest extends AbstractTestBase {
         Mockito.verify(m2Client, Mockito.times(1)).getApplication(Mockito.any(GetApplicationRequest.class));
     }
 
+    @Test
+    public void testFindApplication_NullRequest() {
+        assertThrows(NullPointerException.class,
+                () -> apiWrapper.findApplication(null, proxyClient));
+    }
+
+    @Test
+    public void testFindApplication_notFound() {
+        Mockito.when(m2Client.getApplication(Mockito.any(GetApplicationRequest.class)))
+                .thenThrow(ResourceNotFoundException.builder().build());
+
+        GetApplicationRequest request = GetApplicationRequest.builder().applicationId("app-id").build();
+
+        assertTrue(apiWrapper.findApplication(request, proxyClient).isEmpty());
+    }
+
+    @Test
+    public void testFindApplication_success() {
+        Mockito.when(m2Client.getApplication(Mockito.any(GetApplicationRequest.class)))
+                .thenReturn(GetApplicationResponse.builder().applicationId("app-id").build());
+
+        GetApplicationRequest request = GetApplicationRequest.builder().applicationId("app-id").build();
+
+        assertTrue(apiWrapper.findApplication(request, proxyClient).isPresent());
+    }
+
+    @Test
+    public void testGetApplicationVersion_NullRequest() {
+        assertThrows(NullPointerException.class,
+                () -> apiWrapper.getApplicationVersion(null, proxyClient));
+    }
+
+    @Test
+    public void testGetApplicationVersion_NullProxy() {
+        assertThrows(NullPointerException.class,
+                () -> apiWrapper.getApplicationVersion(GetApplicationVersionRequest.builder().build(), null));
+    }
+
+    @Test
+    public void testGetApplicationVersion_success() {
+
+        GetApplicationVersionRequest request = GetApplicationVersionRequest.builder()
+                .applicationId("app-id")
+                .applicationVersion(2)
+                .build();
+        apiWrapper.getApplicationVersion(request, proxyClient);
+
+        Mockito.verify(m2Client, Mockito.times(1)).getApplicationVersion(Mockito.any(GetApplicationVersionRequest.class));
+    }
+
+    @Test
+    public void testHeadObject_NullRequest() {
+        assertThrows(NullPointerException.class,
+                () -> apiWrapper.headObject(null, proxy.newProxy(() -> s3Client)));
+    }
+
+    @Test
+    public void testHeadObject_NullProxy() {
+        assertThrows(NullPointerException.class,
+                () -> apiWrapper.headObject(HeadObjectRequest.builder().build(), null));
+    }
+
+    @Test
+    public void testHeadObject_success() {
+        HeadObjectRequest request = HeadObjectRequest.builder().bucket("test_bucket").key("app.json").build();
+        apiWrapper.headObject(request, proxy.newProxy(() -> s3Client));
+
+        Mockito.verify(s3Client, Mockito.times(1)).headObject(Mockito.any(HeadObjectRequest.class));
+    }
+
     @Test
     public void testUpdateApplication_NullRequest() {
         assertThrows(NullPointerException.class,
@@ -0,0 +1,139 @@
+package software.amazon.m2.application;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
+import software.amazon.awssdk.services.m2.model.GetApplicationRequest;
+import software.amazon.awssdk.services.m2.model.GetApplicationResponse;
+import software.amazon.awssdk.services.m2.model.ListTagsForResourceRequest;
+import software.amazon.awssdk.services.m2.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.m2.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.m2.model.TagResourceRequest;
+import software.amazon.awssdk.services.m2.model.TagResourceResponse;
+import software.amazon.awssdk.services.m2.model.UntagResourceRequest;
+import software.amazon.awssdk.services.m2.model.UntagResourceResponse;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.m2.common.AbstractTestBase;
+import software.amazon.m2.common.ApiRateLimiter;
+import software.amazon.m2.common.CircuitBreakerRegistry;
+import software.amazon.m2.common.ExceptionHandlerWrapper;
+import software.amazon.m2.common.RequestScope;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncApiWrapperTest extends AbstractTestBase {
+
+    private final AsyncApiWrapper asyncApiWrapper = new AsyncApiWrapper(ApiRateLimiter.disabled(), new CircuitBreakerRegistry());
+    @Mock
+    private Logger mockLogger;
+    @Mock
+    private M2AsyncClient m2AsyncClient;
+
+    private ProxyClient<M2AsyncClient> asyncProxyClient;
+
+    @BeforeEach
+    public void setup() {
+        asyncApiWrapper.setLogger(mockLogger);
+        asyncApiWrapper.setScope(new RequestScope("123456789012", "us-east-1"));
+        asyncProxyClient = proxy.newProxy(() -> m2AsyncClient);
+    }
+
+    @Test
+    public void testGetApplication_NullRequest() {
+        assertThrows(NullPointerException.class,
+                () -> asyncApiWrapper.getApplication(null, asyncProxyClient));
+    }
+
+    @Test
+    public void testGetApplication_NullProxy() {
+        assertThrows(NullPointerException.class,
+                () -> asyncApiWrapper.getApplication(GetApplicationRequest.builder().build(), null));
+    }
+
+    @Test
+    public void testGetApplication_success() {
+        final GetApplicationResponse response = GetApplicationResponse.builder().applicationId("app-id").build();
+        Mockito.when(m2AsyncClient.getApplication(Mockito.any(GetApplicationRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        GetApplicationRequest request = GetApplicationRequest.builder().applicationId("app-id").build();
+        assertEquals(response, asyncApiWrapper.getApplication(request, asyncProxyClient).join());
+
+        Mockito.verify(m2AsyncClient, Mockito.times(1)).getApplication(Mockito.any(GetApplicationRequest.class));
+    }
+
+    @Test
+    public void testGetApplication_notFound() {
+        Mockito.when(m2AsyncClient.getApplication(Mockito.any(GetApplicationRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(ResourceNotFoundException.builder().build()));
+
+        GetApplicationRequest request = GetApplicationRequest.builder().applicationId("app-id").build();
+        assertThrows(CfnNotFoundException.class,
+                () -> ExceptionHandlerWrapper.join(asyncApiWrapper.getApplication(request, asyncProxyClient)));
+    }
+
+    @Test
+    public void testUntagResource_success() {
+        Mockito.when(m2AsyncClient.untagResource(Mockito.any(UntagResourceRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(UntagResourceResponse.builder().build()));
+
+        UntagResourceRequest request = UntagResourceRequest.builder().build();
+        asyncApiWrapper.untagResource(request, asyncProxyClient).join();
+
+        Mockito.verify(m2AsyncClient, Mockito.times(1)).untagResource(Mockito.any(UntagResourceRequest.class));
+    }
+
+    @Test
+    public void testTagResource_success() {
+        Mockito.when(m2AsyncClient.tagResource(Mockito.any(TagResourceRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(TagResourceResponse.builder().build()));
+
+        TagResourceRequest request = TagResourceRequest.builder().build();
+        asyncApiWrapper.tagResource(request, asyncProxyClient).join();
+
+        Mockito.verify(m2AsyncClient, Mockito.times(1)).tagResource(Mockito.any(TagResourceRequest.class));
+    }
+
+    @Test
+    public void testListTags_NullRequest() {
+        assertThrows(NullPointerException.class,
+                () -> asyncApiWrapper.listTags(null, asyncProxyClient));
+    }
+
+    @Test
+    public void testListTags_NullProxy() {
+        assertThrows(NullPointerException.class,
+                () -> asyncApiWrapper.listTags(ListTagsForResourceRequest.builder().build(), null));
+    }
+
+    @Test
+    public void testListTags_success() {
+        Mockito.when(m2AsyncClient.listTagsForResource(Mockito.any(ListTagsForResourceRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()));
+
+        ListTagsForResourceRequest request = ListTagsForResourceRequest.builder().resourceArn("arn:m2:resource").build();
+        asyncApiWrapper.listTags(request, asyncProxyClient).join();
+
+        Mockito.verify(m2AsyncClient, Mockito.times(1)).listTagsForResource(Mockito.any(ListTagsForResourceRequest.class));
+    }
+
+    @Test
+    public void testListTags_notFound() {
+        Mockito.when(m2AsyncClient.listTagsForResource(Mockito.any(ListTagsForResourceRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(ResourceNotFoundException.builder().build()));
+
+        ListTagsForResourceRequest request = ListTagsForResourceRequest.builder().resourceArn("arn:m2:resource").build();
+        assertThrows(CfnNotFoundException.class,
+                () -> ExceptionHandlerWrapper.join(asyncApiWrapper.listTags(request, asyncProxyClient)));
+    }
+}
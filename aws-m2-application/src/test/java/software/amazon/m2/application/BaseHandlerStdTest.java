@@ -0,0 +1,13 @@
+package software.amazon.m2.application;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+public class BaseHandlerStdTest {
+
+    @Test
+    public void primeHandlerPaths_Success() {
+        assertDoesNotThrow(BaseHandlerStd::primeHandlerPaths);
+    }
+}
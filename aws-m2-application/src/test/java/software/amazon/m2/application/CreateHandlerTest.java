@@ -24,6 +24,7 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import software.amazon.m2.common.AbstractTestBase;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -38,11 +39,14 @@ public class CreateHandlerTest extends AbstractTestBase {
     @Mock
     private ApiWrapper apiWrapper;
 
+    @Mock
+    private AsyncApiWrapper asyncApiWrapper;
+
     private CreateHandler createHandler;
 
     @BeforeEach
     public void setup() {
-        createHandler = new CreateHandler(apiWrapper);
+        createHandler = new CreateHandler(apiWrapper, asyncApiWrapper);
     }
 
     @Test
@@ -79,8 +83,8 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .thenReturn(getApplicationResponse);
 
         final ImmutableMap<String, String> tags = ImmutableMap.of("Key1", "Value1", "Key2", "Value2");
-        Mockito.when(apiWrapper.listTags(Mockito.any(ListTagsForResourceRequest.class), Mockito.any()))
-                .thenReturn(ListTagsForResourceResponse.builder().tags(tags).build());
+        Mockito.when(asyncApiWrapper.listTags(Mockito.any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().tags(tags).build()));
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
@@ -141,8 +145,8 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .thenReturn(createdResponse);
 
         final ImmutableMap<String, String> tags = ImmutableMap.of("Key1", "Value1", "Key2", "Value2");
-        Mockito.when(apiWrapper.listTags(Mockito.any(ListTagsForResourceRequest.class), Mockito.any()))
-                .thenReturn(ListTagsForResourceResponse.builder().tags(tags).build());
+        Mockito.when(asyncApiWrapper.listTags(Mockito.any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().tags(tags).build()));
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
@@ -0,0 +1,43 @@
+package software.amazon.m2.application;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DefinitionFingerprintTest {
+
+    private static final String CONTENT =
+            "{\"template-version\":\"2.0\",\"resources\":[{\"name\":\"a\",\"count\":1},{\"enabled\":true}]}";
+
+    @Test
+    public void whitespaceAndKeyOrderDoNotMatter() {
+        final String reformatted = "{\n  \"resources\" : [ { \"count\" : 1, \"name\" : \"a\" }, { \"enabled\": true } ],\n"
+                + "  \"template-version\" : \"2.0\"\n}";
+        assertTrue(DefinitionFingerprint.matches(CONTENT, reformatted));
+        assertEquals(DefinitionFingerprint.of(CONTENT), DefinitionFingerprint.of(reformatted));
+    }
+
+    @Test
+    public void arrayOrderMatters() {
+        assertFalse(DefinitionFingerprint.matches(CONTENT,
+                "{\"template-version\":\"2.0\",\"resources\":[{\"enabled\":true},{\"name\":\"a\",\"count\":1}]}"));
+    }
+
+    @Test
+    public void valuesMatter() {
+        assertFalse(DefinitionFingerprint.matches(CONTENT, CONTENT.replace("\"a\"", "\"b\"")));
+        assertFalse(DefinitionFingerprint.matches("{\"a\":\"bc\",\"d\":\"\"}", "{\"a\":\"b\",\"d\":\"c\"}"));
+        assertFalse(DefinitionFingerprint.matches("{\"a\":\"1\"}", "{\"a\":1}"));
+    }
+
+    @Test
+    public void invalidContentHasNoFingerprint() {
+        assertFalse(DefinitionFingerprint.of(null).isPresent());
+        assertFalse(DefinitionFingerprint.of("").isPresent());
+        assertFalse(DefinitionFingerprint.of("{\"a\":").isPresent());
+        assertFalse(DefinitionFingerprint.of("{} {}").isPresent());
+        assertFalse(DefinitionFingerprint.matches("not json", "not json"));
+    }
+}
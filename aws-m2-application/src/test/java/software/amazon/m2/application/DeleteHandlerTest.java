@@ -10,17 +10,19 @@ import software.amazon.awssdk.services.m2.model.DeleteApplicationRequest;
 import software.amazon.awssdk.services.m2.model.DeleteApplicationResponse;
 import software.amazon.awssdk.services.m2.model.GetApplicationRequest;
 import software.amazon.awssdk.services.m2.model.GetApplicationResponse;
-import software.amazon.awssdk.services.m2.model.ResourceNotFoundException;
-import software.amazon.cloudformation.exceptions.CfnNotFoundException;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import software.amazon.m2.common.AbstractTestBase;
+import software.amazon.m2.common.CircuitBreakerOpenException;
+
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -48,8 +50,9 @@ public class DeleteHandlerTest extends AbstractTestBase {
                 .thenReturn(DeleteApplicationResponse.builder().build());
 
         when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
-                .thenReturn(GetApplicationResponse.builder().status("Available").build())
-                .thenThrow(new CfnNotFoundException(ResourceNotFoundException.builder().build()));
+                .thenReturn(GetApplicationResponse.builder().status("Available").build());
+        when(apiWrapper.findApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenReturn(Optional.empty());
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
@@ -63,7 +66,8 @@ public class DeleteHandlerTest extends AbstractTestBase {
         assertNull(response.getResourceModel());
 
         verify(apiWrapper).deleteApplication(any(DeleteApplicationRequest.class), Mockito.any());
-        verify(apiWrapper, times(2)).getApplication(any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper).getApplication(any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper).findApplication(any(GetApplicationRequest.class), Mockito.any());
     }
 
     @Test
@@ -76,9 +80,10 @@ public class DeleteHandlerTest extends AbstractTestBase {
                 .thenReturn(DeleteApplicationResponse.builder().build());
 
         when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
-                .thenReturn(GetApplicationResponse.builder().status("Available").build())
-                .thenReturn(GetApplicationResponse.builder().status("Deleting").build())
-                .thenThrow(new CfnNotFoundException(ResourceNotFoundException.builder().build()));
+                .thenReturn(GetApplicationResponse.builder().status("Available").build());
+        when(apiWrapper.findApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenReturn(Optional.of(GetApplicationResponse.builder().status("Deleting").build()))
+                .thenReturn(Optional.empty());
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
@@ -92,6 +97,26 @@ public class DeleteHandlerTest extends AbstractTestBase {
         assertNull(response.getResourceModel());
 
         verify(apiWrapper).deleteApplication(any(DeleteApplicationRequest.class), Mockito.any());
-        verify(apiWrapper, times(3)).getApplication(any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper).getApplication(any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper, times(2)).findApplication(any(GetApplicationRequest.class), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_CircuitBreakerOpen_InProgress() {
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenThrow(new CircuitBreakerOpenException("GetApplication", 25));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder()
+                        .applicationArn("arn:aws:m2:us-west-2:123456:app/app-id")
+                        .build())
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, new CallbackContext(), logger);
+
+        assertEquals(OperationStatus.IN_PROGRESS, response.getStatus());
+        assertEquals(25, response.getCallbackDelaySeconds());
+        assertEquals(request.getDesiredResourceState(), response.getResourceModel());
+        verify(apiWrapper, never()).deleteApplication(any(DeleteApplicationRequest.class), Mockito.any());
     }
 }
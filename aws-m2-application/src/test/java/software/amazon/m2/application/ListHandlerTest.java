@@ -10,16 +10,19 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.services.m2.model.ApplicationSummary;
 import software.amazon.awssdk.services.m2.model.ListApplicationsRequest;
 import software.amazon.awssdk.services.m2.model.ListApplicationsResponse;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import software.amazon.m2.common.AbstractTestBase;
+import software.amazon.m2.common.CircuitBreakerOpenException;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -104,4 +107,15 @@ public class ListHandlerTest extends AbstractTestBase {
 
         verify(apiWrapper).listApplications(eq(ListApplicationsRequest.builder().build()), Mockito.any());
     }
+
+    @Test
+    public void handleRequest_CircuitBreakerOpen_Throttled() {
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().build())
+                .build();
+        when(apiWrapper.listApplications(eq(ListApplicationsRequest.builder().build()), Mockito.any()))
+                .thenThrow(new CircuitBreakerOpenException("ListApplications", 30));
+
+        assertThrows(CfnThrottlingException.class, () -> handler.handleRequest(proxy, request, null, logger));
+    }
 }
@@ -12,17 +12,24 @@ import software.amazon.awssdk.services.m2.model.GetApplicationResponse;
 import software.amazon.awssdk.services.m2.model.ListTagsForResourceRequest;
 import software.amazon.awssdk.services.m2.model.ListTagsForResourceResponse;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import software.amazon.m2.common.AbstractTestBase;
+import software.amazon.m2.common.CircuitBreakerOpenException;
+
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,11 +38,14 @@ public class ReadHandlerTest extends AbstractTestBase {
     @Mock
     private ApiWrapper apiWrapper;
 
+    @Mock
+    private AsyncApiWrapper asyncApiWrapper;
+
     private ReadHandler handler;
 
     @BeforeEach
     public void setup() {
-        handler = new ReadHandler(apiWrapper);
+        handler = new ReadHandler(apiWrapper, asyncApiWrapper);
     }
 
     @Test
@@ -55,9 +65,9 @@ public class ReadHandlerTest extends AbstractTestBase {
         when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
                 .thenReturn(getApplicationResponse);
 
-        when(apiWrapper.listTags(eq(ListTagsForResourceRequest.builder()
+        when(asyncApiWrapper.listTags(eq(ListTagsForResourceRequest.builder()
                 .resourceArn(model.getApplicationArn()).build()), Mockito.any()))
-                .thenReturn(ListTagsForResourceResponse.builder().tags(tags).build());
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().tags(tags).build()));
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
@@ -77,10 +87,70 @@ public class ReadHandlerTest extends AbstractTestBase {
         assertEquals(tags, actualModel.getTags());
 
         verify(apiWrapper).getApplication(any(GetApplicationRequest.class), Mockito.any());
-        verify(apiWrapper).listTags(eq(ListTagsForResourceRequest.builder()
+        verify(asyncApiWrapper).listTags(eq(ListTagsForResourceRequest.builder()
                 .resourceArn(model.getApplicationArn()).build()), Mockito.any());
     }
 
+    @Test
+    public void handleRequest_WithoutArn_ReadsTagsAfterApplication() {
+        final ImmutableMap<String, String> tags = ImmutableMap.of("Key1", "Value1");
+        final String applicationArn = "arn:aws:m2:us-west-2:123456:app/app-id";
+
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenReturn(GetApplicationResponse.builder()
+                        .applicationId("app-id")
+                        .applicationArn(applicationArn)
+                        .build());
+        when(apiWrapper.listTags(eq(ListTagsForResourceRequest.builder()
+                .resourceArn(applicationArn).build()), Mockito.any()))
+                .thenReturn(ListTagsForResourceResponse.builder().tags(tags).build());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().build())
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, new CallbackContext(), logger);
+
+        assertEquals(OperationStatus.SUCCESS, response.getStatus());
+        assertEquals(applicationArn, response.getResourceModel().getApplicationArn());
+        assertEquals(tags, response.getResourceModel().getTags());
+
+        verify(asyncApiWrapper, never()).listTags(any(ListTagsForResourceRequest.class), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_NotFound_CancelsListTags() {
+        final String applicationArn = "arn:aws:m2:us-west-2:123456:app/app-id";
+        final CompletableFuture<ListTagsForResourceResponse> listTagsFuture = new CompletableFuture<>();
+
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(listTagsFuture);
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenThrow(new CfnNotFoundException(ResourceModel.TYPE_NAME, "app-id"));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().applicationArn(applicationArn).build())
+                .build();
+
+        assertThrows(CfnNotFoundException.class,
+                () -> handler.handleRequest(proxy, request, new CallbackContext(), logger));
+        assertTrue(listTagsFuture.isCancelled());
+    }
+
+    @Test
+    public void handleRequest_CircuitBreakerOpen_Throttled() {
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenThrow(new CircuitBreakerOpenException("GetApplication", 25));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().applicationId("app-id").build())
+                .build();
+
+        assertThrows(CfnThrottlingException.class,
+                () -> handler.handleRequest(proxy, request, new CallbackContext(), logger));
+    }
+
     @Test
     public void handleRequest_invalidArn() {
         ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
@@ -0,0 +1,81 @@
+package software.amazon.m2.application;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class S3DefinitionCheckTest {
+
+    // MD5 digest of CONTENT
+    private static final String CONTENT = "{\"template-version\":\"2.0\"}";
+    private static final String CONTENT_MD5 = "9532094dc2c1fb73b1f199bf0bb881e2";
+
+    @Test
+    public void locationIsSplitIntoBucketAndKey() {
+        assertEquals(Optional.of(HeadObjectRequest.builder().bucket("test_bucket").key("path/to/app.json").build()),
+                S3DefinitionCheck.toHeadObjectRequest("s3://test_bucket/path/to/app.json"));
+    }
+
+    @Test
+    public void otherLocationsAreNotRead() {
+        assertFalse(S3DefinitionCheck.toHeadObjectRequest(null).isPresent());
+        assertFalse(S3DefinitionCheck.toHeadObjectRequest("https://test_bucket/app.json").isPresent());
+        assertFalse(S3DefinitionCheck.toHeadObjectRequest("s3://test_bucket").isPresent());
+        assertFalse(S3DefinitionCheck.toHeadObjectRequest("s3://test_bucket/").isPresent());
+        assertFalse(S3DefinitionCheck.toHeadObjectRequest("s3:///app.json").isPresent());
+    }
+
+    @Test
+    public void singlePartETagMatchesSameContent() {
+        final String eTag = "\"" + CONTENT_MD5 + "\"";
+        assertTrue(S3DefinitionCheck.matches(HeadObjectResponse.builder().eTag(eTag).build(), CONTENT));
+        assertFalse(S3DefinitionCheck.matches(HeadObjectResponse.builder().eTag(eTag).build(), CONTENT + " "));
+    }
+
+    @Test
+    public void unquotedETagMatches() {
+        assertTrue(S3DefinitionCheck.matches(HeadObjectResponse.builder().eTag(CONTENT_MD5).build(), CONTENT));
+        assertTrue(S3DefinitionCheck.matches(HeadObjectResponse.builder().eTag(CONTENT_MD5.toUpperCase()).build(),
+                CONTENT));
+    }
+
+    @Test
+    public void otherETagsNeverMatch() {
+        final String multipartETag = "\"" + CONTENT_MD5 + "-2\"";
+        assertFalse(S3DefinitionCheck.matches(HeadObjectResponse.builder().eTag(multipartETag).build(), CONTENT));
+        assertFalse(S3DefinitionCheck.matches(HeadObjectResponse.builder().eTag(CONTENT_MD5 + "-1").build(), CONTENT));
+        assertFalse(S3DefinitionCheck.matches(HeadObjectResponse.builder().eTag("\"" + CONTENT_MD5).build(), CONTENT));
+        assertFalse(S3DefinitionCheck.matches(HeadObjectResponse.builder().eTag(CONTENT_MD5 + "00").build(), CONTENT));
+        assertFalse(S3DefinitionCheck.matches(HeadObjectResponse.builder().build(), CONTENT));
+        assertFalse(S3DefinitionCheck.matches(HeadObjectResponse.builder().eTag(CONTENT_MD5).build(), null));
+    }
+
+    @Test
+    public void encryptedObjectETagDoesNotMatch() {
+        // SSE-KMS and SSE-C ETags look like MD5 digests, but are not the digest of the object
+        final String kmsETag = "\"2d4fd2b4aa5bc6bbcd6bd0ae1d8e4a1c\"";
+        assertFalse(S3DefinitionCheck.matches(HeadObjectResponse.builder().eTag(kmsETag).build(), CONTENT));
+    }
+
+    @Test
+    public void contentMustBeByteIdentical() {
+        // the digest of the UTF-8 bytes of the content
+        assertTrue(S3DefinitionCheck.matches(HeadObjectResponse.builder()
+                .eTag("\"8d5e854e0947e9713c926695923a1ca1\"").build(), "{\"name\":\"caf\u00e9\"}"));
+        // the same content, stored in Latin-1
+        assertFalse(S3DefinitionCheck.matches(HeadObjectResponse.builder()
+                .eTag("\"e10d032701c886f6ef10f40bd141126a\"").build(), "{\"name\":\"caf\u00e9\"}"));
+        // the same content, stored with a byte order mark
+        assertFalse(S3DefinitionCheck.matches(HeadObjectResponse.builder()
+                .eTag("\"370024d11b3650c05d50e33f7e12e612\"").build(), CONTENT));
+        // the same JSON document, reformatted
+        assertFalse(S3DefinitionCheck.matches(HeadObjectResponse.builder().eTag(CONTENT_MD5).build(),
+                "{ \"template-version\": \"2.0\" }"));
+    }
+}
@@ -5,6 +5,7 @@ import com.google.common.collect.ImmutableSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -14,6 +15,8 @@ import software.amazon.awssdk.services.m2.model.ApplicationVersionSummary;
 import software.amazon.awssdk.services.m2.model.ConflictException;
 import software.amazon.awssdk.services.m2.model.GetApplicationRequest;
 import software.amazon.awssdk.services.m2.model.GetApplicationResponse;
+import software.amazon.awssdk.services.m2.model.GetApplicationVersionRequest;
+import software.amazon.awssdk.services.m2.model.GetApplicationVersionResponse;
 import software.amazon.awssdk.services.m2.model.ListTagsForResourceRequest;
 import software.amazon.awssdk.services.m2.model.ListTagsForResourceResponse;
 import software.amazon.awssdk.services.m2.model.TagResourceRequest;
@@ -22,19 +25,27 @@ import software.amazon.awssdk.services.m2.model.UntagResourceRequest;
 import software.amazon.awssdk.services.m2.model.UntagResourceResponse;
 import software.amazon.awssdk.services.m2.model.UpdateApplicationRequest;
 import software.amazon.awssdk.services.m2.model.UpdateApplicationResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import software.amazon.m2.common.AbstractTestBase;
+import software.amazon.m2.common.TagDiff;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.never;
@@ -48,6 +59,9 @@ public class UpdateHandlerTest extends AbstractTestBase {
     @Mock
     private ApiWrapper apiWrapper;
 
+    @Mock
+    private AsyncApiWrapper asyncApiWrapper;
+
     private UpdateHandler handler;
 
     final String appId = "app-id";
@@ -55,7 +69,7 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
     @BeforeEach
     public void setup() {
-        handler = new UpdateHandler(apiWrapper);
+        handler = new UpdateHandler(apiWrapper, asyncApiWrapper);
     }
 
     @Test
@@ -73,10 +87,12 @@ public class UpdateHandlerTest extends AbstractTestBase {
                 .build();
         when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
                 .thenReturn(getApplicationResponse);
+        when(apiWrapper.getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any()))
+                .thenReturn(getApplicationVersionResponse(ApplicationVersionLifecycle.AVAILABLE));
 
         final ImmutableMap<String, String> tags = ImmutableMap.of("Key1", "Value1", "Key2", "Value2");
-        when(apiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
-                .thenReturn(ListTagsForResourceResponse.builder().tags(tags).build());
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().tags(tags).build()));
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
@@ -94,7 +110,10 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertEquals(appArn, actualModel.getApplicationArn());
 
         verify(apiWrapper).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
-        verify(apiWrapper, times(3)).getApplication(any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper, times(2)).getApplication(any(GetApplicationRequest.class), Mockito.any());
+        // the new version is polled, current + 1
+        verify(apiWrapper).getApplicationVersion(eq(GetApplicationVersionRequest.builder()
+                .applicationId(appId).applicationVersion(2).build()), Mockito.any());
         verify(apiWrapper).listTags(any(ListTagsForResourceRequest.class), Mockito.any());
     }
 
@@ -116,26 +135,28 @@ public class UpdateHandlerTest extends AbstractTestBase {
                 .build();
         when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
                 .thenReturn(getApplicationResponse);
+        when(apiWrapper.getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any()))
+                .thenReturn(getApplicationVersionResponse(ApplicationVersionLifecycle.AVAILABLE));
 
         UntagResourceRequest untagRequest = UntagResourceRequest.builder()
                 .resourceArn(appArn)
                 .tagKeys(ImmutableSet.of("Tag2"))
                 .build();
-        when(apiWrapper.untagResource(eq(untagRequest), Mockito.any()))
-                .thenReturn(UntagResourceResponse.builder().build());
+        when(asyncApiWrapper.untagResource(eq(untagRequest), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(UntagResourceResponse.builder().build()));
 
         TagResourceRequest tagRequest = TagResourceRequest.builder()
                 .resourceArn(appArn)
                 .tags(ImmutableMap.copyOf(newTags))
                 .build();
-        when(apiWrapper.tagResource(eq(tagRequest), Mockito.any()))
-                .thenReturn(TagResourceResponse.builder().build());
+        when(asyncApiWrapper.tagResource(eq(tagRequest), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(TagResourceResponse.builder().build()));
 
         ImmutableMap<String, String> listTags = ImmutableMap.of("Tag1", "Value11", "Tag2", "Value2", "Tag3", "Value3");
-        when(apiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
-                .thenReturn(ListTagsForResourceResponse.builder()
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder()
                         .tags(listTags)
-                        .build());
+                        .build()));
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
@@ -156,10 +177,11 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertEquals(listTags, actualModel.getTags());
 
         verify(apiWrapper).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
-        verify(apiWrapper, times(3)).getApplication(any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper, times(2)).getApplication(any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper).getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any());
 
-        verify(apiWrapper).untagResource(eq(untagRequest), Mockito.any());
-        verify(apiWrapper).tagResource(eq(tagRequest), Mockito.any());
+        verify(asyncApiWrapper).untagResource(eq(untagRequest), Mockito.any());
+        verify(asyncApiWrapper).tagResource(eq(tagRequest), Mockito.any());
         verify(apiWrapper).listTags(any(ListTagsForResourceRequest.class), Mockito.any());
     }
 
@@ -182,16 +204,18 @@ public class UpdateHandlerTest extends AbstractTestBase {
                 .build();
         when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
                 .thenReturn(getApplicationResponse);
+        when(apiWrapper.getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any()))
+                .thenReturn(getApplicationVersionResponse(ApplicationVersionLifecycle.AVAILABLE));
 
         TagResourceRequest tagRequest = TagResourceRequest.builder()
                 .resourceArn(appArn)
                 .tags(ImmutableMap.of("Tag2", "Value2"))
                 .build();
-        when(apiWrapper.tagResource(eq(tagRequest), Mockito.any()))
-                .thenReturn(TagResourceResponse.builder().build());
+        when(asyncApiWrapper.tagResource(eq(tagRequest), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(TagResourceResponse.builder().build()));
 
-        when(apiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
-                .thenReturn(ListTagsForResourceResponse.builder().tags(ImmutableMap.copyOf(newTags)).build());
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().tags(ImmutableMap.copyOf(newTags)).build()));
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
@@ -212,11 +236,12 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertEquals(newTags, actualModel.getTags());
 
         verify(apiWrapper).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
-        verify(apiWrapper, times(3))
+        verify(apiWrapper, times(2))
                 .getApplication(any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper).getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any());
 
-        verify(apiWrapper, never()).untagResource(any(UntagResourceRequest.class), Mockito.any());
-        verify(apiWrapper).tagResource(eq(tagRequest), Mockito.any());
+        verify(asyncApiWrapper, never()).untagResource(any(UntagResourceRequest.class), Mockito.any());
+        verify(asyncApiWrapper).tagResource(eq(tagRequest), Mockito.any());
         verify(apiWrapper).listTags(any(ListTagsForResourceRequest.class), Mockito.any());
     }
 
@@ -238,16 +263,18 @@ public class UpdateHandlerTest extends AbstractTestBase {
                 .build();
         when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
                 .thenReturn(getApplicationResponse);
+        when(apiWrapper.getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any()))
+                .thenReturn(getApplicationVersionResponse(ApplicationVersionLifecycle.AVAILABLE));
 
         UntagResourceRequest untagRequest = UntagResourceRequest.builder()
                 .resourceArn(appArn)
                 .tagKeys(ImmutableSet.of("Tag2"))
                 .build();
-        when(apiWrapper.untagResource(eq(untagRequest), Mockito.any()))
-                .thenReturn(UntagResourceResponse.builder().build());
+        when(asyncApiWrapper.untagResource(eq(untagRequest), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(UntagResourceResponse.builder().build()));
 
-        when(apiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
-                .thenReturn(ListTagsForResourceResponse.builder().tags(ImmutableMap.copyOf(newTags)).build());
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().tags(ImmutableMap.copyOf(newTags)).build()));
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
@@ -268,11 +295,12 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertEquals(newTags, actualModel.getTags());
 
         verify(apiWrapper).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
-        verify(apiWrapper, times(3))
+        verify(apiWrapper, times(2))
                 .getApplication(any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper).getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any());
 
-        verify(apiWrapper).untagResource(eq(untagRequest), Mockito.any());
-        verify(apiWrapper, never()).tagResource(any(TagResourceRequest.class), Mockito.any());
+        verify(asyncApiWrapper).untagResource(eq(untagRequest), Mockito.any());
+        verify(asyncApiWrapper, never()).tagResource(any(TagResourceRequest.class), Mockito.any());
         verify(apiWrapper).listTags(any(ListTagsForResourceRequest.class), Mockito.any());
     }
 
@@ -312,19 +340,25 @@ public class UpdateHandlerTest extends AbstractTestBase {
                 .applicationArn(appArn)
                 .applicationId(appId)
                 .latestVersion(ApplicationVersionSummary.builder().applicationVersion(1).build())
-                .status(ApplicationLifecycle.FAILED)
+                .status(ApplicationLifecycle.AVAILABLE)
                 .build();
         when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
                 .thenReturn(getApplicationResponse);
+        when(apiWrapper.getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any()))
+                .thenReturn(getApplicationVersionResponse(ApplicationVersionLifecycle.FAILED).toBuilder()
+                        .statusReason("Invalid definition")
+                        .build());
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
                 .build();
-        assertThrows(CfnGeneralServiceException.class,
+        final CfnGeneralServiceException exception = assertThrows(CfnGeneralServiceException.class,
                 () -> handler.handleRequest(proxy, request, null, logger));
+        assertTrue(exception.getMessage().contains("Invalid definition"));
 
         verify(apiWrapper).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
-        verify(apiWrapper, times(2)).getApplication(any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper, times(1)).getApplication(any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper).getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any());
     }
 
     @Test
@@ -341,30 +375,30 @@ public class UpdateHandlerTest extends AbstractTestBase {
         Mockito.when(apiWrapper.updateApplication(Mockito.any(UpdateApplicationRequest.class), Mockito.any()))
                 .thenReturn(updateApplicationResponse);
 
-        final GetApplicationResponse updatingResponse = GetApplicationResponse.builder()
+        final GetApplicationResponse currentResponse = GetApplicationResponse.builder()
                 .applicationId("app-id")
                 .applicationArn("arn:aws:m2:us-west-2:123456:app/app-id")
                 .name(model.getName())
                 .status(ApplicationLifecycle.AVAILABLE)
-                .latestVersion(ApplicationVersionSummary.builder().applicationVersion(2)
-                        .status(ApplicationVersionLifecycle.CREATING).build())
-                .build();
-        final GetApplicationResponse updatedResponse = GetApplicationResponse.builder()
-                .applicationId("app-id")
-                .applicationArn("arn:aws:m2:us-west-2:123456:app/app-id")
-                .status(ApplicationLifecycle.AVAILABLE)
                 .latestVersion(ApplicationVersionSummary.builder().applicationVersion(1)
                         .status(ApplicationVersionLifecycle.AVAILABLE).build())
                 .build();
+        final GetApplicationResponse updatedResponse = currentResponse.toBuilder()
+                .latestVersion(ApplicationVersionSummary.builder().applicationVersion(2)
+                        .status(ApplicationVersionLifecycle.AVAILABLE).build())
+                .build();
 
         Mockito.when(apiWrapper.getApplication(Mockito.any(GetApplicationRequest.class), Mockito.any()))
-                .thenReturn(updatingResponse)
-                .thenReturn(updatingResponse)
+                .thenReturn(currentResponse)
                 .thenReturn(updatedResponse);
+        Mockito.when(apiWrapper.getApplicationVersion(Mockito.any(GetApplicationVersionRequest.class), Mockito.any()))
+                .thenReturn(getApplicationVersionResponse(ApplicationVersionLifecycle.CREATING))
+                .thenReturn(getApplicationVersionResponse(ApplicationVersionLifecycle.CREATING))
+                .thenReturn(getApplicationVersionResponse(ApplicationVersionLifecycle.AVAILABLE));
 
         final ImmutableMap<String, String> tags = ImmutableMap.of("Key1", "Value1", "Key2", "Value2");
-        Mockito.when(apiWrapper.listTags(Mockito.any(ListTagsForResourceRequest.class), Mockito.any()))
-                .thenReturn(ListTagsForResourceResponse.builder().tags(tags).build());
+        Mockito.when(asyncApiWrapper.listTags(Mockito.any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().tags(tags).build()));
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
@@ -386,10 +420,473 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertEquals(tags, actualModel.getTags());
 
         verify(apiWrapper).updateApplication(Mockito.any(UpdateApplicationRequest.class), Mockito.any());
-        verify(apiWrapper, times(4)).getApplication(Mockito.any(GetApplicationRequest.class), Mockito.any());
+        // the application is read for its current version and by the final read only
+        verify(apiWrapper, times(2)).getApplication(Mockito.any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper, times(3)).getApplicationVersion(Mockito.any(GetApplicationVersionRequest.class), Mockito.any());
         verify(apiWrapper).listTags(Mockito.any(ListTagsForResourceRequest.class), Mockito.any());
     }
 
+    @Test
+    public void handleRequest_withoutDefinition_waitsForApplication() {
+        final ResourceModel model = getResourceModel();
+        model.setDefinition(null);
+        when(apiWrapper.updateApplication(any(UpdateApplicationRequest.class), Mockito.any()))
+                .thenReturn(UpdateApplicationResponse.builder().applicationVersion(1).build());
+
+        final GetApplicationResponse getApplicationResponse = GetApplicationResponse.builder()
+                .applicationArn(appArn)
+                .applicationId(appId)
+                .latestVersion(ApplicationVersionSummary.builder().applicationVersion(1)
+                        .status(ApplicationVersionLifecycle.AVAILABLE).build())
+                .status(ApplicationLifecycle.AVAILABLE)
+                .build();
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenReturn(getApplicationResponse);
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder()
+                        .tags(ImmutableMap.of("Key1", "Value1")).build()));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, null, logger);
+
+        assertNotNull(response);
+        assertEquals(OperationStatus.SUCCESS, response.getStatus());
+
+        // no new version is created, so the application itself is waited on
+        verify(apiWrapper, times(3)).getApplication(any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper, never()).getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_tagsOnly_skipsApplicationUpdate() {
+        final ImmutableMap<String, String> previousTags = ImmutableMap.of("Tag1", "Value1", "Tag2", "Value2");
+        final ImmutableMap<String, String> newTags = ImmutableMap.of("Tag1", "Value1", "Tag3", "Value3");
+
+        final ResourceModel model = getResourceModel();
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenReturn(GetApplicationResponse.builder()
+                        .applicationArn(appArn)
+                        .applicationId(appId)
+                        .status(ApplicationLifecycle.AVAILABLE)
+                        .build());
+        when(asyncApiWrapper.untagResource(any(UntagResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(UntagResourceResponse.builder().build()));
+        when(asyncApiWrapper.tagResource(any(TagResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(TagResourceResponse.builder().build()));
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder()
+                        .tags(newTags)
+                        .build()));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(getResourceModel())
+                .previousResourceTags(previousTags)
+                .desiredResourceTags(newTags)
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, null, logger);
+
+        assertNotNull(response);
+        assertEquals(OperationStatus.SUCCESS, response.getStatus());
+        assertEquals(newTags, response.getResourceModel().getTags());
+
+        // only the final read: no current version lookup, no update and no wait
+        verify(apiWrapper, never()).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
+        verify(apiWrapper, times(1)).getApplication(any(GetApplicationRequest.class), Mockito.any());
+        verify(apiWrapper, never()).getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any());
+        verify(asyncApiWrapper).untagResource(any(UntagResourceRequest.class), Mockito.any());
+        verify(asyncApiWrapper).tagResource(any(TagResourceRequest.class), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_resourceTagsOnly_tagsApplication() {
+        final ResourceModel model = getResourceModel();
+        model.setTags(ImmutableMap.of("Tag1", "Value11", "Tag3", "Value3"));
+        final ResourceModel previousModel = getResourceModel();
+        previousModel.setTags(ImmutableMap.of("Tag1", "Value1", "Tag2", "Value2"));
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenReturn(GetApplicationResponse.builder()
+                        .applicationArn(appArn)
+                        .applicationId(appId)
+                        .status(ApplicationLifecycle.AVAILABLE)
+                        .build());
+
+        final UntagResourceRequest untagRequest = UntagResourceRequest.builder()
+                .resourceArn(appArn)
+                .tagKeys(ImmutableSet.of("Tag2"))
+                .build();
+        when(asyncApiWrapper.untagResource(eq(untagRequest), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(UntagResourceResponse.builder().build()));
+        final TagResourceRequest tagRequest = TagResourceRequest.builder()
+                .resourceArn(appArn)
+                .tags(ImmutableMap.of("Tag1", "Value11", "Tag3", "Value3"))
+                .build();
+        when(asyncApiWrapper.tagResource(eq(tagRequest), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(TagResourceResponse.builder().build()));
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder()
+                        .tags(model.getTags())
+                        .build()));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, null, logger);
+
+        assertNotNull(response);
+        assertEquals(OperationStatus.SUCCESS, response.getStatus());
+        verify(apiWrapper, never()).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
+        verify(asyncApiWrapper).untagResource(eq(untagRequest), Mockito.any());
+        verify(asyncApiWrapper).tagResource(eq(tagRequest), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_untagFails_stillTagsAndThrows() {
+        final ResourceModel model = getResourceModel();
+        model.setTags(ImmutableMap.of("Tag3", "Value3"));
+        final ResourceModel previousModel = getResourceModel();
+        previousModel.setTags(ImmutableMap.of("Tag2", "Value2"));
+        when(asyncApiWrapper.untagResource(any(UntagResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.failedFuture(new CfnThrottlingException(new RuntimeException("throttled"))));
+        when(asyncApiWrapper.tagResource(any(TagResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(TagResourceResponse.builder().build()));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+
+        assertThrows(CfnThrottlingException.class, () -> handler.handleRequest(proxy, request, null, logger));
+
+        // the calls are made together, so the tags are added even though the untag call failed
+        verify(asyncApiWrapper).untagResource(any(UntagResourceRequest.class), Mockito.any());
+        verify(asyncApiWrapper).tagResource(any(TagResourceRequest.class), Mockito.any());
+        verify(asyncApiWrapper, never()).listTags(any(ListTagsForResourceRequest.class), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_manyTags_tagsInChunks() {
+        final Map<String, String> newTags = new HashMap<>();
+        for (int i = 0; i < TagDiff.MAX_TAGS_PER_CALL + 50; i++) {
+            newTags.put("Tag" + i, "Value" + i);
+        }
+
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenReturn(GetApplicationResponse.builder()
+                        .applicationArn(appArn)
+                        .applicationId(appId)
+                        .status(ApplicationLifecycle.AVAILABLE)
+                        .build());
+        when(asyncApiWrapper.tagResource(any(TagResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(TagResourceResponse.builder().build()));
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder()
+                        .tags(newTags)
+                        .build()));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(getResourceModel())
+                .previousResourceState(getResourceModel())
+                .desiredResourceTags(newTags)
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, null, logger);
+
+        assertNotNull(response);
+        assertEquals(OperationStatus.SUCCESS, response.getStatus());
+
+        final ArgumentCaptor<TagResourceRequest> tagRequests = ArgumentCaptor.forClass(TagResourceRequest.class);
+        verify(asyncApiWrapper, times(2)).tagResource(tagRequests.capture(), Mockito.any());
+        final Map<String, String> taggedTags = new HashMap<>();
+        for (final TagResourceRequest tagRequest : tagRequests.getAllValues()) {
+            assertTrue(tagRequest.tags().size() <= TagDiff.MAX_TAGS_PER_CALL);
+            taggedTags.putAll(tagRequest.tags());
+        }
+        assertEquals(newTags, taggedTags);
+        verify(asyncApiWrapper, never()).untagResource(any(UntagResourceRequest.class), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_reformattedDefinition_skipsApplicationUpdate() {
+        final ResourceModel model = getResourceModel("{ \"resources\": [ { \"name\": \"app\" } ], \"template-version\": \"2.0\" }");
+        final ResourceModel previousModel = getResourceModel("{\"template-version\":\"2.0\",\"resources\":[{\"name\":\"app\"}]}");
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenReturn(GetApplicationResponse.builder()
+                        .applicationArn(appArn)
+                        .applicationId(appId)
+                        .latestVersion(ApplicationVersionSummary.builder().applicationVersion(1)
+                                .status(ApplicationVersionLifecycle.AVAILABLE).build())
+                        .status(ApplicationLifecycle.AVAILABLE)
+                        .build());
+        when(apiWrapper.getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any()))
+                .thenReturn(GetApplicationVersionResponse.builder()
+                        .applicationVersion(1)
+                        .definitionContent(previousModel.getDefinition().getContent())
+                        .status(ApplicationVersionLifecycle.AVAILABLE)
+                        .build());
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, null, logger);
+
+        assertNotNull(response);
+        assertEquals(OperationStatus.SUCCESS, response.getStatus());
+
+        // the current version is read to compare its definition, and no new one is created
+        verify(apiWrapper).getApplicationVersion(eq(GetApplicationVersionRequest.builder()
+                .applicationId(appId).applicationVersion(1).build()), Mockito.any());
+        verify(apiWrapper, never()).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
+        verify(apiWrapper, times(2)).getApplication(any(GetApplicationRequest.class), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_changedDefinition_updatesApplication() {
+        final ResourceModel model = getResourceModel("{\"template-version\":\"2.0\",\"resources\":[{\"name\":\"new-app\"}]}");
+        final ResourceModel previousModel = getResourceModel("{\"template-version\":\"2.0\",\"resources\":[{\"name\":\"app\"}]}");
+        when(apiWrapper.updateApplication(any(UpdateApplicationRequest.class), Mockito.any()))
+                .thenReturn(UpdateApplicationResponse.builder().build());
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenReturn(GetApplicationResponse.builder()
+                        .applicationArn(appArn)
+                        .applicationId(appId)
+                        .latestVersion(ApplicationVersionSummary.builder().applicationVersion(1)
+                                .status(ApplicationVersionLifecycle.AVAILABLE).build())
+                        .status(ApplicationLifecycle.AVAILABLE)
+                        .build());
+        when(apiWrapper.getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any()))
+                .thenReturn(getApplicationVersionResponse(ApplicationVersionLifecycle.AVAILABLE)); // new version
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, null, logger);
+
+        assertNotNull(response);
+        assertEquals(OperationStatus.SUCCESS, response.getStatus());
+
+        // the previous definition differs, so the current version is not read: only the new version is polled
+        verify(apiWrapper).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
+        verify(apiWrapper).getApplicationVersion(eq(GetApplicationVersionRequest.builder()
+                .applicationId(appId).applicationVersion(2).build()), Mockito.any());
+        verify(apiWrapper, never()).getApplicationVersion(eq(GetApplicationVersionRequest.builder()
+                .applicationId(appId).applicationVersion(1).build()), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_definitionOfFailedVersion_updatesApplication() {
+        final ResourceModel model = getResourceModel("{\"template-version\":\"2.0\",\"resources\":[{\"name\":\"app\"}]}");
+        final ResourceModel previousModel = getResourceModel("{ \"resources\": [ { \"name\": \"app\" } ], \"template-version\": \"2.0\" }");
+        when(apiWrapper.updateApplication(any(UpdateApplicationRequest.class), Mockito.any()))
+                .thenReturn(UpdateApplicationResponse.builder().build());
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenReturn(GetApplicationResponse.builder()
+                        .applicationArn(appArn)
+                        .applicationId(appId)
+                        .latestVersion(ApplicationVersionSummary.builder().applicationVersion(1)
+                                .status(ApplicationVersionLifecycle.AVAILABLE).build())
+                        .status(ApplicationLifecycle.AVAILABLE)
+                        .build());
+        when(apiWrapper.getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any()))
+                .thenReturn(GetApplicationVersionResponse.builder()
+                        .applicationVersion(1)
+                        .definitionContent(model.getDefinition().getContent())
+                        .status(ApplicationVersionLifecycle.FAILED)
+                        .build()) // current version, from a failed earlier update
+                .thenReturn(getApplicationVersionResponse(ApplicationVersionLifecycle.AVAILABLE)); // new version
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, null, logger);
+
+        assertNotNull(response);
+        assertEquals(OperationStatus.SUCCESS, response.getStatus());
+
+        // a matching definition of a version that is not available does not count as deployed
+        verify(apiWrapper).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
+        verify(apiWrapper, times(2)).getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_definitionAlreadyCompared_doesNotCompareAgain() {
+        final ResourceModel model = getResourceModel("{\"template-version\":\"2.0\",\"resources\":[{\"name\":\"app\"}]}");
+        final ResourceModel previousModel = getResourceModel("{\"template-version\":\"2.0\",\"resources\":[{\"name\":\"old-app\"}]}");
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenReturn(GetApplicationResponse.builder()
+                        .applicationArn(appArn)
+                        .applicationId(appId)
+                        .latestVersion(ApplicationVersionSummary.builder().applicationVersion(1)
+                                .status(ApplicationVersionLifecycle.AVAILABLE).build())
+                        .status(ApplicationLifecycle.AVAILABLE)
+                        .build());
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()));
+        final CallbackContext callbackContext = new CallbackContext();
+        callbackContext.setDefinitionDeployed(true);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertNotNull(response);
+        assertEquals(OperationStatus.SUCCESS, response.getStatus());
+
+        // the decision of an earlier invocation stands
+        verify(apiWrapper, never()).getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any());
+        verify(apiWrapper, never()).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_unchangedS3Object_skipsApplicationUpdate() {
+        final UpdateHandler checkingHandler = new UpdateHandler(apiWrapper, asyncApiWrapper, true);
+        final String content = "{\"template-version\":\"2.0\"}";
+        // the location changed, not the object bytes
+        final ResourceModel model = getS3ResourceModel("s3://test_bucket/v2/app.json");
+        final ResourceModel previousModel = getS3ResourceModel("s3://test_bucket/v1/app.json");
+        stubCurrentVersion(content);
+        when(apiWrapper.headObject(any(HeadObjectRequest.class), Mockito.any()))
+                .thenReturn(HeadObjectResponse.builder().eTag("\"9532094dc2c1fb73b1f199bf0bb881e2\"").versionId("v-1").build());
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                checkingHandler.handleRequest(proxy, request, null, logger);
+
+        assertNotNull(response);
+        assertEquals(OperationStatus.SUCCESS, response.getStatus());
+
+        verify(apiWrapper).headObject(eq(HeadObjectRequest.builder().bucket("test_bucket").key("v2/app.json").build()),
+                Mockito.any());
+        verify(apiWrapper, never()).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_changedS3ObjectAtSameLocation_updatesApplication() {
+        final UpdateHandler checkingHandler = new UpdateHandler(apiWrapper, asyncApiWrapper, true);
+        final ResourceModel model = getS3ResourceModel("s3://test_bucket/app.json");
+        stubCurrentVersion("{\"template-version\":\"2.0\"}");
+        when(apiWrapper.headObject(any(HeadObjectRequest.class), Mockito.any()))
+                .thenReturn(HeadObjectResponse.builder().eTag("\"0cc175b9c0f1b6a831c399e269772661\"").build());
+        when(apiWrapper.updateApplication(any(UpdateApplicationRequest.class), Mockito.any()))
+                .thenReturn(UpdateApplicationResponse.builder().build());
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(getS3ResourceModel("s3://test_bucket/app.json"))
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                checkingHandler.handleRequest(proxy, request, null, logger);
+
+        assertNotNull(response);
+        assertEquals(OperationStatus.SUCCESS, response.getStatus());
+
+        verify(apiWrapper).headObject(any(HeadObjectRequest.class), Mockito.any());
+        verify(apiWrapper).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_unreadableS3Object_updatesApplication() {
+        final UpdateHandler checkingHandler = new UpdateHandler(apiWrapper, asyncApiWrapper, true);
+        stubCurrentVersion("{\"template-version\":\"2.0\"}");
+        when(apiWrapper.headObject(any(HeadObjectRequest.class), Mockito.any()))
+                .thenThrow(S3Exception.builder().statusCode(403).message("Access Denied").build());
+        when(apiWrapper.updateApplication(any(UpdateApplicationRequest.class), Mockito.any()))
+                .thenReturn(UpdateApplicationResponse.builder().build());
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(getS3ResourceModel("s3://test_bucket/v2/app.json"))
+                .previousResourceState(getS3ResourceModel("s3://test_bucket/v1/app.json"))
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                checkingHandler.handleRequest(proxy, request, null, logger);
+
+        assertNotNull(response);
+        assertEquals(OperationStatus.SUCCESS, response.getStatus());
+        verify(apiWrapper).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
+    }
+
+    @Test
+    public void handleRequest_s3CheckDisabled_unchangedLocation_skipsApplicationUpdate() {
+        final UpdateHandler nonCheckingHandler = new UpdateHandler(apiWrapper, asyncApiWrapper, false);
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenReturn(GetApplicationResponse.builder()
+                        .applicationArn(appArn)
+                        .applicationId(appId)
+                        .status(ApplicationLifecycle.AVAILABLE)
+                        .build());
+        when(asyncApiWrapper.listTags(any(ListTagsForResourceRequest.class), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(ListTagsForResourceResponse.builder().build()));
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(getS3ResourceModel("s3://test_bucket/app.json"))
+                .previousResourceState(getS3ResourceModel("s3://test_bucket/app.json"))
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                nonCheckingHandler.handleRequest(proxy, request, null, logger);
+
+        assertEquals(OperationStatus.SUCCESS, response.getStatus());
+        verify(apiWrapper, never()).headObject(any(HeadObjectRequest.class), Mockito.any());
+        verify(apiWrapper, never()).updateApplication(any(UpdateApplicationRequest.class), Mockito.any());
+    }
+
+    /**
+     * Stubs the application at version 1 with the given definition content, then version 2 as available.
+     */
+    private void stubCurrentVersion(final String content) {
+        when(apiWrapper.getApplication(any(GetApplicationRequest.class), Mockito.any()))
+                .thenReturn(GetApplicationResponse.builder()
+                        .applicationArn(appArn)
+                        .applicationId(appId)
+                        .latestVersion(ApplicationVersionSummary.builder().applicationVersion(1)
+                                .status(ApplicationVersionLifecycle.AVAILABLE).build())
+                        .status(ApplicationLifecycle.AVAILABLE)
+                        .build());
+        when(apiWrapper.getApplicationVersion(any(GetApplicationVersionRequest.class), Mockito.any()))
+                .thenReturn(GetApplicationVersionResponse.builder()
+                        .applicationVersion(1)
+                        .definitionContent(content)
+                        .status(ApplicationVersionLifecycle.AVAILABLE)
+                        .build())
+                .thenReturn(getApplicationVersionResponse(ApplicationVersionLifecycle.AVAILABLE));
+    }
+
+    private GetApplicationVersionResponse getApplicationVersionResponse(final ApplicationVersionLifecycle status) {
+        return GetApplicationVersionResponse.builder()
+                .applicationVersion(2)
+                .status(status)
+                .build();
+    }
+
     private ResourceModel getResourceModel() {
         return ResourceModel.builder()
                 .applicationId(appId)
@@ -398,4 +895,22 @@ public class UpdateHandlerTest extends AbstractTestBase {
                 .description("update application")
                 .build();
     }
+
+    private ResourceModel getS3ResourceModel(final String s3Location) {
+        return ResourceModel.builder()
+                .applicationId(appId)
+                .applicationArn(appArn)
+                .definition(Definition.builder().s3Location(s3Location).build())
+                .description("update application")
+                .build();
+    }
+
+    private ResourceModel getResourceModel(final String content) {
+        return ResourceModel.builder()
+                .applicationId(appId)
+                .applicationArn(appArn)
+                .definition(Definition.builder().content(content).build())
+                .description("update application")
+                .build();
+    }
 }
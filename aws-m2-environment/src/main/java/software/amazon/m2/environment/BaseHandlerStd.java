@@ -2,32 +2,134 @@ package software.amazon.m2.environment;
 
 // Functionality shared across Create/Read/Update/Delete/List Handlers
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.annotations.VisibleForTesting;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
 import software.amazon.awssdk.services.m2.M2Client;
+import software.amazon.awssdk.services.m2.model.EnvironmentLifecycle;
 import software.amazon.awssdk.services.m2.model.GetEnvironmentRequest;
 import software.amazon.awssdk.services.m2.model.GetEnvironmentResponse;
+import software.amazon.awssdk.services.m2.model.ListEnvironmentsRequest;
+import software.amazon.awssdk.services.m2.model.ListEnvironmentsResponse;
+import software.amazon.awssdk.services.m2.model.ListTagsForResourceRequest;
+import software.amazon.awssdk.services.m2.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.m2.model.TagResourceRequest;
+import software.amazon.awssdk.services.m2.model.TagResourceResponse;
+import software.amazon.awssdk.services.m2.model.UntagResourceRequest;
+import software.amazon.awssdk.services.m2.model.UntagResourceResponse;
+import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Delay;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.resource.Serializer;
+import software.amazon.m2.common.ApiRateLimiter;
+import software.amazon.m2.common.BulkStatusCache;
+import software.amazon.m2.common.CircuitBreakerOpenException;
+import software.amazon.m2.common.CircuitBreakerRegistry;
 import software.amazon.m2.common.ClientBuilder;
 import software.amazon.m2.common.ExceptionHandlerWrapper;
+import software.amazon.m2.common.Hedger;
+import software.amazon.m2.common.JitteredExponentialDelay;
+import software.amazon.m2.common.LifecycleAwareDelay;
+import software.amazon.m2.common.LifecycleStates;
+import software.amazon.m2.common.Priming;
+import software.amazon.m2.common.RequestScope;
+import software.amazon.m2.common.StabilizationMode;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
 
 public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
 
+    protected final Function<String, M2AsyncClient> asyncClientProvider;
+
+    protected final StabilizationMode stabilizationMode;
+
+    protected final ApiRateLimiter rateLimiter;
+
+    protected final CircuitBreakerRegistry breakers;
+
+    protected final Hedger hedger;
+
+    private static final BulkStatusCache<EnvironmentLifecycle> LISTED_STATUSES = new BulkStatusCache<>();
+
+    static {
+        Priming.primeInLambda(ResourceModel.TYPE_NAME, BaseHandlerStd::primeHandlerPaths);
+    }
+
+    public BaseHandlerStd() {
+        this(ClientBuilder::getAsyncClient, StabilizationMode.fromEnvironment(), ApiRateLimiter.getInstance(),
+                CircuitBreakerRegistry.getInstance(), Hedger.getInstance());
+    }
+
+    @VisibleForTesting
+    BaseHandlerStd(final Function<String, M2AsyncClient> asyncClientProvider,
+                   final ApiRateLimiter rateLimiter) {
+        this(asyncClientProvider, StabilizationMode.fromEnvironment(), rateLimiter);
+    }
+
+    @VisibleForTesting
+    BaseHandlerStd(final Function<String, M2AsyncClient> asyncClientProvider,
+                   final StabilizationMode stabilizationMode,
+                   final ApiRateLimiter rateLimiter) {
+        this(asyncClientProvider, stabilizationMode, rateLimiter, new CircuitBreakerRegistry(), Hedger.disabled());
+    }
+
+    @VisibleForTesting
+    BaseHandlerStd(final Function<String, M2AsyncClient> asyncClientProvider,
+                   final StabilizationMode stabilizationMode,
+                   final ApiRateLimiter rateLimiter,
+                   final CircuitBreakerRegistry breakers,
+                   final Hedger hedger) {
+        this.asyncClientProvider = asyncClientProvider;
+        this.stabilizationMode = stabilizationMode;
+        this.rateLimiter = rateLimiter;
+        this.breakers = breakers;
+        this.hedger = hedger;
+    }
+
     @Override
     public final ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final Logger logger) {
-        return handleRequest(
-                proxy,
-                request,
-                callbackContext != null ? callbackContext : new CallbackContext(),
-                proxy.newProxy(ClientBuilder::getClient),
-                logger
-        );
+        final CallbackContext context = callbackContext != null ? callbackContext : new CallbackContext();
+        try {
+            return handleRequest(
+                    proxy,
+                    request,
+                    context,
+                    proxy.newProxy(() -> ClientBuilder.getClient(request.getRegion())),
+                    logger
+            );
+        } catch (final CircuitBreakerOpenException e) {
+            // Come back once the breaker lets calls through again, rather than failing or blocking the handler
+            if (!supportsCallback()) {
+                throw new CfnThrottlingException(e);
+            }
+            logger.log(String.format("%s. Retrying in %d seconds.", e.getMessage(), e.getRetryAfterSeconds()));
+            return ProgressEvent.defaultInProgressHandler(context, e.getRetryAfterSeconds(),
+                    request.getDesiredResourceState());
+        }
+    }
+
+    /**
+     * Returns whether the handler can return IN_PROGRESS to be called back later. Read and list handlers cannot.
+     */
+    protected boolean supportsCallback() {
+        return true;
     }
 
     protected abstract ProgressEvent<ResourceModel, CallbackContext> handleRequest(
@@ -37,15 +139,183 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
             final ProxyClient<M2Client> proxyClient,
             final Logger logger);
 
-    protected GetEnvironmentResponse getEnvironment(ProxyClient<M2Client> proxyClient, Logger logger, GetEnvironmentRequest awsRequest) {
-        GetEnvironmentResponse awsResponse;
-        try (M2Client m2client = proxyClient.client()) {
-            awsResponse = ExceptionHandlerWrapper.wrapM2Exception("GetEnvironment",
-                    () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, m2client::getEnvironment));
+    /**
+     * Runs the serialization and translation code of a request once, with a sample model, so that its classes are
+     * loaded before the first request.
+     */
+    @VisibleForTesting
+    static void primeHandlerPaths() throws IOException {
+        final String environmentArn = "arn:aws:m2:us-east-1:123456789012:env/priming";
+        final ResourceModel sample = ResourceModel.builder()
+                .environmentArn(environmentArn)
+                .name("priming")
+                .engineType("microfocus")
+                .instanceType("M2.m5.large")
+                .subnetIds(Collections.singletonList("subnet-priming"))
+                .securityGroupIds(Collections.singletonList("sg-priming"))
+                .storageConfigurations(Collections.singletonList(StorageConfiguration.builder()
+                        .efs(EfsStorageConfiguration.builder().fileSystemId("fs-priming").mountPoint("/m2/mount/efs").build())
+                        .build()))
+                .highAvailabilityConfig(HighAvailabilityConfig.builder().desiredCapacity(1).build())
+                .tags(Collections.singletonMap("key", "value"))
+                .build();
+
+        final Serializer serializer = new Serializer();
+        final ResourceModel model =
+                serializer.deserialize(serializer.serialize(sample), new TypeReference<ResourceModel>() {});
+
+        Translator.translateToCreateRequest(model, "priming", model.getTags());
+        Translator.translateToReadRequest(model);
+        Translator.translateToUpdateRequest(model, model);
+        Translator.hasUpdatableChanges(model, null);
+        Translator.translateToListResourceTagsRequest(model);
+        Translator.translateFromReadResponse(GetEnvironmentResponse.builder()
+                .environmentArn(environmentArn)
+                .environmentId("priming")
+                .name("priming")
+                .engineType("microfocus")
+                .status(EnvironmentLifecycle.AVAILABLE)
+                .storageConfigurations(software.amazon.awssdk.services.m2.model.StorageConfiguration.builder()
+                        .efs(software.amazon.awssdk.services.m2.model.EfsStorageConfiguration.builder()
+                                .fileSystemId("fs-priming").mountPoint("/m2/mount/efs").build())
+                        .build())
+                .build());
+    }
+
+    /**
+     * Waits for the environment to stabilize in {@link StabilizationMode#CALLBACK} mode. The first invocation only
+     * schedules a callback; each later one polls once with the given check, and returns IN_PROGRESS with the next
+     * delay of the strategy until the check passes. The attempts made so far are kept in the callback context. If a
+     * stabilization time is predicted, the first callback waits for it.
+     */
+    protected ProgressEvent<ResourceModel, CallbackContext> awaitByCallback(
+            final ProgressEvent<ResourceModel, CallbackContext> progress,
+            final JitteredExponentialDelay strategy,
+            final Optional<Duration> prediction,
+            final BiPredicate<ResourceModel, LifecycleAwareDelay> stabilizationCheck) {
+        final ResourceModel model = progress.getResourceModel();
+        final CallbackContext callbackContext = progress.getCallbackContext();
+        final int attempts = callbackContext.getStabilizationAttempts();
+        final LifecycleAwareDelay lifecycleAwareDelay = new LifecycleAwareDelay(strategy);
+        final Delay delay = ProvisioningTimePredictor.firstPollAfter(prediction, lifecycleAwareDelay);
+
+        if (attempts > 0 && stabilizationCheck.test(model, lifecycleAwareDelay)) {
+            callbackContext.setStabilizationAttempts(0);
+            return ProgressEvent.progress(model, callbackContext);
+        }
+
+        final Duration nextDelay = delay.nextDelay(attempts + 1);
+        if (nextDelay.isZero()) {
+            throw new CfnNotStabilizedException(ResourceModel.TYPE_NAME, model.getEnvironmentId());
         }
+        callbackContext.setStabilizationAttempts(attempts + 1);
+        return ProgressEvent.defaultInProgressHandler(callbackContext, (int) nextDelay.getSeconds(), model);
+    }
+
+    protected ProxyClient<M2AsyncClient> newAsyncProxyClient(final AmazonWebServicesClientProxy proxy,
+                                                             final String region) {
+        return proxy.newProxy(() -> asyncClientProvider.apply(region));
+    }
+
+    protected GetEnvironmentResponse getEnvironment(RequestScope scope, ProxyClient<M2Client> proxyClient, Logger logger, GetEnvironmentRequest awsRequest) {
+        final GetEnvironmentResponse awsResponse = hedger.call("GetEnvironment",
+                () -> ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, "GetEnvironment",
+                        () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::getEnvironment)));
         logger.log(String.format("%s with ID %s has successfully been read.",
                 ResourceModel.TYPE_NAME, awsRequest.environmentId()));
         return awsResponse;
     }
 
+    /**
+     * Probes the environment for a deletion check. Returns empty once the environment is gone, rather than throwing a
+     * not found exception.
+     */
+    protected Optional<GetEnvironmentResponse> probeEnvironment(RequestScope scope, ProxyClient<M2Client> proxyClient, GetEnvironmentRequest awsRequest) {
+        return hedger.call("GetEnvironment",
+                () -> ExceptionHandlerWrapper.probeM2Resource(rateLimiter, breakers, scope, "GetEnvironment",
+                        () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::getEnvironment)));
+    }
+
+    /**
+     * Returns true if a bulk listing of the environments shows this one still in transition, in which case it need not
+     * be read for this poll. The poll interval of the listed state is recorded in the given delay. Listings are only
+     * made while many environments are waited on.
+     */
+    protected boolean isListedInTransition(final RequestScope scope,
+                                           final ProxyClient<M2Client> proxyClient,
+                                           final Logger logger,
+                                           final String environmentId,
+                                           final LifecycleAwareDelay delay) {
+        final Optional<EnvironmentLifecycle> status =
+                LISTED_STATUSES.status(scope, environmentId, () -> listEnvironmentStatuses(scope, proxyClient));
+        if (!status.isPresent()
+                || LifecycleStates.ENVIRONMENT.outcome(status.get()) != LifecycleStates.Outcome.IN_PROGRESS) {
+            return false;
+        }
+        delay.observe(LifecycleStates.ENVIRONMENT.pollInterval(status.get()));
+        logger.log(String.format("%s [%s] is listed with status %s", ResourceModel.TYPE_NAME, environmentId, status.get()));
+        return true;
+    }
+
+    private Map<String, EnvironmentLifecycle> listEnvironmentStatuses(final RequestScope scope, final ProxyClient<M2Client> proxyClient) {
+        final Map<String, EnvironmentLifecycle> statuses = new HashMap<>();
+        String nextToken = null;
+        int pages = 0;
+        do {
+            final ListEnvironmentsRequest awsRequest = ListEnvironmentsRequest.builder().nextToken(nextToken).build();
+            final ListEnvironmentsResponse awsResponse = ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, "ListEnvironments",
+                    () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::listEnvironments));
+            awsResponse.environments().forEach(summary -> statuses.put(summary.environmentId(), summary.status()));
+            nextToken = awsResponse.nextToken();
+        } while (nextToken != null && ++pages < BulkStatusCache.MAX_PAGES);
+        return statuses;
+    }
+
+    // Asynchronous variants of the M2 calls, so that independent calls made in the same handler step can overlap.
+
+    protected CompletableFuture<GetEnvironmentResponse> getEnvironmentAsync(final RequestScope scope,
+                                                                            final ProxyClient<M2AsyncClient> proxyClient,
+                                                                            final Logger logger,
+                                                                            final GetEnvironmentRequest awsRequest) {
+        final CompletableFuture<GetEnvironmentResponse> responseFuture = ExceptionHandlerWrapper.wrapM2ExceptionAsync(rateLimiter, breakers, scope, "GetEnvironment",
+                () -> proxyClient.injectCredentialsAndInvokeV2Async(awsRequest, proxyClient.client()::getEnvironment));
+        return responseFuture.thenApply(awsResponse -> {
+            logger.log(String.format("%s with ID %s has successfully been read.",
+                    ResourceModel.TYPE_NAME, awsRequest.environmentId()));
+            return awsResponse;
+        });
+    }
+
+    protected CompletableFuture<ListTagsForResourceResponse> listTagsAsync(final RequestScope scope,
+                                                                           final ProxyClient<M2AsyncClient> proxyClient,
+                                                                           final ListTagsForResourceRequest awsRequest) {
+        return ExceptionHandlerWrapper.wrapM2ExceptionAsync(rateLimiter, breakers, scope, "ListTags",
+                () -> proxyClient.injectCredentialsAndInvokeV2Async(awsRequest, proxyClient.client()::listTagsForResource));
+    }
+
+    protected CompletableFuture<TagResourceResponse> tagResourceAsync(final RequestScope scope,
+                                                                      final ProxyClient<M2AsyncClient> proxyClient,
+                                                                      final Logger logger,
+                                                                      final TagResourceRequest awsRequest) {
+        final CompletableFuture<TagResourceResponse> responseFuture = ExceptionHandlerWrapper.wrapM2ExceptionAsync(rateLimiter, breakers, scope, "TagResource",
+                () -> proxyClient.injectCredentialsAndInvokeV2Async(awsRequest, proxyClient.client()::tagResource));
+        return responseFuture.thenApply(awsResponse -> {
+            logger.log(String.format("%s [%s] has successfully been tagged for added tags.",
+                    ResourceModel.TYPE_NAME, awsRequest.resourceArn()));
+            return awsResponse;
+        });
+    }
+
+    protected CompletableFuture<UntagResourceResponse> untagResourceAsync(final RequestScope scope,
+                                                                          final ProxyClient<M2AsyncClient> proxyClient,
+                                                                          final Logger logger,
+                                                                          final UntagResourceRequest awsRequest) {
+        final CompletableFuture<UntagResourceResponse> responseFuture = ExceptionHandlerWrapper.wrapM2ExceptionAsync(rateLimiter, breakers, scope, "UntagResource",
+                () -> proxyClient.injectCredentialsAndInvokeV2Async(awsRequest, proxyClient.client()::untagResource));
+        return responseFuture.thenApply(awsResponse -> {
+            logger.log(String.format("%s [%s] has successfully been untagged for removed tags.",
+                    ResourceModel.TYPE_NAME, awsRequest.resourceArn()));
+            return awsResponse;
+        });
+    }
 }
@@ -7,4 +7,8 @@ import software.amazon.cloudformation.proxy.StdCallbackContext;
 @lombok.ToString
 @lombok.EqualsAndHashCode(callSuper = true)
 public class CallbackContext extends StdCallbackContext {
+    // number of callback invocations spent waiting for stabilization, in callback stabilization mode
+    int stabilizationAttempts;
+    // epoch milliseconds at which the create or update call returned, to time its stabilization
+    Long stabilizationStartedAt;
 }
@@ -1,6 +1,7 @@
 package software.amazon.m2.environment;
 
-import software.amazon.awssdk.awscore.AwsRequest;
+import com.google.common.annotations.VisibleForTesting;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
 import software.amazon.awssdk.services.m2.M2Client;
 import software.amazon.awssdk.services.m2.model.CreateEnvironmentRequest;
 import software.amazon.awssdk.services.m2.model.CreateEnvironmentResponse;
@@ -13,16 +14,49 @@ import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.m2.common.ApiRateLimiter;
+import software.amazon.m2.common.CircuitBreakerRegistry;
 import software.amazon.m2.common.Constants;
 import software.amazon.m2.common.ExceptionHandlerWrapper;
+import software.amazon.m2.common.Hedger;
+import software.amazon.m2.common.LifecycleAwareDelay;
+import software.amazon.m2.common.LifecycleStates;
+import software.amazon.m2.common.RequestScope;
+import software.amazon.m2.common.StabilizationMode;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 public class CreateHandler extends BaseHandlerStd {
     private Logger logger;
 
+    public CreateHandler() {
+    }
+
+    @VisibleForTesting
+    CreateHandler(final Function<String, M2AsyncClient> asyncClientProvider,
+                  final ApiRateLimiter rateLimiter) {
+        super(asyncClientProvider, rateLimiter);
+    }
+
+    @VisibleForTesting
+    CreateHandler(final Function<String, M2AsyncClient> asyncClientProvider,
+                  final StabilizationMode stabilizationMode,
+                  final ApiRateLimiter rateLimiter) {
+        super(asyncClientProvider, stabilizationMode, rateLimiter);
+    }
+
+    @VisibleForTesting
+    CreateHandler(final Function<String, M2AsyncClient> asyncClientProvider,
+                  final StabilizationMode stabilizationMode,
+                  final ApiRateLimiter rateLimiter,
+                  final CircuitBreakerRegistry breakers,
+                  final Hedger hedger) {
+        super(asyncClientProvider, stabilizationMode, rateLimiter, breakers, hedger);
+    }
+
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
@@ -31,66 +65,118 @@ public class CreateHandler extends BaseHandlerStd {
             final Logger logger) {
 
         this.logger = logger;
+        final RequestScope scope = RequestScope.of(request);
         String clientRequestToken = request.getClientRequestToken();
 
         Map<String, String> tags = generateTagsForCreate(request.getDesiredResourceState(), request);
+        final String profile = ProvisioningTimePredictor.profile(
+                ProvisioningTimePredictor.Operation.CREATE, request.getDesiredResourceState());
+
+        if (stabilizationMode == StabilizationMode.CALLBACK) {
+            return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext)
+                    .then(progress -> startEnvironmentCreation(scope, proxy, proxyClient, progress.getCallbackContext(), progress.getResourceModel(), clientRequestToken, tags))
+                    .then(progress -> awaitByCallback(progress, Constants.BACKOFF_STRATEGY_STABILIZE_CREATE,
+                            ProvisioningTimePredictor.INSTANCE.predict(profile),
+                            (model, delay) -> ProvisioningTimePredictor.INSTANCE.recordIfStabilized(profile, progress.getCallbackContext(),
+                                    waitForEnvironmentToCreate(scope, model.getEnvironmentId(), proxyClient, model, delay))))
+                    .then(progress -> new ReadHandler(asyncClientProvider, stabilizationMode, rateLimiter, breakers, hedger).handleRequest(proxy, request, progress.getCallbackContext(), proxyClient, logger));
+        }
 
         return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext)
-                .then(progress -> createEnvironment(proxy, proxyClient, progress.getCallbackContext(), progress.getResourceModel(), clientRequestToken, tags))
-                .then(progress -> new ReadHandler().handleRequest(proxy, request, progress.getCallbackContext(), proxyClient, logger));
+                .then(progress -> createEnvironment(scope, proxy, proxyClient, progress.getCallbackContext(), progress.getResourceModel(), clientRequestToken, tags, profile))
+                .then(progress -> new ReadHandler(asyncClientProvider, stabilizationMode, rateLimiter, breakers, hedger).handleRequest(proxy, request, progress.getCallbackContext(), proxyClient, logger));
     }
 
-    private ProgressEvent<ResourceModel, CallbackContext> createEnvironment(final AmazonWebServicesClientProxy proxy,
+    private ProgressEvent<ResourceModel, CallbackContext> createEnvironment(final RequestScope scope,
+                                                                            final AmazonWebServicesClientProxy proxy,
                                                                             final ProxyClient<M2Client> proxyClient,
                                                                             final CallbackContext callbackContext,
                                                                             final ResourceModel model,
                                                                             final String clientRequestToken,
-                                                                            final Map<String, String> tags) {
+                                                                            final Map<String, String> tags,
+                                                                            final String profile) {
+        final LifecycleAwareDelay delay = new LifecycleAwareDelay(Constants.BACKOFF_STRATEGY_STABILIZE_CREATE);
         return proxy.initiate("AWS::M2::Environment-Create", proxyClient, model, callbackContext)
                 .translateToServiceRequest((resourceModel) ->
                         Translator.translateToCreateRequest(resourceModel, clientRequestToken, tags))
-                .backoffDelay(Constants.BACKOFF_STRATEGY_STABILIZE)
-                .makeServiceCall((createEnvRequest, client) -> callCreateEnvironmentApi(proxyClient, (CreateEnvironmentRequest) createEnvRequest))
-                .stabilize(this::waitForEnvironmentToCreate)
+                .backoffDelay(ProvisioningTimePredictor.firstPollAfter(ProvisioningTimePredictor.INSTANCE.predict(profile), delay))
+                .makeServiceCall((createEnvRequest, client) -> {
+                    final CreateEnvironmentResponse response = callCreateEnvironmentApi(scope, proxyClient, (CreateEnvironmentRequest) createEnvRequest);
+                    ProvisioningTimePredictor.INSTANCE.start(callbackContext);
+                    return response;
+                })
+                .stabilize((awsRequest, awsResponse, client, resourceModel, context) ->
+                        ProvisioningTimePredictor.INSTANCE.recordIfStabilized(profile, context,
+                                waitForEnvironmentToCreate(scope, awsResponse.environmentId(), client, resourceModel, delay)))
                 .progress();
     }
 
+    /**
+     * Calls CreateEnvironment without waiting for the environment, for {@link StabilizationMode#CALLBACK}. The call
+     * is recorded in the callback context, so it is not repeated by later invocations.
+     */
+    private ProgressEvent<ResourceModel, CallbackContext> startEnvironmentCreation(final RequestScope scope,
+                                                                                   final AmazonWebServicesClientProxy proxy,
+                                                                                   final ProxyClient<M2Client> proxyClient,
+                                                                                   final CallbackContext callbackContext,
+                                                                                   final ResourceModel model,
+                                                                                   final String clientRequestToken,
+                                                                                   final Map<String, String> tags) {
+        return proxy.initiate("AWS::M2::Environment-Create", proxyClient, model, callbackContext)
+                .translateToServiceRequest((resourceModel) ->
+                        Translator.translateToCreateRequest(resourceModel, clientRequestToken, tags))
+                .makeServiceCall((createEnvRequest, client) -> {
+                    final CreateEnvironmentResponse response = callCreateEnvironmentApi(scope, proxyClient, (CreateEnvironmentRequest) createEnvRequest);
+                    ProvisioningTimePredictor.INSTANCE.start(callbackContext);
+                    return response;
+                })
+                .done((awsRequest, awsResponse, client, resourceModel, context) -> {
+                    resourceModel.setEnvironmentId(awsResponse.environmentId());
+                    return ProgressEvent.progress(resourceModel, context);
+                });
+    }
+
     private boolean waitForEnvironmentToCreate(
-            final AwsRequest awsRequest,
-            final CreateEnvironmentResponse createEnvironmentResponse,
+            final RequestScope scope,
+            final String environmentId,
             final ProxyClient<M2Client> proxyClient,
             final ResourceModel model,
-            final CallbackContext callbackContext) {
+            final LifecycleAwareDelay delay) {
 
         GetEnvironmentRequest getEnvRequest = GetEnvironmentRequest.builder()
-                .environmentId(createEnvironmentResponse.environmentId()).build();
-        model.setEnvironmentId(createEnvironmentResponse.environmentId());
+                .environmentId(environmentId).build();
+        model.setEnvironmentId(environmentId);
+        if (isListedInTransition(scope, proxyClient, logger, environmentId, delay)) {
+            return false;
+        }
 
-        GetEnvironmentResponse getEnvResponse = getEnvironment(proxyClient, logger, getEnvRequest);
+        GetEnvironmentResponse getEnvResponse = getEnvironment(scope, proxyClient, logger, getEnvRequest);
         model.setEnvironmentArn(getEnvResponse.environmentArn());
 
-        if (EnvironmentLifecycle.AVAILABLE.equals(getEnvResponse.status())) {
-            logger.log(String.format("%s [%s] has been successfully created.",
-                    ResourceModel.TYPE_NAME, model.getEnvironmentId()));
-            return true;
-        } else if (EnvironmentLifecycle.FAILED.equals(getEnvResponse.status())) {
-            logger.log(String.format("%s [%s] has failed to create.",
-                    ResourceModel.TYPE_NAME, model.getEnvironmentId()));
-            String errorMessage = String.format("CreateEnvironment failed: %s", getEnvResponse.statusReason());
-            throw new CfnGeneralServiceException(errorMessage);
-        } else {
-            logger.log(String.format("%s [%s] has status %s", ResourceModel.TYPE_NAME,
-                    model.getEnvironmentId(), getEnvResponse.status()));
+        final EnvironmentLifecycle status = getEnvResponse.status();
+        delay.observe(LifecycleStates.ENVIRONMENT.pollInterval(status));
+        switch (LifecycleStates.ENVIRONMENT.outcome(status)) {
+            case SUCCEEDED:
+                logger.log(String.format("%s [%s] has been successfully created.",
+                        ResourceModel.TYPE_NAME, model.getEnvironmentId()));
+                return true;
+            case FAILED:
+                logger.log(String.format("%s [%s] has failed to create.",
+                        ResourceModel.TYPE_NAME, model.getEnvironmentId()));
+                String errorMessage = String.format("CreateEnvironment failed: %s", getEnvResponse.statusReason());
+                throw new CfnGeneralServiceException(errorMessage);
+            default:
+                logger.log(String.format("%s [%s] has status %s", ResourceModel.TYPE_NAME,
+                        model.getEnvironmentId(), status));
+                return false;
         }
-        return false;
     }
 
-    private CreateEnvironmentResponse callCreateEnvironmentApi(final ProxyClient<M2Client> proxyClient,
+    private CreateEnvironmentResponse callCreateEnvironmentApi(final RequestScope scope,
+                                                               final ProxyClient<M2Client> proxyClient,
                                                                final CreateEnvironmentRequest awsRequest) {
-        try (M2Client m2client = proxyClient.client()) {
-            return ExceptionHandlerWrapper.wrapM2Exception("CreateEnvironment",
-                    () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, m2client::createEnvironment));
-        }
+        return ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, "CreateEnvironment",
+                () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::createEnvironment));
     }
 
    private Map<String, String> generateTagsForCreate(final ResourceModel resourceModel,
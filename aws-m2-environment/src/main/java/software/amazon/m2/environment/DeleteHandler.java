@@ -1,22 +1,52 @@
 package software.amazon.m2.environment;
 
+import com.google.common.annotations.VisibleForTesting;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
 import software.amazon.awssdk.services.m2.M2Client;
 import software.amazon.awssdk.services.m2.model.DeleteEnvironmentRequest;
 import software.amazon.awssdk.services.m2.model.DeleteEnvironmentResponse;
 import software.amazon.awssdk.services.m2.model.GetEnvironmentRequest;
-import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.awssdk.services.m2.model.GetEnvironmentResponse;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.m2.common.ApiRateLimiter;
+import software.amazon.m2.common.CircuitBreakerRegistry;
 import software.amazon.m2.common.Constants;
 import software.amazon.m2.common.ExceptionHandlerWrapper;
+import software.amazon.m2.common.Hedger;
+import software.amazon.m2.common.LifecycleAwareDelay;
+import software.amazon.m2.common.LifecycleStates;
+import software.amazon.m2.common.RequestScope;
+import software.amazon.m2.common.StabilizationMode;
 
+import java.util.Optional;
+import java.util.function.Function;
 
 public class DeleteHandler extends BaseHandlerStd {
     private Logger logger;
 
+    public DeleteHandler() {
+    }
+
+    @VisibleForTesting
+    DeleteHandler(final Function<String, M2AsyncClient> asyncClientProvider,
+                  final StabilizationMode stabilizationMode,
+                  final ApiRateLimiter rateLimiter) {
+        super(asyncClientProvider, stabilizationMode, rateLimiter);
+    }
+
+    @VisibleForTesting
+    DeleteHandler(final Function<String, M2AsyncClient> asyncClientProvider,
+                  final StabilizationMode stabilizationMode,
+                  final ApiRateLimiter rateLimiter,
+                  final CircuitBreakerRegistry breakers,
+                  final Hedger hedger) {
+        super(asyncClientProvider, stabilizationMode, rateLimiter, breakers, hedger);
+    }
+
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
@@ -25,6 +55,7 @@ public class DeleteHandler extends BaseHandlerStd {
             final Logger logger) {
 
         this.logger = logger;
+        final RequestScope scope = RequestScope.of(request);
 
         // See https://github.com/aws-cloudformation/cloudformation-cli-java-plugin/blob/master/src/main/java/software/amazon/cloudformation/proxy/CallChain.java
         // and https://docs.aws.amazon.com/cloudformation-cli/latest/userguide/resource-type-test-contract.html
@@ -33,42 +64,51 @@ public class DeleteHandler extends BaseHandlerStd {
                 // getEnvironment throws a CfnNotFoundException for that case, and the framework sends a FAILED response for it.
                 .then(progress -> proxy.initiate("AWS::M2::Environment-Delete-PreExistenceCheck", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
                         .translateToServiceRequest(Translator::translateToReadRequest)
-                        .makeServiceCall((awsRequest, client) -> getEnvironment(proxyClient, logger, (GetEnvironmentRequest) awsRequest))
+                        .makeServiceCall((awsRequest, client) -> getEnvironment(scope, proxyClient, logger, (GetEnvironmentRequest) awsRequest))
                         .done(getEnvResponse -> ProgressEvent.defaultInProgressHandler(callbackContext, 0,
                                 Translator.translateFromReadResponse(getEnvResponse)))
                 )
-                .then(progress ->
-                        proxy.initiate("AWS::M2::Environment-Delete", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
+                .then(progress -> {
+                    if (stabilizationMode == StabilizationMode.CALLBACK) {
+                        return proxy.initiate("AWS::M2::Environment-Delete", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
                                 .translateToServiceRequest(Translator::translateToDeleteRequest)
-                                .backoffDelay(Constants.BACKOFF_STRATEGY_STABILIZE)
-                                .makeServiceCall((deleteEnvRequest, client) -> deleteEnvironment(proxyClient, (DeleteEnvironmentRequest) deleteEnvRequest))
-                                .stabilize((awsRequest, awsResponse, pClient, model, callback) -> waitForEnvironmentToBeDeleted(proxyClient, model))
+                                .makeServiceCall((deleteEnvRequest, client) -> deleteEnvironment(scope, proxyClient, (DeleteEnvironmentRequest) deleteEnvRequest))
                                 .progress()
-                )
+                                .then(started -> awaitByCallback(started, Constants.BACKOFF_STRATEGY_STABILIZE_DELETE, Optional.empty(),
+                                        (model, delay) -> waitForEnvironmentToBeDeleted(scope, proxyClient, model, delay)));
+                    }
+                    final LifecycleAwareDelay delay = new LifecycleAwareDelay(Constants.BACKOFF_STRATEGY_STABILIZE_DELETE);
+                    return proxy.initiate("AWS::M2::Environment-Delete", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
+                            .translateToServiceRequest(Translator::translateToDeleteRequest)
+                            .backoffDelay(delay)
+                            .makeServiceCall((deleteEnvRequest, client) -> deleteEnvironment(scope, proxyClient, (DeleteEnvironmentRequest) deleteEnvRequest))
+                            .stabilize((awsRequest, awsResponse, pClient, model, callback) -> waitForEnvironmentToBeDeleted(scope, proxyClient, model, delay))
+                            .progress();
+                })
                 // When the delete handler returns SUCCESS, the ProgressEvent object MUST NOT contain a model.
                 .then(progress -> ProgressEvent.defaultSuccessHandler(null));
     }
 
-    private boolean waitForEnvironmentToBeDeleted(final ProxyClient<M2Client> proxyClient, final ResourceModel model) {
-        boolean stabilized = false;
-        try {
-            GetEnvironmentRequest getRequest = GetEnvironmentRequest.builder().environmentId(model.getEnvironmentId()).build();
-            getEnvironment(proxyClient, logger, getRequest);
-        } catch (CfnNotFoundException rnfe) {
-            stabilized = true;
+    private boolean waitForEnvironmentToBeDeleted(final RequestScope scope,
+                                                  final ProxyClient<M2Client> proxyClient,
+                                                  final ResourceModel model,
+                                                  final LifecycleAwareDelay delay) {
+        if (isListedInTransition(scope, proxyClient, logger, model.getEnvironmentId(), delay)) {
+            return false;
         }
+        GetEnvironmentRequest getRequest = GetEnvironmentRequest.builder().environmentId(model.getEnvironmentId()).build();
+        final Optional<GetEnvironmentResponse> environment = probeEnvironment(scope, proxyClient, getRequest);
+        environment.ifPresent(found -> delay.observe(LifecycleStates.ENVIRONMENT.pollInterval(found.status())));
+        final boolean stabilized = !environment.isPresent();
         logger.log(String.format("%s [%s] delete has stabilized: %s", ResourceModel.TYPE_NAME, model.getPrimaryIdentifier(), stabilized));
         return stabilized;
     }
 
     private DeleteEnvironmentResponse deleteEnvironment
-            (final ProxyClient<M2Client> proxyClient, final DeleteEnvironmentRequest awsRequest) {
-        DeleteEnvironmentResponse awsResponse = null;
-        try (M2Client m2client = proxyClient.client()) {
-            awsResponse = ExceptionHandlerWrapper.wrapM2Exception("DeleteEnvironment",
-                    () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest,
-                            m2client::deleteEnvironment));
-        }
+            (final RequestScope scope, final ProxyClient<M2Client> proxyClient, final DeleteEnvironmentRequest awsRequest) {
+        final DeleteEnvironmentResponse awsResponse = ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, "DeleteEnvironment",
+                () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest,
+                        proxyClient.client()::deleteEnvironment));
         logger.log(String.format("Delete %s successfully initiated.", ResourceModel.TYPE_NAME));
         return awsResponse;
     }
@@ -10,6 +10,7 @@ import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import software.amazon.m2.common.ExceptionHandlerWrapper;
+import software.amazon.m2.common.RequestScope;
 
 public class ListHandler extends BaseHandlerStd {
 
@@ -25,7 +26,7 @@ public class ListHandler extends BaseHandlerStd {
         // and https://docs.aws.amazon.com/cloudformation-cli/latest/userguide/resource-type-test-contract.html
         return proxy.initiate("AWS::M2::Environment-List", proxyClient, request.getDesiredResourceState(), callbackContext)
                 .translateToServiceRequest(model -> Translator.translateToListRequest(request.getNextToken()))
-                .makeServiceCall((awsRequest, client) -> listEnvironments(proxyClient, logger, (ListEnvironmentsRequest) awsRequest))
+                .makeServiceCall((awsRequest, client) -> listEnvironments(RequestScope.of(request), proxyClient, logger, (ListEnvironmentsRequest) awsRequest))
                 .done(listEnvsResponse -> ProgressEvent.<ResourceModel, CallbackContext>builder()
                         .resourceModels(Translator.translateFromListResponse(listEnvsResponse))
                         .status(OperationStatus.SUCCESS)
@@ -33,16 +34,18 @@ public class ListHandler extends BaseHandlerStd {
                         .build());
     }
 
-    private ListEnvironmentsResponse listEnvironments(final ProxyClient<M2Client> proxyClient,
+    private ListEnvironmentsResponse listEnvironments(final RequestScope scope,
+                                                      final ProxyClient<M2Client> proxyClient,
                                                       final Logger logger,
                                                       final ListEnvironmentsRequest awsRequest) {
-        ListEnvironmentsResponse awsResponse;
-        try (M2Client m2client = proxyClient.client()) {
-            awsResponse = ExceptionHandlerWrapper.wrapM2Exception("ListEnvironments",
-                    () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, m2client::listEnvironments));
-        }
+        final ListEnvironmentsResponse awsResponse = ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, "ListEnvironments",
+                () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::listEnvironments));
         logger.log(String.format("Successfully listed %ss.", ResourceModel.TYPE_NAME));
         return awsResponse;
     }
 
+    @Override
+    protected boolean supportsCallback() {
+        return false;
+    }
 }
@@ -0,0 +1,133 @@
+package software.amazon.m2.environment;
+
+import com.google.common.annotations.VisibleForTesting;
+import software.amazon.cloudformation.proxy.Delay;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Predicts how long an environment takes to stabilize from the durations observed for similar environments.
+ * <p>
+ * Durations are recorded per profile: the operation, engine type, instance type, desired capacity and storage
+ * configurations. They are kept in memory, so the history is shared by the invocations of a warm container. Once a
+ * profile has {@value #MIN_SAMPLES} samples, its 10th percentile is the prediction. The first poll waits for three
+ * quarters of it, leaving a margin for faster runs, then polls follow the usual cadence from its start, so that they
+ * are dense around the expected end.
+ */
+final class ProvisioningTimePredictor {
+
+    enum Operation {
+        CREATE, UPDATE
+    }
+
+    static final ProvisioningTimePredictor INSTANCE = new ProvisioningTimePredictor(Clock.systemUTC());
+
+    static final int MIN_SAMPLES = 3;
+    static final int MAX_SAMPLES = 20;
+    static final int MAX_PROFILES = 64;
+    static final int PERCENTILE = 10;
+    static final double FIRST_POLL_FACTOR = 0.75;
+    // shorter predictions are not worth waiting for, longer ones are likely off
+    static final Duration MIN_PREDICTION = Duration.ofMinutes(1L);
+    static final Duration MAX_PREDICTION = Duration.ofHours(1L);
+
+    private final Clock clock;
+    private final Map<String, ArrayDeque<Long>> samples = new ConcurrentHashMap<>();
+
+    @VisibleForTesting
+    ProvisioningTimePredictor(final Clock clock) {
+        this.clock = clock;
+    }
+
+    static String profile(final Operation operation, final ResourceModel model) {
+        int efs = 0;
+        int fsx = 0;
+        final List<StorageConfiguration> storageConfigurations = model.getStorageConfigurations();
+        if (storageConfigurations != null) {
+            for (final StorageConfiguration storageConfiguration : storageConfigurations) {
+                efs += storageConfiguration.getEfs() == null ? 0 : 1;
+                fsx += storageConfiguration.getFsx() == null ? 0 : 1;
+            }
+        }
+        final Integer desiredCapacity = model.getHighAvailabilityConfig() == null
+                ? null : model.getHighAvailabilityConfig().getDesiredCapacity();
+        return String.format("%s/%s/%s/%s/efs%d/fsx%d", operation, model.getEngineType(), model.getInstanceType(),
+                desiredCapacity == null ? 1 : desiredCapacity, efs, fsx);
+    }
+
+    /**
+     * Marks the start of a stabilization in the callback context, which is kept across invocations.
+     */
+    void start(final CallbackContext callbackContext) {
+        callbackContext.setStabilizationStartedAt(clock.millis());
+    }
+
+    /**
+     * Records the time since {@link #start} if the stabilization check passed, and returns its result.
+     */
+    boolean recordIfStabilized(final String profile, final CallbackContext callbackContext, final boolean stabilized) {
+        final Long startedAt = callbackContext.getStabilizationStartedAt();
+        if (stabilized && startedAt != null) {
+            record(profile, Duration.ofMillis(clock.millis() - startedAt));
+            callbackContext.setStabilizationStartedAt(null);
+        }
+        return stabilized;
+    }
+
+    void record(final String profile, final Duration elapsed) {
+        if (samples.size() >= MAX_PROFILES && !samples.containsKey(profile)) {
+            return;
+        }
+        final ArrayDeque<Long> history = samples.computeIfAbsent(profile, key -> new ArrayDeque<>());
+        synchronized (history) {
+            if (history.size() == MAX_SAMPLES) {
+                history.removeFirst();
+            }
+            history.addLast(elapsed.getSeconds());
+        }
+    }
+
+    /**
+     * Returns the expected lower bound of the stabilization time of the profile, if its history is long enough.
+     */
+    Optional<Duration> predict(final String profile) {
+        final ArrayDeque<Long> history = samples.get(profile);
+        if (history == null) {
+            return Optional.empty();
+        }
+        final Long[] sorted;
+        synchronized (history) {
+            sorted = history.toArray(new Long[0]);
+        }
+        if (sorted.length < MIN_SAMPLES) {
+            return Optional.empty();
+        }
+        Arrays.sort(sorted);
+        // nearest rank
+        final int rank = Math.max(1, (int) Math.ceil(PERCENTILE / 100.0 * sorted.length));
+        final Duration prediction = Duration.ofSeconds(sorted[rank - 1]);
+        if (prediction.compareTo(MIN_PREDICTION) < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(prediction.compareTo(MAX_PREDICTION) > 0 ? MAX_PREDICTION : prediction);
+    }
+
+    /**
+     * Returns a delay that waits for most of the prediction before the first poll, then follows the cadence from its
+     * start.
+     */
+    static Delay firstPollAfter(final Optional<Duration> prediction, final Delay cadence) {
+        if (!prediction.isPresent()) {
+            return cadence;
+        }
+        final Duration firstDelay = Duration.ofSeconds((long) (prediction.get().getSeconds() * FIRST_POLL_FACTOR));
+        return attempt -> attempt <= 1 ? firstDelay : cadence.nextDelay(attempt - 1);
+    }
+}
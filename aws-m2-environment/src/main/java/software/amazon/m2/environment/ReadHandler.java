@@ -1,5 +1,7 @@
 package software.amazon.m2.environment;
 
+import com.google.common.annotations.VisibleForTesting;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
 import software.amazon.awssdk.services.m2.M2Client;
 import software.amazon.awssdk.services.m2.model.GetEnvironmentRequest;
 import software.amazon.awssdk.services.m2.model.ListTagsForResourceRequest;
@@ -9,10 +11,36 @@ import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.m2.common.ApiRateLimiter;
+import software.amazon.m2.common.CircuitBreakerRegistry;
 import software.amazon.m2.common.ExceptionHandlerWrapper;
+import software.amazon.m2.common.Hedger;
+import software.amazon.m2.common.RequestScope;
+import software.amazon.m2.common.StabilizationMode;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 public class ReadHandler extends BaseHandlerStd {
 
+    public ReadHandler() {
+    }
+
+    @VisibleForTesting
+    ReadHandler(final Function<String, M2AsyncClient> asyncClientProvider,
+                final ApiRateLimiter rateLimiter) {
+        super(asyncClientProvider, rateLimiter);
+    }
+
+    @VisibleForTesting
+    ReadHandler(final Function<String, M2AsyncClient> asyncClientProvider,
+                final StabilizationMode stabilizationMode,
+                final ApiRateLimiter rateLimiter,
+                final CircuitBreakerRegistry breakers,
+                final Hedger hedger) {
+        super(asyncClientProvider, stabilizationMode, rateLimiter, breakers, hedger);
+    }
+
     @Override
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
@@ -21,19 +49,37 @@ public class ReadHandler extends BaseHandlerStd {
             final ProxyClient<M2Client> proxyClient,
             final Logger logger) {
 
-        // See https://github.com/aws-cloudformation/cloudformation-cli-java-plugin/blob/master/src/main/java/software/amazon/cloudformation/proxy/CallChain.java
-        // and https://docs.aws.amazon.com/cloudformation-cli/latest/userguide/resource-type-test-contract.html
-        return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext)
-                .then(progress -> proxy.initiate("AWS::M2::Environment-Read", proxyClient,  request.getDesiredResourceState(), callbackContext)
-                        .translateToServiceRequest(Translator::translateToReadRequest)
-                        .makeServiceCall((awsRequest, client) -> getEnvironment(proxyClient, logger, (GetEnvironmentRequest) awsRequest))
-                        .done(awsResponse -> ProgressEvent.progress(Translator.translateFromReadResponse(awsResponse), callbackContext))
-                )
-                .then(progress -> retrieveResourceTags(proxy, proxyClient, progress.getResourceModel(), callbackContext, logger))
-                .then(progress -> ProgressEvent.defaultSuccessHandler(progress.getResourceModel()));
+        // ListTagsForResource only needs the ARN. When the caller already has it, start the call now so that it
+        // overlaps with GetEnvironment instead of waiting for it.
+        final RequestScope scope = RequestScope.of(request);
+        final ResourceModel desiredModel = request.getDesiredResourceState();
+        final CompletableFuture<ListTagsForResourceResponse> listTagsFuture = desiredModel.getEnvironmentArn() != null
+                ? listTagsAsync(scope, newAsyncProxyClient(proxy, request.getRegion()), Translator.translateToListResourceTagsRequest(desiredModel))
+                : null;
+
+        try {
+            // See https://github.com/aws-cloudformation/cloudformation-cli-java-plugin/blob/master/src/main/java/software/amazon/cloudformation/proxy/CallChain.java
+            // and https://docs.aws.amazon.com/cloudformation-cli/latest/userguide/resource-type-test-contract.html
+            return ProgressEvent.progress(desiredModel, callbackContext)
+                    .then(progress -> proxy.initiate("AWS::M2::Environment-Read", proxyClient,  desiredModel, callbackContext)
+                            .translateToServiceRequest(Translator::translateToReadRequest)
+                            .makeServiceCall((awsRequest, client) -> getEnvironment(scope, proxyClient, logger, (GetEnvironmentRequest) awsRequest))
+                            .done(awsResponse -> ProgressEvent.progress(Translator.translateFromReadResponse(awsResponse), callbackContext))
+                    )
+                    .then(progress -> listTagsFuture != null
+                            ? mergeResourceTags(progress.getResourceModel(), ExceptionHandlerWrapper.join(listTagsFuture), callbackContext)
+                            : retrieveResourceTags(scope, proxy, proxyClient, progress.getResourceModel(), callbackContext, logger))
+                    .then(progress -> ProgressEvent.defaultSuccessHandler(progress.getResourceModel()));
+        } finally {
+            // If the read failed, the tags are no longer needed. No-op once they are joined.
+            if (listTagsFuture != null) {
+                listTagsFuture.cancel(true);
+            }
+        }
     }
 
     private ProgressEvent<ResourceModel, CallbackContext> retrieveResourceTags(
+            final RequestScope scope,
             final AmazonWebServicesClientProxy proxy,
             final ProxyClient<M2Client> proxyClient,
             final ResourceModel model,
@@ -43,24 +89,31 @@ public class ReadHandler extends BaseHandlerStd {
         return proxy.initiate("AWS::M2:Environment-ListTags", proxyClient,
                         model, callbackContext)
                 .translateToServiceRequest(Translator::translateToListResourceTagsRequest)
-                .makeServiceCall((awsRequest, client) -> listTags(awsRequest, proxyClient, logger))
-                .done((awsResponse) -> {
-                    if (awsResponse.tags() != null && !awsResponse.tags().isEmpty()) {
-                        model.setTags(awsResponse.tags());
-                    }
-                    return ProgressEvent.progress(model, callbackContext);
-                });
+                .makeServiceCall((awsRequest, client) -> listTags(scope, awsRequest, proxyClient, logger))
+                .done((awsResponse) -> mergeResourceTags(model, awsResponse, callbackContext));
     }
 
-    private ListTagsForResourceResponse listTags(final ListTagsForResourceRequest awsRequest,
+    private ProgressEvent<ResourceModel, CallbackContext> mergeResourceTags(
+            final ResourceModel model,
+            final ListTagsForResourceResponse awsResponse,
+            final CallbackContext callbackContext
+    ) {
+        if (awsResponse.tags() != null && !awsResponse.tags().isEmpty()) {
+            model.setTags(awsResponse.tags());
+        }
+        return ProgressEvent.progress(model, callbackContext);
+    }
+
+    private ListTagsForResourceResponse listTags(final RequestScope scope,
+                                                 final ListTagsForResourceRequest awsRequest,
                                                  final ProxyClient<M2Client> proxyClient,
                                                  final Logger logger) {
-        ListTagsForResourceResponse awsResponse;
-        try (M2Client m2client = proxyClient.client()) {
-            awsResponse = ExceptionHandlerWrapper.wrapM2Exception("ListTags",
-                    () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, m2client::listTagsForResource)
-            );
-        }
-        return awsResponse;
+        return ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, "ListTags",
+                () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::listTagsForResource));
+    }
+
+    @Override
+    protected boolean supportsCallback() {
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -20,13 +20,24 @@ import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class Translator {
 
+    /**
+     * Properties that UpdateEnvironment can change.
+     */
+    private static final List<Function<ResourceModel, ?>> UPDATABLE_PROPERTIES = List.of(
+            Translator::desiredCapacity,
+            ResourceModel::getEngineVersion,
+            ResourceModel::getInstanceType,
+            ResourceModel::getPreferredMaintenanceWindow);
+
     /**
      * Request to create a resource
      *
@@ -216,35 +227,59 @@ public class Translator {
     }
 
     /**
-     * Request to update properties of a previously created resource
+     * Request to update properties of a previously created resource. Only the properties that changed from the
+     * previous model are sent; all set properties are sent without a previous model.
      *
-     * @param model resource model
+     * @param model         resource model
+     * @param previousModel resource model before the update, or null if unknown
      * @return awsRequest the aws service request to modify a resource
      */
-    static AwsRequest translateToUpdateRequest(final ResourceModel model) {
+    static AwsRequest translateToUpdateRequest(final ResourceModel model, final ResourceModel previousModel) {
         UpdateEnvironmentRequest.Builder builder = UpdateEnvironmentRequest.builder();
         if (model.getEnvironmentId() != null) {
             builder.environmentId(model.getEnvironmentId());
         } else {
             builder.environmentId(extractEnvironmentId(model.getEnvironmentArn()));
         }
-        if (model.getHighAvailabilityConfig() != null) {
-            builder.desiredCapacity(model.getHighAvailabilityConfig().getDesiredCapacity());
-        }
-        if (model.getEngineVersion() != null) {
-            builder.engineVersion(model.getEngineVersion());
-        }
-        if (model.getInstanceType() != null) {
-            builder.instanceType(model.getInstanceType());
-        }
-        if (model.getPreferredMaintenanceWindow() != null) {
-            builder.preferredMaintenanceWindow(model.getPreferredMaintenanceWindow());
-        }
+        builder.desiredCapacity(changedValue(model, previousModel, Translator::desiredCapacity));
+        builder.engineVersion(changedValue(model, previousModel, ResourceModel::getEngineVersion));
+        builder.instanceType(changedValue(model, previousModel, ResourceModel::getInstanceType));
+        builder.preferredMaintenanceWindow(changedValue(model, previousModel, ResourceModel::getPreferredMaintenanceWindow));
         // keep it always false - we want the update to be handled immediately and not to wait for the maintenance window
         builder.applyDuringMaintenanceWindow(false);
         return builder.build();
     }
 
+    /**
+     * Tells whether an UpdateEnvironment call is needed to move the environment from the previous model to the given
+     * one, that is whether any property it can update has changed. It is always needed without a previous model.
+     *
+     * @param model         resource model
+     * @param previousModel resource model before the update, or null if unknown
+     * @return true if the update request would carry at least one property
+     */
+    static boolean hasUpdatableChanges(final ResourceModel model, final ResourceModel previousModel) {
+        return UPDATABLE_PROPERTIES.stream()
+                .anyMatch(property -> changedValue(model, previousModel, property) != null);
+    }
+
+    private static Integer desiredCapacity(final ResourceModel model) {
+        return model.getHighAvailabilityConfig() == null ? null : model.getHighAvailabilityConfig().getDesiredCapacity();
+    }
+
+    /**
+     * Returns the value of the property in the given model, or null if it is unset or the same as in the previous one.
+     * Unset properties are never sent: UpdateEnvironment keeps the current value for them.
+     */
+    private static <T> T changedValue(final ResourceModel model, final ResourceModel previousModel,
+                                      final Function<ResourceModel, T> property) {
+        final T value = property.apply(model);
+        if (previousModel != null && Objects.equals(value, property.apply(previousModel))) {
+            return null;
+        }
+        return value;
+    }
+
     /**
      * Request to list resources
      *
@@ -1,14 +1,11 @@
 package software.amazon.m2.environment;
 
-import software.amazon.awssdk.awscore.AwsRequest;
+import com.google.common.annotations.VisibleForTesting;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
 import software.amazon.awssdk.services.m2.M2Client;
 import software.amazon.awssdk.services.m2.model.EnvironmentLifecycle;
 import software.amazon.awssdk.services.m2.model.GetEnvironmentRequest;
 import software.amazon.awssdk.services.m2.model.GetEnvironmentResponse;
-import software.amazon.awssdk.services.m2.model.TagResourceRequest;
-import software.amazon.awssdk.services.m2.model.TagResourceResponse;
-import software.amazon.awssdk.services.m2.model.UntagResourceRequest;
-import software.amazon.awssdk.services.m2.model.UntagResourceResponse;
 import software.amazon.awssdk.services.m2.model.UpdateEnvironmentRequest;
 import software.amazon.awssdk.services.m2.model.UpdateEnvironmentResponse;
 import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
@@ -17,17 +14,53 @@ import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.m2.common.ApiRateLimiter;
+import software.amazon.m2.common.CircuitBreakerRegistry;
 import software.amazon.m2.common.Constants;
 import software.amazon.m2.common.ExceptionHandlerWrapper;
-import software.amazon.m2.common.TagHelper;
-
+import software.amazon.m2.common.Hedger;
+import software.amazon.m2.common.LifecycleAwareDelay;
+import software.amazon.m2.common.LifecycleStates;
+import software.amazon.m2.common.RequestScope;
+import software.amazon.m2.common.StabilizationMode;
+import software.amazon.m2.common.TagDiff;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 public class UpdateHandler extends BaseHandlerStd {
 
     private Logger logger;
 
+    public UpdateHandler() {
+    }
+
+    @VisibleForTesting
+    UpdateHandler(final Function<String, M2AsyncClient> asyncClientProvider,
+                  final ApiRateLimiter rateLimiter) {
+        super(asyncClientProvider, rateLimiter);
+    }
+
+    @VisibleForTesting
+    UpdateHandler(final Function<String, M2AsyncClient> asyncClientProvider,
+                  final StabilizationMode stabilizationMode,
+                  final ApiRateLimiter rateLimiter) {
+        super(asyncClientProvider, stabilizationMode, rateLimiter);
+    }
+
+    @VisibleForTesting
+    UpdateHandler(final Function<String, M2AsyncClient> asyncClientProvider,
+                  final StabilizationMode stabilizationMode,
+                  final ApiRateLimiter rateLimiter,
+                  final CircuitBreakerRegistry breakers,
+                  final Hedger hedger) {
+        super(asyncClientProvider, stabilizationMode, rateLimiter, breakers, hedger);
+    }
+
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
@@ -36,137 +69,163 @@ public class UpdateHandler extends BaseHandlerStd {
             final Logger logger) {
 
         this.logger = logger;
+        final RequestScope scope = RequestScope.of(request);
+        final String profile = ProvisioningTimePredictor.profile(
+                ProvisioningTimePredictor.Operation.UPDATE, request.getDesiredResourceState());
+
+        final ResourceModel previousModel = request.getPreviousResourceState();
+        // Stack and resource tags are merged together in the Configuration class.
+        final TagDiff tagDiff = TagDiff.of(request);
 
         return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext)
                 // We do not need to check if environment exists;
                 // - the updateEnvironment api will throw ResourceNotFoundException in that case,
                 //   which is the expected behavior for update handlers.
-                .then(progress ->
-                        proxy.initiate("AWS::M2::Environment-Update", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
-                                .translateToServiceRequest(Translator::translateToUpdateRequest)
-                                .backoffDelay(Constants.BACKOFF_STRATEGY_STABILIZE)
-                                .makeServiceCall((awsRequest, client) -> updateEnvironment((UpdateEnvironmentRequest) awsRequest, proxyClient))
-                                .stabilize(this::waitForUpdated)
-                                .progress()
-                )
-                .then(progress -> addNewResourceTags(proxy, request, callbackContext, progress.getResourceModel(), proxyClient, logger))
-                .then(progress -> removeResourceTags(proxy, request, callbackContext, progress.getResourceModel(), proxyClient, logger))
-                .then(progress -> new ReadHandler().handleRequest(proxy, request, callbackContext, proxyClient, logger));
+                // Changes to tags or to properties UpdateEnvironment does not handle need no environment update.
+                .then(progress -> !Translator.hasUpdatableChanges(progress.getResourceModel(), previousModel)
+                        ? skipEnvironmentUpdate(progress)
+                        : stabilizationMode == StabilizationMode.CALLBACK
+                        ? startEnvironmentUpdate(scope, proxy, proxyClient, progress, previousModel)
+                                .then(started -> awaitByCallback(started, Constants.BACKOFF_STRATEGY_STABILIZE_UPDATE,
+                                        ProvisioningTimePredictor.INSTANCE.predict(profile),
+                                        (model, delay) -> ProvisioningTimePredictor.INSTANCE.recordIfStabilized(profile, started.getCallbackContext(),
+                                                waitForUpdated(scope, model.getEnvironmentId(), proxyClient, model, delay))))
+                        : updateEnvironmentAndWait(scope, proxy, proxyClient, progress, previousModel, profile))
+                .then(progress -> tagDiff.isEmpty()
+                        ? skipTagging(progress, tagDiff)
+                        : updateResourceTags(scope, proxy, request, tagDiff, progress, logger))
+                .then(progress -> new ReadHandler(asyncClientProvider, stabilizationMode, rateLimiter, breakers, hedger).handleRequest(proxy, request, callbackContext, proxyClient, logger));
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> updateEnvironmentAndWait(
+            final RequestScope scope,
+            final AmazonWebServicesClientProxy proxy,
+            final ProxyClient<M2Client> proxyClient,
+            final ProgressEvent<ResourceModel, CallbackContext> progress,
+            final ResourceModel previousModel,
+            final String profile) {
+        final LifecycleAwareDelay delay = new LifecycleAwareDelay(Constants.BACKOFF_STRATEGY_STABILIZE_UPDATE);
+        return proxy.initiate("AWS::M2::Environment-Update", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
+                .translateToServiceRequest(model -> Translator.translateToUpdateRequest(model, previousModel))
+                .backoffDelay(ProvisioningTimePredictor.firstPollAfter(ProvisioningTimePredictor.INSTANCE.predict(profile), delay))
+                .makeServiceCall((awsRequest, client) -> {
+                    final UpdateEnvironmentResponse response = updateEnvironment(scope, (UpdateEnvironmentRequest) awsRequest, proxyClient);
+                    ProvisioningTimePredictor.INSTANCE.start(progress.getCallbackContext());
+                    return response;
+                })
+                .stabilize((awsRequest, awsResponse, client, model, context) ->
+                        ProvisioningTimePredictor.INSTANCE.recordIfStabilized(profile, context,
+                                waitForUpdated(scope, awsResponse.environmentId(), client, model, delay)))
+                .progress();
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> skipEnvironmentUpdate(
+            final ProgressEvent<ResourceModel, CallbackContext> progress) {
+        logger.log(String.format("%s [%s] has no updatable property changes, skipping UpdateEnvironment.",
+                ResourceModel.TYPE_NAME, progress.getResourceModel().getEnvironmentId()));
+        return progress;
+    }
+
+    /**
+     * Calls UpdateEnvironment without waiting for the environment, for {@link StabilizationMode#CALLBACK}. The call
+     * is recorded in the callback context, so it is not repeated by later invocations.
+     */
+    private ProgressEvent<ResourceModel, CallbackContext> startEnvironmentUpdate(
+            final RequestScope scope,
+            final AmazonWebServicesClientProxy proxy,
+            final ProxyClient<M2Client> proxyClient,
+            final ProgressEvent<ResourceModel, CallbackContext> progress,
+            final ResourceModel previousModel) {
+        return proxy.initiate("AWS::M2::Environment-Update", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
+                .translateToServiceRequest(model -> Translator.translateToUpdateRequest(model, previousModel))
+                .makeServiceCall((awsRequest, client) -> {
+                    final UpdateEnvironmentResponse response = updateEnvironment(scope, (UpdateEnvironmentRequest) awsRequest, proxyClient);
+                    ProvisioningTimePredictor.INSTANCE.start(progress.getCallbackContext());
+                    return response;
+                })
+                .done((awsRequest, awsResponse, client, model, context) -> {
+                    model.setEnvironmentId(awsResponse.environmentId());
+                    return ProgressEvent.progress(model, context);
+                });
     }
 
-    private UpdateEnvironmentResponse updateEnvironment(final UpdateEnvironmentRequest awsRequest,
+    private UpdateEnvironmentResponse updateEnvironment(final RequestScope scope,
+                                                        final UpdateEnvironmentRequest awsRequest,
                                                         final ProxyClient<M2Client> proxyClient) {
-        UpdateEnvironmentResponse awsResponse;
-        try (M2Client m2client = proxyClient.client()) {
-            awsResponse = ExceptionHandlerWrapper.wrapM2Exception("UpdateEnvironment",
-                    () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, m2client::updateEnvironment));
-        }
+        final UpdateEnvironmentResponse awsResponse = ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, "UpdateEnvironment",
+                () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::updateEnvironment));
         logger.log(String.format("Update %s has successfully been initiated.", ResourceModel.TYPE_NAME));
         return awsResponse;
     }
 
-    private Boolean waitForUpdated(final AwsRequest awsRequest,
-                                   final UpdateEnvironmentResponse updateEnvironmentResponse,
+    private Boolean waitForUpdated(final RequestScope scope,
+                                   final String environmentId,
                                    final ProxyClient<M2Client> proxyClient,
                                    final ResourceModel model,
-                                   final CallbackContext callbackContext) {
-        model.setEnvironmentId(updateEnvironmentResponse.environmentId());
+                                   final LifecycleAwareDelay delay) {
+        model.setEnvironmentId(environmentId);
+        if (isListedInTransition(scope, proxyClient, logger, environmentId, delay)) {
+            return false;
+        }
         GetEnvironmentRequest getEnvRequest = GetEnvironmentRequest.builder()
                 .environmentId(model.getEnvironmentId()).build();
 
-        GetEnvironmentResponse getEnvResponse = getEnvironment(proxyClient, logger, getEnvRequest);
+        GetEnvironmentResponse getEnvResponse = getEnvironment(scope, proxyClient, logger, getEnvRequest);
         model.setEnvironmentArn(getEnvResponse.environmentArn());
 
-        if (EnvironmentLifecycle.AVAILABLE.equals(getEnvResponse.status())) {
-            logger.log(String.format("%s [%s] has been successfully updated.",
-                    ResourceModel.TYPE_NAME, model.getEnvironmentId()));
-            return true;
-        } else if (EnvironmentLifecycle.FAILED.equals(getEnvResponse.status())) {
-            logger.log(String.format("%s [%s] has failed to update.",
-                    ResourceModel.TYPE_NAME, model.getEnvironmentId()));
-            String errorMessage = String.format("UpdateEnvironment failed: %s", getEnvResponse.statusReason());
-            throw new CfnGeneralServiceException(errorMessage);
-        } else {
-            logger.log(String.format("%s [%s] has status %s", ResourceModel.TYPE_NAME,
-                    model.getEnvironmentId(), getEnvResponse.status()));
-        }
-        return false;
-    }
-
-    /**
-     * Add any new resource tags.
-     * Calls the m2:TagResource API for adding tags.
-     */
-    private ProgressEvent<ResourceModel, CallbackContext>
-    addNewResourceTags(final AmazonWebServicesClientProxy proxy,
-                       final ResourceHandlerRequest<ResourceModel> handlerRequest,
-                       final CallbackContext callbackContext,
-                       final ResourceModel resourceModel,
-                       final ProxyClient<M2Client> serviceClient,
-                       final Logger logger) {
-
-        Map<String, String> addedTags = TagHelper.generateTagsToAdd(handlerRequest);
-        if (!addedTags.isEmpty()) {
-            logger.log(String.format("Going to add tags for environment: %s with AccountId: %s",
-                    resourceModel.getEnvironmentId(), handlerRequest.getAwsAccountId()));
-
-            return proxy.initiate("AWS::M2::Environment-TagResource", serviceClient, resourceModel, callbackContext)
-                    .translateToServiceRequest(model -> Translator.tagResourceRequest(model, addedTags))
-                    .makeServiceCall((request, client) -> tagResource(request, client, logger))
-                    .progress();
+        final EnvironmentLifecycle status = getEnvResponse.status();
+        delay.observe(LifecycleStates.ENVIRONMENT.pollInterval(status));
+        switch (LifecycleStates.ENVIRONMENT.outcome(status)) {
+            case SUCCEEDED:
+                logger.log(String.format("%s [%s] has been successfully updated.",
+                        ResourceModel.TYPE_NAME, model.getEnvironmentId()));
+                return true;
+            case FAILED:
+                logger.log(String.format("%s [%s] has failed to update.",
+                        ResourceModel.TYPE_NAME, model.getEnvironmentId()));
+                String errorMessage = String.format("UpdateEnvironment failed: %s", getEnvResponse.statusReason());
+                throw new CfnGeneralServiceException(errorMessage);
+            default:
+                logger.log(String.format("%s [%s] has status %s", ResourceModel.TYPE_NAME,
+                        model.getEnvironmentId(), status));
+                return false;
         }
-        return ProgressEvent.progress(resourceModel, callbackContext);
     }
 
-    private TagResourceResponse tagResource(final TagResourceRequest awsRequest,
-                                            final ProxyClient<M2Client> proxyClient,
-                                            final Logger logger) {
-        TagResourceResponse awsResponse;
-        try (M2Client m2client = proxyClient.client()) {
-            awsResponse = ExceptionHandlerWrapper.wrapM2Exception("TagResource",
-                    () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, m2client::tagResource));
-        }
-        logger.log(String.format("%s [%s] has successfully been tagged for added tags.",
-                ResourceModel.TYPE_NAME, awsRequest.resourceArn()));
-        return awsResponse;
+    private ProgressEvent<ResourceModel, CallbackContext> skipTagging(
+            final ProgressEvent<ResourceModel, CallbackContext> progress,
+            final TagDiff tagDiff) {
+        logger.log(String.format("%s [%s] has no tag changes (%d unchanged), skipping tagging.",
+                ResourceModel.TYPE_NAME, progress.getResourceModel().getEnvironmentId(), tagDiff.getUnchangedCount()));
+        return progress;
     }
 
     /**
-     * Untag any removed resource tags.
-     * Calls m2:UntagResource API for removing tags.
+     * Add any new resource tags and untag any removed ones.
+     * Calls the m2:TagResource and m2:UntagResource APIs, once per {@link TagDiff#MAX_TAGS_PER_CALL} tags. Added and
+     * removed tags have different keys, so the calls are independent and are all made together.
      */
     private ProgressEvent<ResourceModel, CallbackContext>
-    removeResourceTags(final AmazonWebServicesClientProxy proxy,
+    updateResourceTags(final RequestScope scope,
+                       final AmazonWebServicesClientProxy proxy,
                        final ResourceHandlerRequest<ResourceModel> handlerRequest,
-                       final CallbackContext callbackContext,
-                       final ResourceModel resourceModel,
-                       final ProxyClient<M2Client> serviceClient,
+                       final TagDiff tagDiff,
+                       final ProgressEvent<ResourceModel, CallbackContext> progress,
                        final Logger logger) {
 
-        Set<String> removedTags = TagHelper.generateTagsToRemove(handlerRequest);
-        if (!removedTags.isEmpty()) {
-            logger.log(String.format("Going to remove tags for environment: %s with AccountId: %s",
-                    resourceModel.getEnvironmentId(), handlerRequest.getAwsAccountId()));
-
-            return proxy.initiate("AWS::M2::Environment-UntagResource", serviceClient, resourceModel, callbackContext)
-                    .translateToServiceRequest(model -> Translator.untagResourceRequest(model, removedTags))
-                    .makeServiceCall((request, client) -> untagResource(request, client, logger))
-                    .progress();
+        final ResourceModel model = progress.getResourceModel();
+        logger.log(String.format("Going to update tags for environment: %s with AccountId: %s",
+                model.getEnvironmentId(), handlerRequest.getAwsAccountId()));
+        final ProxyClient<M2AsyncClient> asyncProxyClient = newAsyncProxyClient(proxy, handlerRequest.getRegion());
+        final List<CompletableFuture<?>> calls = new ArrayList<>();
+        for (final Map<String, String> addedTags : tagDiff.getTagsToAddChunks()) {
+            calls.add(tagResourceAsync(scope, asyncProxyClient, logger, Translator.tagResourceRequest(model, addedTags)));
         }
-        return ProgressEvent.progress(resourceModel, callbackContext);
-    }
-
-    private UntagResourceResponse untagResource(final UntagResourceRequest awsRequest,
-                                                final ProxyClient<M2Client> proxyClient,
-                                                final Logger logger) {
-        UntagResourceResponse awsResponse;
-        try (M2Client m2client = proxyClient.client()) {
-            awsResponse = ExceptionHandlerWrapper.wrapM2Exception("UntagResource",
-                    () -> proxyClient.injectCredentialsAndInvokeV2(awsRequest, m2client::untagResource));
+        for (final Set<String> removedTags : tagDiff.getTagsToRemoveChunks()) {
+            calls.add(untagResourceAsync(scope, asyncProxyClient, logger, Translator.untagResourceRequest(model, removedTags)));
         }
-        logger.log(String.format("%s [%s] has successfully been untagged for removed tags.",
-                ResourceModel.TYPE_NAME, awsRequest.resourceArn()));
-        return awsResponse;
+        ExceptionHandlerWrapper.join(CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])));
+        return progress;
     }
 
 }
@@ -1,17 +1,21 @@
 package software.amazon.m2.environment;
 
+import org.mockito.Mockito;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.awscore.AwsRequest;
 import software.amazon.awssdk.awscore.AwsResponse;
 import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
 import software.amazon.awssdk.services.m2.M2Client;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Credentials;
 import software.amazon.cloudformation.proxy.LoggerProxy;
 import software.amazon.cloudformation.proxy.ProxyClient;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
@@ -73,4 +77,24 @@ public class AbstractTestBase {
             }
         };
     }
+
+    /**
+     * Returns an asynchronous client that answers every call from the same-named method of the given synchronous
+     * client, so tests can stub and verify one client whichever call path the handler takes.
+     */
+    static M2AsyncClient ASYNC_DELEGATE(final M2Client sdkClient) {
+        return Mockito.mock(M2AsyncClient.class, invocation -> {
+            final Method method = invocation.getMethod();
+            if (!CompletableFuture.class.equals(method.getReturnType())) {
+                return Mockito.RETURNS_DEFAULTS.answer(invocation);
+            }
+            try {
+                return CompletableFuture.completedFuture(M2Client.class
+                        .getMethod(method.getName(), method.getParameterTypes())
+                        .invoke(sdkClient, invocation.getArguments()));
+            } catch (InvocationTargetException e) {
+                return CompletableFuture.failedFuture(e.getCause());
+            }
+        });
+    }
 }
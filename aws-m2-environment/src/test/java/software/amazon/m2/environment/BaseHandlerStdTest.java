@@ -0,0 +1,91 @@
+package software.amazon.m2.environment;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.m2.M2Client;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.m2.common.CircuitBreakerOpenException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BaseHandlerStdTest extends AbstractTestBase {
+
+    private final AmazonWebServicesClientProxy proxy =
+            new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+
+    private final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+            .desiredResourceState(ResourceModel.builder().environmentArn("arn:aws:m2:us-west-2:123456:env/env-id").build())
+            .build();
+
+    @Test
+    public void primeHandlerPaths_success() {
+        Assertions.assertDoesNotThrow(BaseHandlerStd::primeHandlerPaths);
+    }
+
+    @Test
+    public void handleRequest_circuitBreakerOpen_inProgress() {
+        final BaseHandlerStd handler = new DeleteHandler() {
+            @Override
+            protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+                    final AmazonWebServicesClientProxy proxy,
+                    final ResourceHandlerRequest<ResourceModel> request,
+                    final CallbackContext callbackContext,
+                    final ProxyClient<M2Client> proxyClient,
+                    final Logger logger) {
+                throw new CircuitBreakerOpenException("DeleteEnvironment", 25);
+            }
+        };
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(25);
+        assertThat(response.getCallbackContext()).isNotNull();
+        assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
+    }
+
+    @Test
+    public void handleRequest_circuitBreakerOpenInList_throttled() {
+        final BaseHandlerStd handler = new ListHandler() {
+            @Override
+            public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+                    final AmazonWebServicesClientProxy proxy,
+                    final ResourceHandlerRequest<ResourceModel> request,
+                    final CallbackContext callbackContext,
+                    final ProxyClient<M2Client> proxyClient,
+                    final Logger logger) {
+                throw new CircuitBreakerOpenException("ListEnvironments", 25);
+            }
+        };
+
+        Assertions.assertThrows(CfnThrottlingException.class,
+                () -> handler.handleRequest(proxy, request, null, logger));
+    }
+
+    @Test
+    public void handleRequest_circuitBreakerOpenInRead_throttled() {
+        final BaseHandlerStd handler = new ReadHandler() {
+            @Override
+            protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+                    final AmazonWebServicesClientProxy proxy,
+                    final ResourceHandlerRequest<ResourceModel> request,
+                    final CallbackContext callbackContext,
+                    final ProxyClient<M2Client> proxyClient,
+                    final Logger logger) {
+                throw new CircuitBreakerOpenException("GetEnvironment", 25);
+            }
+        };
+
+        Assertions.assertThrows(CfnThrottlingException.class,
+                () -> handler.handleRequest(proxy, request, null, logger));
+    }
+}
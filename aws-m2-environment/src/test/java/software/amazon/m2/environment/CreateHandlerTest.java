@@ -3,6 +3,7 @@ package software.amazon.m2.environment;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.mockito.Mockito;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
 import software.amazon.awssdk.services.m2.M2Client;
 import software.amazon.awssdk.services.m2.model.AccessDeniedException;
 import software.amazon.awssdk.services.m2.model.ConflictException;
@@ -22,6 +23,8 @@ import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.m2.common.ApiRateLimiter;
+import software.amazon.m2.common.StabilizationMode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -45,12 +48,15 @@ public class CreateHandlerTest extends AbstractTestBase {
     @Mock
     private M2Client m2Client;
 
-    final CreateHandler handler = new CreateHandler();
+    private M2AsyncClient m2AsyncClient;
+
+    final CreateHandler handler = new CreateHandler(region -> m2AsyncClient, ApiRateLimiter.disabled());
 
     @BeforeEach
     public void setup() {
         proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
         m2Client = Mockito.mock(M2Client.class);
+        m2AsyncClient = ASYNC_DELEGATE(m2Client);
         proxyM2Client = MOCK_PROXY(proxy, m2Client);
     }
 
@@ -253,4 +259,48 @@ public class CreateHandlerTest extends AbstractTestBase {
         Mockito.when(proxyM2Client.client().createEnvironment(Mockito.any(CreateEnvironmentRequest.class)))
                 .thenReturn(createEnvironmentResponse);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void handleRequest_callbackStabilization_pollsOncePerInvocation() {
+        final CreateHandler callbackHandler = new CreateHandler(region -> m2AsyncClient, StabilizationMode.CALLBACK, ApiRateLimiter.disabled());
+        final ResourceModel model = TestDataProvider.resourceModel();
+
+        String envId = "env-id";
+        mockCreateEnvironment(envId);
+        Mockito.when(proxyM2Client.client().getEnvironment(Mockito.any(GetEnvironmentRequest.class)))
+                .thenReturn(TestDataProvider.getEnvironmentResponseFromModel(model, envId, "Creating"))  // second invocation
+                .thenReturn(TestDataProvider.getEnvironmentResponseFromModel(model, envId, "Available"))  // third invocation
+                .thenReturn(TestDataProvider.getEnvironmentResponseFromModel(model, envId, "Available")); // final read call
+        Mockito.when(proxyM2Client.client().listTagsForResource(Mockito.any(ListTagsForResourceRequest.class)))
+                .thenReturn(ListTagsForResourceResponse.builder().tags(model.getTags()).build());
+
+        ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .clientRequestToken("client-token")
+                .desiredResourceTags(model.getTags())
+                .build();
+
+        // the call is accepted and the handler exits without polling
+        ProgressEvent<ResourceModel, CallbackContext> response =
+                callbackHandler.handleRequest(proxy, request, new CallbackContext(), proxyM2Client, logger);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isPositive();
+        assertThat(response.getCallbackContext().getStabilizationAttempts()).isEqualTo(1);
+        assertThat(response.getResourceModel().getEnvironmentId()).isEqualTo(envId);
+        Mockito.verify(m2Client, Mockito.never()).getEnvironment(Mockito.any(GetEnvironmentRequest.class));
+
+        // one poll, still creating
+        request = request.toBuilder().desiredResourceState(response.getResourceModel()).build();
+        response = callbackHandler.handleRequest(proxy, request, response.getCallbackContext(), proxyM2Client, logger);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().getStabilizationAttempts()).isEqualTo(2);
+
+        // one poll, available
+        request = request.toBuilder().desiredResourceState(response.getResourceModel()).build();
+        response = callbackHandler.handleRequest(proxy, request, response.getCallbackContext(), proxyM2Client, logger);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+
+        Mockito.verify(m2Client, Mockito.times(1)).createEnvironment(Mockito.any(CreateEnvironmentRequest.class));
+        Mockito.verify(m2Client, Mockito.times(3)).getEnvironment(Mockito.any(GetEnvironmentRequest.class));
+    }
+}
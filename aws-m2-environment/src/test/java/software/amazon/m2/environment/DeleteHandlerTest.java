@@ -15,6 +15,8 @@ import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.m2.common.ApiRateLimiter;
+import software.amazon.m2.common.StabilizationMode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -106,4 +108,42 @@ public class DeleteHandlerTest extends AbstractTestBase {
                 handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger));
     }
 
+    @Test
+    public void handleRequest_callbackStabilization_pollsOncePerInvocation() {
+        final DeleteHandler callbackHandler = new DeleteHandler(region -> null, StabilizationMode.CALLBACK, ApiRateLimiter.disabled());
+        final ResourceModel model = ResourceModel.builder()
+                .environmentArn("arn:aws:m2:us-west-2:123456:env/env-id")
+                .build();
+
+        Mockito.when(proxyClient.client().getEnvironment(Mockito.any(GetEnvironmentRequest.class)))
+                .thenReturn(GetEnvironmentResponse.builder()
+                        .environmentId("env-id")
+                        .environmentArn(model.getEnvironmentArn())
+                        .status(EnvironmentLifecycle.AVAILABLE)
+                        .build()) // pre-delete check
+                .thenThrow(ResourceNotFoundException.builder()
+                        .resourceType("Environment").resourceId("arn").build());
+        Mockito.when(proxyClient.client().deleteEnvironment(Mockito.any(DeleteEnvironmentRequest.class)))
+                .thenReturn(DeleteEnvironmentResponse.builder().build());
+
+        ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        ProgressEvent<ResourceModel, CallbackContext> response = callbackHandler.handleRequest(
+                proxy, request, new CallbackContext(), proxyClient, logger);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isPositive();
+        assertThat(response.getCallbackContext().getStabilizationAttempts()).isEqualTo(1);
+
+        request = request.toBuilder().desiredResourceState(response.getResourceModel()).build();
+        response = callbackHandler.handleRequest(proxy, request, response.getCallbackContext(), proxyClient, logger);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel()).isNull();
+
+        Mockito.verify(proxyClient.client(), Mockito.times(2))
+                .getEnvironment(Mockito.any(GetEnvironmentRequest.class));
+        Mockito.verify(proxyClient.client(), Mockito.times(1))
+                .deleteEnvironment(Mockito.any(DeleteEnvironmentRequest.class));
+    }
 }
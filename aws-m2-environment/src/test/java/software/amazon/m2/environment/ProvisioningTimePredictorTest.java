@@ -0,0 +1,177 @@
+package software.amazon.m2.environment;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.Delay;
+import software.amazon.m2.common.Constants;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProvisioningTimePredictorTest {
+
+    private static final String PROFILE = "CREATE/microfocus/M2.m5.large/1/efs0/fsx0";
+
+    private final MutableClock clock = new MutableClock();
+    private final ProvisioningTimePredictor predictor = new ProvisioningTimePredictor(clock);
+
+    @Test
+    public void profileIsBuiltFromProvisioningAttributes() {
+        final ResourceModel model = ResourceModel.builder()
+                .engineType("microfocus")
+                .instanceType("M2.m5.large")
+                .highAvailabilityConfig(HighAvailabilityConfig.builder().desiredCapacity(2).build())
+                .storageConfigurations(Collections.singletonList(StorageConfiguration.builder()
+                        .efs(EfsStorageConfiguration.builder().fileSystemId("fs-1").mountPoint("/m2/mount").build())
+                        .build()))
+                .build();
+
+        assertThat(ProvisioningTimePredictor.profile(ProvisioningTimePredictor.Operation.UPDATE, model))
+                .isEqualTo("UPDATE/microfocus/M2.m5.large/2/efs1/fsx0");
+        assertThat(ProvisioningTimePredictor.profile(ProvisioningTimePredictor.Operation.CREATE,
+                ResourceModel.builder().engineType("microfocus").instanceType("M2.m5.large").build()))
+                .isEqualTo(PROFILE);
+    }
+
+    @Test
+    public void predictsLowPercentileOnceHistoryIsLongEnough() {
+        predictor.record(PROFILE, Duration.ofMinutes(30L));
+        predictor.record(PROFILE, Duration.ofMinutes(25L));
+        assertThat(predictor.predict(PROFILE)).isEmpty();
+
+        predictor.record(PROFILE, Duration.ofMinutes(40L));
+        assertThat(predictor.predict(PROFILE)).contains(Duration.ofMinutes(25L));
+        assertThat(predictor.predict("UPDATE/microfocus/M2.m5.large/1/efs0/fsx0")).isEmpty();
+    }
+
+    @Test
+    public void keepsOnlyRecentSamples() {
+        for (int i = 0; i < ProvisioningTimePredictor.MAX_SAMPLES; i++) {
+            predictor.record(PROFILE, Duration.ofMinutes(10L));
+        }
+        for (int i = 0; i < ProvisioningTimePredictor.MAX_SAMPLES; i++) {
+            predictor.record(PROFILE, Duration.ofMinutes(20L));
+        }
+
+        assertThat(predictor.predict(PROFILE)).contains(Duration.ofMinutes(20L));
+    }
+
+    @Test
+    public void ignoresShortAndCapsLongPredictions() {
+        for (int i = 0; i < ProvisioningTimePredictor.MIN_SAMPLES; i++) {
+            predictor.record(PROFILE, Duration.ofSeconds(5L));
+            predictor.record("long", Duration.ofHours(5L));
+        }
+
+        assertThat(predictor.predict(PROFILE)).isEmpty();
+        assertThat(predictor.predict("long")).contains(ProvisioningTimePredictor.MAX_PREDICTION);
+    }
+
+    @Test
+    public void recordsTimeFromStartWhenStabilized() {
+        final CallbackContext callbackContext = new CallbackContext();
+        predictor.start(callbackContext);
+        clock.advance(Duration.ofMinutes(20L));
+
+        assertThat(predictor.recordIfStabilized(PROFILE, callbackContext, false)).isFalse();
+        assertThat(callbackContext.getStabilizationStartedAt()).isNotNull();
+
+        clock.advance(Duration.ofMinutes(10L));
+        assertThat(predictor.recordIfStabilized(PROFILE, callbackContext, true)).isTrue();
+        assertThat(callbackContext.getStabilizationStartedAt()).isNull();
+        // recorded once only
+        assertThat(predictor.recordIfStabilized(PROFILE, callbackContext, true)).isTrue();
+
+        predictor.record(PROFILE, Duration.ofMinutes(45L));
+        predictor.record(PROFILE, Duration.ofMinutes(50L));
+        assertThat(predictor.predict(PROFILE)).contains(Duration.ofMinutes(30L));
+    }
+
+    @Test
+    public void firstPollWaitsForMostOfThePrediction() {
+        final Delay cadence = attempt -> Duration.ofSeconds(attempt);
+
+        assertThat(ProvisioningTimePredictor.firstPollAfter(Optional.empty(), cadence)).isSameAs(cadence);
+
+        final Delay delay = ProvisioningTimePredictor.firstPollAfter(Optional.of(Duration.ofMinutes(20L)), cadence);
+        assertThat(delay.nextDelay(1)).isEqualTo(Duration.ofMinutes(15L));
+        assertThat(delay.nextDelay(2)).isEqualTo(Duration.ofSeconds(1L));
+        assertThat(delay.nextDelay(3)).isEqualTo(Duration.ofSeconds(2L));
+    }
+
+    /**
+     * Polls simulated environment creations taking 25 to 40 minutes in virtual time, with and without a prediction
+     * from the history of earlier creations, and compares the polls made and how long after the end it is noticed.
+     */
+    @Test
+    public void virtualTimeBenchmark() {
+        final Random random = new Random(11L);
+        for (int i = 0; i < ProvisioningTimePredictor.MAX_SAMPLES; i++) {
+            predictor.record(PROFILE, creationTime(random));
+        }
+        final Delay cadence = Constants.BACKOFF_STRATEGY_STABILIZE_CREATE;
+
+        final double[] withoutPrediction = simulate(cadence, new Random(3L));
+        final double[] withPrediction = simulate(
+                ProvisioningTimePredictor.firstPollAfter(predictor.predict(PROFILE), cadence), new Random(3L));
+
+        assertThat(withPrediction[0]).isLessThan(withoutPrediction[0] * 0.6);
+        assertThat(withPrediction[1]).isLessThan(withoutPrediction[1] + 5.0);
+    }
+
+    private static Duration creationTime(final Random random) {
+        return Duration.ofSeconds(25L * 60L + random.nextInt(15 * 60));
+    }
+
+    /**
+     * Returns the average polls and detection latency in seconds of 1000 runs, counting the poll made right after the
+     * call.
+     */
+    private static double[] simulate(final Delay delay, final Random random) {
+        final int runs = 1000;
+        long polls = 0L;
+        long detection = 0L;
+        for (int run = 0; run < runs; run++) {
+            final long doneAt = creationTime(random).getSeconds();
+            long now = 0L;
+            int attempt = 1;
+            polls++;
+            while (now < doneAt) {
+                now += delay.nextDelay(attempt++).getSeconds();
+                polls++;
+            }
+            detection += now - doneAt;
+        }
+        return new double[] {(double) polls / runs, (double) detection / runs};
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(final Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package software.amazon.m2.environment;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.mockito.Mockito;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
 import software.amazon.awssdk.services.m2.M2Client;
 import software.amazon.awssdk.services.m2.model.FsxStorageConfiguration;
 import software.amazon.awssdk.services.m2.model.GetEnvironmentRequest;
@@ -19,6 +20,7 @@ import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.m2.common.ApiRateLimiter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,6 +31,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.atLeastOnce;
@@ -47,10 +50,13 @@ public class ReadHandlerTest extends AbstractTestBase {
     @Mock
     private M2Client m2Client;
 
+    private M2AsyncClient m2AsyncClient;
+
     @BeforeEach
     public void setup() {
         proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
         m2Client = mock(M2Client.class);
+        m2AsyncClient = ASYNC_DELEGATE(m2Client);
         proxyClient = MOCK_PROXY(proxy, m2Client);
     }
 
@@ -61,7 +67,7 @@ public class ReadHandlerTest extends AbstractTestBase {
 
     @Test
     public void handleRequest_SimpleSuccess() {
-        final ReadHandler handler = new ReadHandler();
+        final ReadHandler handler = new ReadHandler(region -> m2AsyncClient, ApiRateLimiter.disabled());
         Instant startMaintenance = Instant.ofEpochMilli(1657129893277L);
         Instant endMaintenance = Instant.ofEpochMilli(1657159893277L);
 
@@ -125,7 +131,7 @@ public class ReadHandlerTest extends AbstractTestBase {
 
     @Test
     public void handleRequest_envNotFound() {
-        final ReadHandler handler = new ReadHandler();
+        final ReadHandler handler = new ReadHandler(region -> m2AsyncClient, ApiRateLimiter.disabled());
 
         final ResourceModel model = ResourceModel.builder()
                 .environmentArn("arn:aws:m2:us-west-2:123456:env/env-id")
@@ -144,4 +150,30 @@ public class ReadHandlerTest extends AbstractTestBase {
             handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
         });
     }
+
+    @Test
+    public void handleRequest_envNotFound_cancelsListTags() {
+        final CompletableFuture<ListTagsForResourceResponse> listTagsFuture = new CompletableFuture<>();
+        final M2AsyncClient pendingTagsClient = mock(M2AsyncClient.class);
+        Mockito.when(pendingTagsClient.listTagsForResource(Mockito.any(ListTagsForResourceRequest.class)))
+                .thenReturn(listTagsFuture);
+        final ReadHandler handler = new ReadHandler(region -> pendingTagsClient, ApiRateLimiter.disabled());
+
+        final ResourceModel model = ResourceModel.builder()
+                .environmentArn("arn:aws:m2:us-west-2:123456:env/env-id")
+                .build();
+
+        Mockito.when(proxyClient.client().getEnvironment(Mockito.any(GetEnvironmentRequest.class)))
+                .thenThrow(ResourceNotFoundException.builder()
+                        .resourceType("Environment").resourceId("arn:aws:m2:us-west-2:123456:env/env-id").build());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        Assertions.assertThrows(CfnNotFoundException.class, () -> {
+            handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+        });
+        assertThat(listTagsFuture).isCancelled();
+    }
 }
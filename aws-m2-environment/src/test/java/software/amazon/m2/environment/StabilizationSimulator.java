@@ -0,0 +1,332 @@
+package software.amazon.m2.environment;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import software.amazon.awssdk.core.exception.AbortedException;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
+import software.amazon.awssdk.services.m2.M2Client;
+import software.amazon.awssdk.services.m2.model.CreateEnvironmentResponse;
+import software.amazon.awssdk.services.m2.model.DeleteEnvironmentResponse;
+import software.amazon.awssdk.services.m2.model.EnvironmentLifecycle;
+import software.amazon.awssdk.services.m2.model.EnvironmentSummary;
+import software.amazon.awssdk.services.m2.model.GetEnvironmentResponse;
+import software.amazon.awssdk.services.m2.model.ListEnvironmentsResponse;
+import software.amazon.awssdk.services.m2.model.ListTagsForResourceResponse;
+import software.amazon.awssdk.services.m2.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.m2.model.TagResourceResponse;
+import software.amazon.awssdk.services.m2.model.UntagResourceResponse;
+import software.amazon.awssdk.services.m2.model.UpdateEnvironmentResponse;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.DelayFactory;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.proxy.WaitStrategy;
+import software.amazon.m2.common.ApiRateLimiter;
+import software.amazon.m2.common.CircuitBreakerRegistry;
+import software.amazon.m2.common.Hedger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Drives the environment handlers against a scripted lifecycle timeline on a virtual clock, so that stabilization
+ * settings can be evaluated without waiting, up to their 3-day timeouts.
+ * <p>
+ * The timeline starts with the mutating call of the handler; before it, the environment is AVAILABLE. Waits made
+ * within an invocation advance the clock as long as the invocation budget allows, as the framework does with real
+ * sleeps; otherwise the handler returns IN_PROGRESS and is invoked again once its callback delay has passed. Each run
+ * reports the status reads made after the mutating call, the invocations, how long after the timeline settled the
+ * handler finished, the Lambda time billed: the waits made within invocations plus {@link #INVOCATION_OVERHEAD} per
+ * invocation, and the 99th percentile of the real time the invocations took.
+ * <p>
+ * Status reads answer at once, unless a simulator is given their latencies. These are spent in real time, so that
+ * they can be cut short by the {@link Hedger} the handler is given; the 99th percentile invocation time then shows
+ * what hedging does to the tail latency of the polls.
+ * <p>
+ * Handlers are built with the disabled rate limiter, since the container-wide one works in real time. The provisioning
+ * time predictor uses the real clock as well, so runs are made without predictions.
+ */
+final class StabilizationSimulator {
+
+    static final String ENVIRONMENT_ID = "env-id";
+    static final String ENVIRONMENT_ARN = "arn:aws:m2:us-west-2:123456:env/env-id";
+    static final Duration DEFAULT_INVOCATION_BUDGET = Duration.ofMinutes(15L);
+    static final Duration INVOCATION_OVERHEAD = Duration.ofSeconds(1L);
+    static final int MAX_INVOCATIONS = 100_000;
+
+    private final Timeline timeline;
+    private final Duration invocationBudget;
+    private final IntFunction<Duration> readLatency;
+    private final Hedger hedger;
+    private final M2Client client = Mockito.mock(M2Client.class, this::answer);
+    private final M2AsyncClient asyncClient = AbstractTestBase.ASYNC_DELEGATE(client);
+    private final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(AbstractTestBase.logger,
+            AbstractTestBase.MOCK_CREDENTIALS, DelayFactory.CONSTANT_DEFAULT_DELAY_FACTORY, new VirtualWait());
+    private final ProxyClient<M2Client> proxyClient = AbstractTestBase.MOCK_PROXY(proxy, client);
+    // Hedged reads are made from other threads
+    private final AtomicInteger polls = new AtomicInteger();
+    private final AtomicInteger reads = new AtomicInteger();
+
+    private long nowMillis;
+    private long invocationStartedAtMillis;
+    private Long timelineStartedAtMillis;
+
+    StabilizationSimulator(final Timeline timeline) {
+        this(timeline, DEFAULT_INVOCATION_BUDGET);
+    }
+
+    StabilizationSimulator(final Timeline timeline, final Duration invocationBudget) {
+        this(timeline, invocationBudget, read -> Duration.ZERO, Hedger.disabled());
+    }
+
+    /**
+     * @param readLatency the real time taken by each status read, by its index from the first read of the run
+     * @param hedger      the hedger given to the handler
+     */
+    StabilizationSimulator(final Timeline timeline, final Duration invocationBudget,
+                           final IntFunction<Duration> readLatency, final Hedger hedger) {
+        this.timeline = timeline;
+        this.invocationBudget = invocationBudget;
+        this.readLatency = readLatency;
+        this.hedger = hedger;
+    }
+
+    /**
+     * Invokes the handler built by the given factory, with the async client provider of the simulation, the disabled
+     * rate limiter, a circuit breaker registry of its own and the hedger of the simulator, until it stops returning
+     * IN_PROGRESS.
+     */
+    Result run(final HandlerFactory handlerFactory, final ResourceHandlerRequest<ResourceModel> request) {
+        final BaseHandlerStd handler = handlerFactory.create(region -> asyncClient, ApiRateLimiter.disabled(),
+                new CircuitBreakerRegistry(), hedger);
+        CallbackContext callbackContext = new CallbackContext();
+        long billedMillis = 0L;
+        final List<Long> invocationNanos = new ArrayList<>();
+        for (int invocations = 1; invocations <= MAX_INVOCATIONS; invocations++) {
+            invocationStartedAtMillis = nowMillis;
+            final long startNanos = System.nanoTime();
+            ProgressEvent<ResourceModel, CallbackContext> event;
+            try {
+                event = handler.handleRequest(proxy, request, callbackContext, proxyClient, AbstractTestBase.logger);
+            } catch (final RuntimeException e) {
+                event = ProgressEvent.failed(request.getDesiredResourceState(), callbackContext, null,
+                        e.getClass().getSimpleName());
+            }
+            invocationNanos.add(System.nanoTime() - startNanos);
+            billedMillis += nowMillis - invocationStartedAtMillis + INVOCATION_OVERHEAD.toMillis();
+            if (event.getStatus() != OperationStatus.IN_PROGRESS) {
+                return new Result(event, polls.get(), invocations, elapsed(), billedMillis, timeline.settlesAfter(),
+                        invocationNanos);
+            }
+            callbackContext = event.getCallbackContext();
+            nowMillis += Duration.ofSeconds(event.getCallbackDelaySeconds()).toMillis();
+        }
+        throw new IllegalStateException(String.format("Still in progress after %d invocations", MAX_INVOCATIONS));
+    }
+
+    private Duration elapsed() {
+        return Duration.ofMillis(timelineStartedAtMillis == null ? 0L : nowMillis - timelineStartedAtMillis);
+    }
+
+    private Object answer(final InvocationOnMock invocation) throws Throwable {
+        switch (invocation.getMethod().getName()) {
+            case "createEnvironment":
+                startTimeline();
+                return CreateEnvironmentResponse.builder().environmentId(ENVIRONMENT_ID).build();
+            case "updateEnvironment":
+                startTimeline();
+                return UpdateEnvironmentResponse.builder().environmentId(ENVIRONMENT_ID).build();
+            case "deleteEnvironment":
+                startTimeline();
+                return DeleteEnvironmentResponse.builder().build();
+            case "getEnvironment": {
+                awaitReadLatency();
+                final EnvironmentLifecycle status = readStatus();
+                if (status == null) {
+                    throw ResourceNotFoundException.builder().resourceId(ENVIRONMENT_ID).message("Environment not found").build();
+                }
+                return GetEnvironmentResponse.builder()
+                        .environmentId(ENVIRONMENT_ID)
+                        .environmentArn(ENVIRONMENT_ARN)
+                        .name("env-name")
+                        .status(status)
+                        .build();
+            }
+            case "listEnvironments": {
+                final EnvironmentLifecycle status = readStatus();
+                return ListEnvironmentsResponse.builder()
+                        .environments(status == null ? Collections.emptyList() : Collections.singletonList(
+                                EnvironmentSummary.builder().environmentId(ENVIRONMENT_ID).status(status).build()))
+                        .build();
+            }
+            case "listTagsForResource":
+                return ListTagsForResourceResponse.builder().tags(Collections.emptyMap()).build();
+            case "tagResource":
+                return TagResourceResponse.builder().build();
+            case "untagResource":
+                return UntagResourceResponse.builder().build();
+            case "serviceName":
+                return "m2";
+            default:
+                return Mockito.RETURNS_DEFAULTS.answer(invocation);
+        }
+    }
+
+    private void startTimeline() {
+        if (timelineStartedAtMillis == null) {
+            timelineStartedAtMillis = nowMillis;
+        }
+    }
+
+    /**
+     * Spends the real latency of the next status read. An interrupted read is aborted, as the SDK does.
+     */
+    private void awaitReadLatency() {
+        final Duration latency = readLatency.apply(reads.getAndIncrement());
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AbortedException.builder().message("Read interrupted").build();
+        }
+    }
+
+    /**
+     * Returns the current status, or null once the environment is gone. Reads made after the mutating call are
+     * counted as polls.
+     */
+    private EnvironmentLifecycle readStatus() {
+        if (timelineStartedAtMillis == null) {
+            return EnvironmentLifecycle.AVAILABLE;
+        }
+        polls.incrementAndGet();
+        return timeline.statusAt(Duration.ofMillis(nowMillis - timelineStartedAtMillis));
+    }
+
+    /**
+     * Stands in for the framework's local wait: the clock is advanced instead of sleeping, under the same condition.
+     */
+    private final class VirtualWait implements WaitStrategy {
+        @Override
+        public <ModelT, CallbackT> ProgressEvent<ModelT, CallbackT> await(final long operationElapsedTime,
+                                                                         final Duration nextAttempt,
+                                                                         final CallbackT context,
+                                                                         final ModelT model) {
+            final long remainingMillis = invocationBudget.toMillis() - (nowMillis - invocationStartedAtMillis);
+            if (remainingMillis > nextAttempt.toMillis() + 2 * operationElapsedTime + 100L) {
+                nowMillis += nextAttempt.toMillis();
+                return null;
+            }
+            return ProgressEvent.defaultInProgressHandler(context, (int) nextAttempt.getSeconds(), model);
+        }
+    }
+
+    /**
+     * Builds the handler to simulate.
+     */
+    @FunctionalInterface
+    interface HandlerFactory {
+        BaseHandlerStd create(Function<String, M2AsyncClient> asyncClientProvider, ApiRateLimiter rateLimiter,
+                              CircuitBreakerRegistry breakers, Hedger hedger);
+    }
+
+    /**
+     * Scripted lifecycle of the environment from the mutating call: transition states held for given durations, then
+     * a final state, or no environment at all once deleted.
+     */
+    static final class Timeline {
+        private final List<EnvironmentLifecycle> states = new ArrayList<>();
+        private final List<Duration> durations = new ArrayList<>();
+        private EnvironmentLifecycle finalStatus;
+
+        private Timeline() {
+        }
+
+        static Timeline of(final EnvironmentLifecycle status, final Duration duration) {
+            return new Timeline().then(status, duration);
+        }
+
+        Timeline then(final EnvironmentLifecycle status, final Duration duration) {
+            states.add(status);
+            durations.add(duration);
+            return this;
+        }
+
+        Timeline then(final EnvironmentLifecycle status) {
+            finalStatus = status;
+            return this;
+        }
+
+        Timeline thenGone() {
+            finalStatus = null;
+            return this;
+        }
+
+        Duration settlesAfter() {
+            return durations.stream().reduce(Duration.ZERO, Duration::plus);
+        }
+
+        /**
+         * Returns the status at the given time from the start, or null once the environment is gone.
+         */
+        EnvironmentLifecycle statusAt(final Duration elapsed) {
+            Duration end = Duration.ZERO;
+            for (int i = 0; i < states.size(); i++) {
+                end = end.plus(durations.get(i));
+                if (elapsed.compareTo(end) < 0) {
+                    return states.get(i);
+                }
+            }
+            return finalStatus;
+        }
+    }
+
+    static final class Result {
+        final OperationStatus status;
+        final String message;
+        final int polls;
+        final int invocations;
+        final Duration elapsed;
+        final Duration detectionLag;
+        final double lambdaSeconds;
+        final long p99InvocationMillis;
+
+        private Result(final ProgressEvent<ResourceModel, CallbackContext> event, final int polls,
+                       final int invocations, final Duration elapsed, final long billedMillis,
+                       final Duration settlesAfter, final List<Long> invocationNanos) {
+            this.status = event.getStatus();
+            this.message = event.getMessage();
+            this.polls = polls;
+            this.invocations = invocations;
+            this.elapsed = elapsed;
+            this.detectionLag = elapsed.minus(settlesAfter);
+            this.lambdaSeconds = billedMillis / 1000.0;
+            this.p99InvocationMillis = TimeUnit.NANOSECONDS.toMillis(percentile99(invocationNanos));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s%s after %s: %d polls, %d invocations, detected %d s after settling, %.0f Lambda-seconds, "
+                            + "p99 invocation %d ms",
+                    status, message == null ? "" : " (" + message + ")", elapsed, polls, invocations,
+                    detectionLag.getSeconds(), lambdaSeconds, p99InvocationMillis);
+        }
+
+        private static long percentile99(final List<Long> values) {
+            final List<Long> sorted = new ArrayList<>(values);
+            Collections.sort(sorted);
+            return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+        }
+    }
+}
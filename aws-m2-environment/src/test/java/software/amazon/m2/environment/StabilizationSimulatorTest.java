@@ -0,0 +1,157 @@
+package software.amazon.m2.environment;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.m2.model.EnvironmentLifecycle;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.m2.common.Hedger;
+import software.amazon.m2.common.StabilizationMode;
+import software.amazon.m2.environment.StabilizationSimulator.Result;
+import software.amazon.m2.environment.StabilizationSimulator.Timeline;
+
+import java.time.Duration;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StabilizationSimulatorTest {
+
+    private static final Duration MAX_DETECTION_LAG = Duration.ofMinutes(2L);
+    private static final Duration MAX_POLL_DELAY = Duration.ofSeconds(60L);
+    private static final Duration SLOW_READ = Duration.ofMillis(250L);
+
+    @Test
+    public void create() {
+        final Timeline timeline = Timeline.of(EnvironmentLifecycle.CREATING, Duration.ofMinutes(47L))
+                .then(EnvironmentLifecycle.AVAILABLE);
+        final ResourceHandlerRequest<ResourceModel> request = request(ResourceModel.builder()
+                .name("env-name")
+                .instanceType("m2.m5.large")
+                .engineType("microfocus")
+                .build());
+
+        final Result poll = new StabilizationSimulator(timeline)
+                .run((provider, rateLimiter, breakers, hedger) -> new CreateHandler(provider, StabilizationMode.POLL, rateLimiter, hedger), request);
+        final Result callback = new StabilizationSimulator(timeline)
+                .run((provider, rateLimiter, breakers, hedger) -> new CreateHandler(provider, StabilizationMode.CALLBACK, rateLimiter, hedger), request);
+
+        assertSettled(poll);
+        assertSettled(callback);
+        assertPollsAndLambdaSeconds(timeline, poll, callback);
+    }
+
+    @Test
+    public void update() {
+        final Timeline timeline = Timeline.of(EnvironmentLifecycle.UPDATING, Duration.ofMinutes(20L))
+                .then(EnvironmentLifecycle.AVAILABLE);
+        final ResourceHandlerRequest<ResourceModel> request = updateRequest();
+
+        final Result poll = new StabilizationSimulator(timeline)
+                .run((provider, rateLimiter, breakers, hedger) -> new UpdateHandler(provider, StabilizationMode.POLL, rateLimiter, hedger), request);
+        final Result callback = new StabilizationSimulator(timeline)
+                .run((provider, rateLimiter, breakers, hedger) -> new UpdateHandler(provider, StabilizationMode.CALLBACK, rateLimiter, hedger), request);
+
+        assertSettled(poll);
+        assertSettled(callback);
+        assertPollsAndLambdaSeconds(timeline, poll, callback);
+    }
+
+    @Test
+    public void delete() {
+        final Timeline timeline = Timeline.of(EnvironmentLifecycle.DELETING, Duration.ofMinutes(8L)).thenGone();
+        final ResourceHandlerRequest<ResourceModel> request = request(ResourceModel.builder()
+                .environmentId(StabilizationSimulator.ENVIRONMENT_ID)
+                .build());
+
+        final Result poll = new StabilizationSimulator(timeline)
+                .run((provider, rateLimiter, breakers, hedger) -> new DeleteHandler(provider, StabilizationMode.POLL, rateLimiter, hedger), request);
+        final Result callback = new StabilizationSimulator(timeline)
+                .run((provider, rateLimiter, breakers, hedger) -> new DeleteHandler(provider, StabilizationMode.CALLBACK, rateLimiter, hedger), request);
+
+        assertSettled(poll);
+        assertSettled(callback);
+        assertPollsAndLambdaSeconds(timeline, poll, callback);
+    }
+
+    @Test
+    public void hedgingCutsTailLatency() {
+        final Timeline timeline = Timeline.of(EnvironmentLifecycle.UPDATING, Duration.ofHours(2L))
+                .then(EnvironmentLifecycle.AVAILABLE);
+        // One status read in 40 is slow
+        final IntFunction<Duration> readLatency = read -> read % 40 == 39 ? SLOW_READ : Duration.ZERO;
+
+        final Result unhedged = new StabilizationSimulator(timeline, StabilizationSimulator.DEFAULT_INVOCATION_BUDGET,
+                readLatency, Hedger.disabled())
+                .run((provider, rateLimiter, breakers, hedger) -> new UpdateHandler(provider, StabilizationMode.CALLBACK, rateLimiter, hedger), updateRequest());
+        final Result hedged = new StabilizationSimulator(timeline, StabilizationSimulator.DEFAULT_INVOCATION_BUDGET,
+                readLatency, Hedger.enabled())
+                .run((provider, rateLimiter, breakers, hedger) -> new UpdateHandler(provider, StabilizationMode.CALLBACK, rateLimiter, hedger), updateRequest());
+
+        assertSettled(unhedged);
+        assertSettled(hedged);
+        assertThat(unhedged.p99InvocationMillis).isGreaterThanOrEqualTo(SLOW_READ.toMillis());
+        assertThat(hedged.p99InvocationMillis).isLessThan(SLOW_READ.toMillis() / 2);
+    }
+
+    @Test
+    public void createTimesOut() {
+        final Timeline timeline = Timeline.of(EnvironmentLifecycle.CREATING, Duration.ofDays(4L))
+                .then(EnvironmentLifecycle.AVAILABLE);
+        final ResourceHandlerRequest<ResourceModel> request = request(ResourceModel.builder()
+                .name("env-name")
+                .instanceType("m2.m5.large")
+                .engineType("microfocus")
+                .build());
+
+        final Result callback = new StabilizationSimulator(timeline)
+                .run((provider, rateLimiter, breakers, hedger) -> new CreateHandler(provider, StabilizationMode.CALLBACK, rateLimiter, hedger), request);
+
+        assertThat(callback.status).isEqualTo(OperationStatus.FAILED);
+        assertThat(callback.elapsed).isBetween(Duration.ofHours(60L), Duration.ofHours(96L));
+        assertThat(callback.polls).isGreaterThanOrEqualTo(minPolls(callback.elapsed));
+        assertThat(callback.lambdaSeconds).isLessThan(callback.elapsed.getSeconds() / 10.0);
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> updateRequest() {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder()
+                        .environmentId(StabilizationSimulator.ENVIRONMENT_ID)
+                        .name("env-name")
+                        .instanceType("m2.c5.large")
+                        .engineType("microfocus")
+                        .build())
+                .previousResourceState(ResourceModel.builder()
+                        .environmentId(StabilizationSimulator.ENVIRONMENT_ID)
+                        .name("env-name")
+                        .instanceType("m2.m5.large")
+                        .engineType("microfocus")
+                        .build())
+                .build();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(final ResourceModel model) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+    }
+
+    private static void assertSettled(final Result result) {
+        assertThat(result.status).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(result.detectionLag).isBetween(Duration.ZERO, MAX_DETECTION_LAG);
+    }
+
+    /**
+     * Asserts that both modes polled at least as often as the longest delay allows, and that the callback mode bills
+     * a fraction of the Lambda time of the poll mode, which bills most of the wait itself.
+     */
+    private static void assertPollsAndLambdaSeconds(final Timeline timeline, final Result poll, final Result callback) {
+        assertThat(poll.polls).isGreaterThanOrEqualTo(minPolls(timeline.settlesAfter()));
+        assertThat(callback.polls).isGreaterThanOrEqualTo(minPolls(timeline.settlesAfter()));
+        assertThat(poll.lambdaSeconds).isGreaterThan(timeline.settlesAfter().getSeconds() / 2.0);
+        assertThat(callback.lambdaSeconds).isLessThan(poll.lambdaSeconds / 4.0);
+    }
+
+    private static int minPolls(final Duration wait) {
+        return (int) (wait.getSeconds() / MAX_POLL_DELAY.getSeconds());
+    }
+}
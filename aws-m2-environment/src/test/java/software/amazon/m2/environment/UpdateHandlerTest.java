@@ -1,7 +1,9 @@
 package software.amazon.m2.environment;
 
 import org.junit.jupiter.api.Assertions;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
 import software.amazon.awssdk.services.m2.M2Client;
 import software.amazon.awssdk.services.m2.model.EnvironmentLifecycle;
 import software.amazon.awssdk.services.m2.model.GetEnvironmentRequest;
@@ -11,17 +13,21 @@ import software.amazon.awssdk.services.m2.model.ListTagsForResourceResponse;
 import software.amazon.awssdk.services.m2.model.ResourceNotFoundException;
 import software.amazon.awssdk.services.m2.model.TagResourceRequest;
 import software.amazon.awssdk.services.m2.model.TagResourceResponse;
+import software.amazon.awssdk.services.m2.model.ThrottlingException;
 import software.amazon.awssdk.services.m2.model.UntagResourceRequest;
 import software.amazon.awssdk.services.m2.model.UntagResourceResponse;
 import software.amazon.awssdk.services.m2.model.UpdateEnvironmentRequest;
 import software.amazon.awssdk.services.m2.model.UpdateEnvironmentResponse;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.m2.common.ApiRateLimiter;
+import software.amazon.m2.common.StabilizationMode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -45,16 +51,19 @@ public class UpdateHandlerTest extends AbstractTestBase {
     @Mock
     M2Client m2Client;
 
+    private M2AsyncClient m2AsyncClient;
+
     @BeforeEach
     public void setup() {
         proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
         m2Client = Mockito.mock(M2Client.class);
+        m2AsyncClient = ASYNC_DELEGATE(m2Client);
         proxyClient = MOCK_PROXY(proxy, m2Client);
     }
 
     @Test
     public void handleRequest_success_updateTags() {
-        final UpdateHandler handler = new UpdateHandler();
+        final UpdateHandler handler = new UpdateHandler(region -> m2AsyncClient, ApiRateLimiter.disabled());
         final Map<String, String> oldTags = Map.of("tag1", "value1", "tag2", "value2");
         final Map<String, String> newTags = Map.of("tag1", "value1", "tag3", "value3");
 
@@ -116,7 +125,7 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
-                .previousResourceState(model)
+                .previousResourceState(previousModel(model))
                 .previousResourceTags(oldTags)
                 .desiredResourceTags(newTags)
                 .build();
@@ -141,7 +150,7 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
     @Test
     public void handleRequest_success_sameTags() {
-        final UpdateHandler handler = new UpdateHandler();
+        final UpdateHandler handler = new UpdateHandler(region -> m2AsyncClient, ApiRateLimiter.disabled());
         final Map<String, String> oldTags = Map.of("tag1", "value1", "tag2", "value2");
 
         // the resource we want
@@ -200,7 +209,7 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
-                .previousResourceState(model)
+                .previousResourceState(previousModel(model))
                 .previousResourceTags(oldTags)
                 .desiredResourceTags(oldTags)
                 .build();
@@ -225,7 +234,7 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
     @Test
     public void handleRequest_noTags() {
-        final UpdateHandler handler = new UpdateHandler();
+        final UpdateHandler handler = new UpdateHandler(region -> m2AsyncClient, ApiRateLimiter.disabled());
 
         // the resource we want does not have tags
         final ResourceModel model = ResourceModel.builder()
@@ -281,7 +290,7 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
-                .previousResourceState(model)
+                .previousResourceState(previousModel(model))
                 .build();
 
         final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(
@@ -304,7 +313,7 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
     @Test
     public void handleRequest_updateFails() {
-        final UpdateHandler handler = new UpdateHandler();
+        final UpdateHandler handler = new UpdateHandler(region -> m2AsyncClient, ApiRateLimiter.disabled());
         final ResourceModel model = ResourceModel.builder()
                 .environmentId("env-id")
                 .environmentArn("arn:aws:m2:us-west-2:123456:env/env-id")
@@ -352,7 +361,7 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
                 .desiredResourceState(model)
-                .previousResourceState(model)
+                .previousResourceState(previousModel(model))
                 .build();
 
         Assertions.assertThrows(software.amazon.cloudformation.exceptions.CfnGeneralServiceException.class, () ->
@@ -363,7 +372,7 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
     @Test
     public void handleRequest_notFound() {
-        final UpdateHandler handler = new UpdateHandler();
+        final UpdateHandler handler = new UpdateHandler(region -> m2AsyncClient, ApiRateLimiter.disabled());
         final ResourceModel model = ResourceModel.builder()
                 .environmentArn("arn:aws:m2:us-west-2:123456:env/env-to-update")
                 .build();
@@ -381,7 +390,7 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
     @Test
     public void handleRequest_invalidArn() {
-        final UpdateHandler handler = new UpdateHandler();
+        final UpdateHandler handler = new UpdateHandler(region -> m2AsyncClient, ApiRateLimiter.disabled());
         final ResourceModel model = ResourceModel.builder().environmentArn("env-to-update").build();
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
@@ -395,4 +404,247 @@ public class UpdateHandlerTest extends AbstractTestBase {
                 .updateEnvironment(Mockito.any(UpdateEnvironmentRequest.class));
     }
 
+    @Test
+    public void handleRequest_callbackStabilization_pollsOncePerInvocation() {
+        final UpdateHandler handler = new UpdateHandler(region -> m2AsyncClient, StabilizationMode.CALLBACK, ApiRateLimiter.disabled());
+        final Map<String, String> tags = Map.of("tag1", "value1");
+        final ResourceModel model = ResourceModel.builder()
+                .environmentId("env-id")
+                .environmentArn("arn:aws:m2:us-west-2:123456:env/env-id")
+                .instanceType("M2.m5.large")
+                .engineType("microfocus")
+                .tags(tags)
+                .build();
+
+        Mockito.when(proxyClient.client().updateEnvironment(Mockito.any(UpdateEnvironmentRequest.class)))
+                .thenReturn(UpdateEnvironmentResponse.builder().environmentId(model.getEnvironmentId()).build());
+        final GetEnvironmentResponse.Builder getEnvironmentResponse = GetEnvironmentResponse.builder()
+                .environmentId("env-id")
+                .environmentArn(model.getEnvironmentArn())
+                .engineType(model.getEngineType())
+                .instanceType(model.getInstanceType());
+        Mockito.when(proxyClient.client().getEnvironment(Mockito.any(GetEnvironmentRequest.class)))
+                .thenReturn(getEnvironmentResponse.status(EnvironmentLifecycle.AVAILABLE).build()) // poll
+                .thenReturn(getEnvironmentResponse.status(EnvironmentLifecycle.AVAILABLE).build()); // final read call
+        Mockito.when(proxyClient.client().listTagsForResource(Mockito.any(ListTagsForResourceRequest.class)))
+                .thenReturn(ListTagsForResourceResponse.builder().tags(tags).build());
+
+        ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(previousModel(model))
+                .previousResourceTags(tags)
+                .desiredResourceTags(tags)
+                .build();
+
+        ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(
+                proxy, request, new CallbackContext(), proxyClient, logger);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isPositive();
+        Mockito.verify(m2Client, Mockito.never()).getEnvironment(Mockito.any(GetEnvironmentRequest.class));
+
+        request = request.toBuilder().desiredResourceState(response.getResourceModel()).build();
+        response = handler.handleRequest(proxy, request, response.getCallbackContext(), proxyClient, logger);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+
+        Mockito.verify(m2Client, Mockito.times(1)).updateEnvironment(Mockito.any(UpdateEnvironmentRequest.class));
+        Mockito.verify(m2Client, Mockito.times(2)).getEnvironment(Mockito.any(GetEnvironmentRequest.class));
+        Mockito.verify(m2Client, Mockito.never()).tagResource(Mockito.any(TagResourceRequest.class));
+    }
+
+    @Test
+    public void handleRequest_sendsOnlyChangedProperties() {
+        final UpdateHandler handler = new UpdateHandler(region -> m2AsyncClient, ApiRateLimiter.disabled());
+        final ResourceModel previousModel = ResourceModel.builder()
+                .environmentId("env-id")
+                .environmentArn("arn:aws:m2:us-west-2:123456:env/env-id")
+                .instanceType("m2.m5.large")
+                .engineType("microfocus")
+                .engineVersion("old-version")
+                .preferredMaintenanceWindow("sat:07:00-sat:09:00")
+                .highAvailabilityConfig(HighAvailabilityConfig.builder().desiredCapacity(1).build())
+                .build();
+        final ResourceModel model = ResourceModel.builder()
+                .environmentId("env-id")
+                .environmentArn("arn:aws:m2:us-west-2:123456:env/env-id")
+                .instanceType("m2.m5.large")
+                .engineType("microfocus")
+                .engineVersion("new-version")
+                .preferredMaintenanceWindow("sat:07:00-sat:09:00")
+                .highAvailabilityConfig(HighAvailabilityConfig.builder().desiredCapacity(1).build())
+                .build();
+
+        Mockito.when(proxyClient.client().updateEnvironment(Mockito.any(UpdateEnvironmentRequest.class)))
+                .thenReturn(UpdateEnvironmentResponse.builder().environmentId(model.getEnvironmentId()).build());
+        Mockito.when(proxyClient.client().getEnvironment(Mockito.any(GetEnvironmentRequest.class)))
+                .thenReturn(GetEnvironmentResponse.builder()
+                        .environmentId("env-id")
+                        .environmentArn(model.getEnvironmentArn())
+                        .engineType(model.getEngineType())
+                        .engineVersion(model.getEngineVersion())
+                        .instanceType(model.getInstanceType())
+                        .status(EnvironmentLifecycle.AVAILABLE)
+                        .build());
+        Mockito.when(proxyClient.client().listTagsForResource(Mockito.any(ListTagsForResourceRequest.class)))
+                .thenReturn(ListTagsForResourceResponse.builder().build());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(
+                proxy, request, new CallbackContext(), proxyClient, logger);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+
+        final ArgumentCaptor<UpdateEnvironmentRequest> captor = ArgumentCaptor.forClass(UpdateEnvironmentRequest.class);
+        Mockito.verify(m2Client, Mockito.times(1)).updateEnvironment(captor.capture());
+        assertThat(captor.getValue().environmentId()).isEqualTo("env-id");
+        assertThat(captor.getValue().engineVersion()).isEqualTo("new-version");
+        assertThat(captor.getValue().instanceType()).isNull();
+        assertThat(captor.getValue().desiredCapacity()).isNull();
+        assertThat(captor.getValue().preferredMaintenanceWindow()).isNull();
+        Mockito.verify(m2Client, Mockito.times(2)).getEnvironment(Mockito.any(GetEnvironmentRequest.class));
+    }
+
+    @Test
+    public void handleRequest_tagsOnly_skipsEnvironmentUpdate() {
+        final UpdateHandler handler = new UpdateHandler(region -> m2AsyncClient, ApiRateLimiter.disabled());
+        final Map<String, String> oldTags = Map.of("tag1", "value1", "tag2", "value2");
+        final Map<String, String> newTags = Map.of("tag1", "value1", "tag3", "value3");
+        final ResourceModel model = ResourceModel.builder()
+                .environmentId("env-id")
+                .environmentArn("arn:aws:m2:us-west-2:123456:env/env-id")
+                .instanceType("m2.m5.large")
+                .engineType("microfocus")
+                .engineVersion("version")
+                .tags(newTags)
+                .build();
+
+        Mockito.when(proxyClient.client().getEnvironment(Mockito.any(GetEnvironmentRequest.class)))
+                .thenReturn(GetEnvironmentResponse.builder()
+                        .environmentId("env-id")
+                        .environmentArn(model.getEnvironmentArn())
+                        .engineType(model.getEngineType())
+                        .engineVersion(model.getEngineVersion())
+                        .instanceType(model.getInstanceType())
+                        .status(EnvironmentLifecycle.AVAILABLE)
+                        .build()); // final read call
+        Mockito.when(proxyClient.client().listTagsForResource(Mockito.any(ListTagsForResourceRequest.class)))
+                .thenReturn(ListTagsForResourceResponse.builder().tags(newTags).build());
+        Mockito.when(proxyClient.client().tagResource(Mockito.any(TagResourceRequest.class)))
+                .thenReturn(TagResourceResponse.builder().build());
+        Mockito.when(proxyClient.client().untagResource(Mockito.any(UntagResourceRequest.class)))
+                .thenReturn(UntagResourceResponse.builder().build());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(model)
+                .previousResourceTags(oldTags)
+                .desiredResourceTags(newTags)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(
+                proxy, request, new CallbackContext(), proxyClient, logger);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+
+        Mockito.verify(m2Client, Mockito.never()).updateEnvironment(Mockito.any(UpdateEnvironmentRequest.class));
+        Mockito.verify(m2Client, Mockito.times(1)).getEnvironment(Mockito.any(GetEnvironmentRequest.class));
+        Mockito.verify(m2Client, Mockito.times(1)).tagResource(Mockito.any(TagResourceRequest.class));
+        Mockito.verify(m2Client, Mockito.times(1)).untagResource(Mockito.any(UntagResourceRequest.class));
+        Mockito.verify(m2Client, Mockito.times(1)).listTagsForResource(Mockito.any(ListTagsForResourceRequest.class));
+    }
+
+    @Test
+    public void handleRequest_untagFails_stillTagsAndThrows() {
+        final UpdateHandler handler = new UpdateHandler(region -> m2AsyncClient, ApiRateLimiter.disabled());
+        final Map<String, String> oldTags = Map.of("tag1", "value1", "tag2", "value2");
+        final Map<String, String> newTags = Map.of("tag1", "value1", "tag3", "value3");
+        final ResourceModel model = ResourceModel.builder()
+                .environmentId("env-id")
+                .environmentArn("arn:aws:m2:us-west-2:123456:env/env-id")
+                .instanceType("m2.m5.large")
+                .engineType("microfocus")
+                .engineVersion("version")
+                .tags(newTags)
+                .build();
+
+        Mockito.when(proxyClient.client().tagResource(Mockito.any(TagResourceRequest.class)))
+                .thenReturn(TagResourceResponse.builder().build());
+        Mockito.when(proxyClient.client().untagResource(Mockito.any(UntagResourceRequest.class)))
+                .thenThrow(ThrottlingException.builder().build());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(model)
+                .previousResourceTags(oldTags)
+                .desiredResourceTags(newTags)
+                .build();
+
+        Assertions.assertThrows(CfnThrottlingException.class, () -> handler.handleRequest(
+                proxy, request, new CallbackContext(), proxyClient, logger));
+
+        // the tag calls are made together, so the failed untag call does not keep the new tags from being added
+        Mockito.verify(m2Client, Mockito.times(1)).tagResource(Mockito.any(TagResourceRequest.class));
+        Mockito.verify(m2Client, Mockito.times(1)).untagResource(Mockito.any(UntagResourceRequest.class));
+        Mockito.verify(m2Client, Mockito.never()).getEnvironment(Mockito.any(GetEnvironmentRequest.class));
+    }
+
+    @Test
+    public void handleRequest_callbackStabilization_noChanges_completesInOneInvocation() {
+        final UpdateHandler handler = new UpdateHandler(region -> m2AsyncClient, StabilizationMode.CALLBACK, ApiRateLimiter.disabled());
+        final ResourceModel model = ResourceModel.builder()
+                .environmentId("env-id")
+                .environmentArn("arn:aws:m2:us-west-2:123456:env/env-id")
+                .instanceType("m2.m5.large")
+                .engineType("microfocus")
+                .description("new description")
+                .build();
+        final ResourceModel previousModel = ResourceModel.builder()
+                .environmentId("env-id")
+                .environmentArn("arn:aws:m2:us-west-2:123456:env/env-id")
+                .instanceType("m2.m5.large")
+                .engineType("microfocus")
+                .description("old description")
+                .build();
+
+        Mockito.when(proxyClient.client().getEnvironment(Mockito.any(GetEnvironmentRequest.class)))
+                .thenReturn(GetEnvironmentResponse.builder()
+                        .environmentId("env-id")
+                        .environmentArn(model.getEnvironmentArn())
+                        .engineType(model.getEngineType())
+                        .instanceType(model.getInstanceType())
+                        .status(EnvironmentLifecycle.AVAILABLE)
+                        .build()); // final read call
+        Mockito.when(proxyClient.client().listTagsForResource(Mockito.any(ListTagsForResourceRequest.class)))
+                .thenReturn(ListTagsForResourceResponse.builder().build());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(
+                proxy, request, new CallbackContext(), proxyClient, logger);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+
+        Mockito.verify(m2Client, Mockito.never()).updateEnvironment(Mockito.any(UpdateEnvironmentRequest.class));
+        Mockito.verify(m2Client, Mockito.times(1)).getEnvironment(Mockito.any(GetEnvironmentRequest.class));
+    }
+
+    /**
+     * Returns the state of the given environment before the update: same identifiers, engine type and tags, with
+     * every property UpdateEnvironment handles set to another value.
+     */
+    private static ResourceModel previousModel(final ResourceModel model) {
+        return ResourceModel.builder()
+                .environmentId(model.getEnvironmentId())
+                .environmentArn(model.getEnvironmentArn())
+                .engineType(model.getEngineType())
+                .instanceType("m2.c5.large")
+                .engineVersion("old-version")
+                .preferredMaintenanceWindow("sun:07:00-sun:09:00")
+                .highAvailabilityConfig(HighAvailabilityConfig.builder().desiredCapacity(2).build())
+                .tags(model.getTags())
+                .build();
+    }
 }
@@ -0,0 +1,68 @@
+package software.amazon.m2.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.services.m2.M2Client;
+import software.amazon.awssdk.services.m2.model.GetEnvironmentResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a GetEnvironment call against a {@link LocalM2Stub} through a client taken from a {@link ClientPool} with
+ * the same call through a client built for it and closed after it, as every call used to do. Both clients share the
+ * container's HTTP client, as before, so the difference is the client build: endpoint resolution, interceptor chain
+ * and signer setup. Run with {@code -prof gc} to report the bytes allocated per call next to its latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ClientCacheBenchmark {
+
+    private LocalM2Stub stub;
+    private ClientPool<M2Client> pool;
+    private ClientPool.Key key;
+
+    @Setup
+    public void setUp() throws IOException {
+        stub = LocalM2Stub.start();
+        pool = new ClientPool<>(ClientBuilder.POOL_SIZE, k -> buildClient(), stats -> { });
+        key = new ClientPool.Key(LocalM2Stub.REGION, stub.getEndpoint());
+    }
+
+    @TearDown
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Benchmark
+    public GetEnvironmentResponse pooledClient() {
+        return pool.get(key).getEnvironment(LocalM2Stub.getEnvironmentRequest());
+    }
+
+    @Benchmark
+    public GetEnvironmentResponse clientPerCall() {
+        try (M2Client client = buildClient()) {
+            return client.getEnvironment(LocalM2Stub.getEnvironmentRequest());
+        }
+    }
+
+    private M2Client buildClient() {
+        return stub.clientBuilder()
+            .overrideConfiguration(ClientOverrideConfiguration.builder().retryPolicy(RetryPolicies.adaptive()).build())
+            .build();
+    }
+}
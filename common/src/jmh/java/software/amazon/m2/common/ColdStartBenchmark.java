@@ -0,0 +1,85 @@
+package software.amazon.m2.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.m2.model.EnvironmentLifecycle;
+import software.amazon.awssdk.services.m2.model.GetEnvironmentRequest;
+import software.amazon.awssdk.services.m2.model.GetEnvironmentResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to the first response in a new JVM, with and without {@link Priming} at container init. The
+ * first request reads an environment from a {@link LocalM2Stub} the way a handler does: through the pooled client of
+ * {@link ClientBuilder} and {@link ExceptionHandlerWrapper#wrapM2Exception}, with the container-wide rate limiter and
+ * circuit breakers. Every fork is a new JVM and measures a single request, so run many forks. In both cases the stub,
+ * and the static credentials of its requests, are set up before the measurement.
+ * <p>
+ * The pooled clients read their endpoint and region from the environment, which forks inherit. Run with
+ * {@code M2_ENDPOINT_OVERRIDE=http://127.0.0.1:<port>} and {@code AWS_REGION} set; the stub listens on that port. The
+ * primer loads the SDK model classes of the request, as the resource modules' primers do for theirs; the resource
+ * models and translators they also round trip are not part of this module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class ColdStartBenchmark {
+
+    @Param({"false", "true"})
+    private boolean primed;
+
+    private LocalM2Stub stub;
+    private String region;
+
+    @Setup
+    public void setUp() throws IOException {
+        final String endpoint = System.getenv(ClientBuilder.ENDPOINT_OVERRIDE_ENV_VARIABLE);
+        region = System.getenv(Priming.REGION_ENV_VARIABLE);
+        if (endpoint == null || region == null) {
+            throw new IllegalStateException(String.format("Set %s to http://%s:<port> and %s to run this benchmark",
+                ClientBuilder.ENDPOINT_OVERRIDE_ENV_VARIABLE, LocalM2Stub.HOST, Priming.REGION_ENV_VARIABLE));
+        }
+        stub = LocalM2Stub.start(URI.create(endpoint).getPort());
+        if (primed && !Priming.prime("AWS::M2::Benchmark", ColdStartBenchmark::primeRequestClasses)) {
+            throw new IllegalStateException("Priming failed");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Benchmark
+    public GetEnvironmentResponse firstRequest() {
+        return ExceptionHandlerWrapper.wrapM2Exception(ApiRateLimiter.getInstance(),
+            CircuitBreakerRegistry.getInstance(), new RequestScope("123456789012", region), "GetEnvironment",
+            () -> ClientBuilder.getClient(region).getEnvironment(LocalM2Stub.getEnvironmentRequest()));
+    }
+
+    private static void primeRequestClasses() {
+        final GetEnvironmentRequest request = GetEnvironmentRequest.builder()
+            .environmentId("priming")
+            .build();
+        final GetEnvironmentResponse response = GetEnvironmentResponse.builder()
+            .environmentId(request.environmentId())
+            .status(EnvironmentLifecycle.AVAILABLE)
+            .build();
+        response.toBuilder().build().toString();
+    }
+}
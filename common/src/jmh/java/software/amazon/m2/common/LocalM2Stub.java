@@ -0,0 +1,206 @@
+package software.amazon.m2.common;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
+import software.amazon.awssdk.services.m2.M2AsyncClientBuilder;
+import software.amazon.awssdk.services.m2.M2Client;
+import software.amazon.awssdk.services.m2.M2ClientBuilder;
+import software.amazon.awssdk.services.m2.model.GetEnvironmentRequest;
+import software.amazon.awssdk.services.m2.model.ListTagsForResourceRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local stand-in for the M2 endpoint, so that benchmarks make real SDK calls, marshalling, signing and HTTP
+ * included, without reaching AWS.
+ * <p>
+ * It answers GetEnvironment with an available environment and ListTagsForResource with a few tags, after an
+ * optional latency, and counts the requests it receives. It can also be given a capacity, beyond which requests are
+ * throttled the way M2 throttles them. Requests carry static credentials, the way the CloudFormation proxy injects
+ * them into each request.
+ */
+final class LocalM2Stub implements AutoCloseable {
+
+    static final String HOST = "127.0.0.1";
+    static final String REGION = "us-west-2";
+    static final String ENVIRONMENT_ID = "env-benchmark";
+    static final String ENVIRONMENT_ARN = "arn:aws:m2:" + REGION + ":123456789012:env/" + ENVIRONMENT_ID;
+
+    private static final AwsRequestOverrideConfiguration CREDENTIALS = AwsRequestOverrideConfiguration.builder()
+        .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("AKIDBENCHMARK", "secret")))
+        .build();
+
+    private static final String ENVIRONMENT_JSON = "{"
+        + "\"environmentId\":\"" + ENVIRONMENT_ID + "\","
+        + "\"environmentArn\":\"" + ENVIRONMENT_ARN + "\","
+        + "\"name\":\"benchmark\",\"engineType\":\"microfocus\",\"engineVersion\":\"8.0.0\","
+        + "\"instanceType\":\"M2.m5.large\",\"status\":\"Available\",\"creationTime\":1700000000.0}";
+    private static final String TAGS_JSON = "{\"tags\":{\"team\":\"mainframe\",\"stage\":\"benchmark\"}}";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong requestCount = new AtomicLong();
+    private volatile long latencyMillis;
+    private volatile int requestsPerSecond;
+    private long windowStartNanos;
+    private int windowCount;
+
+    private LocalM2Stub(final int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(HOST, port), 0);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Starts a stub listening on a free local port.
+     */
+    static LocalM2Stub start() throws IOException {
+        return start(0);
+    }
+
+    /**
+     * Starts a stub listening on the given local port, for clients whose endpoint is set before the stub starts.
+     */
+    static LocalM2Stub start(final int port) throws IOException {
+        final LocalM2Stub stub = new LocalM2Stub(port);
+        stub.server.start();
+        return stub;
+    }
+
+    String getEndpoint() {
+        return "http://" + HOST + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Makes every later response wait for the given latency, as a round trip to the service would.
+     */
+    void setLatencyMillis(final long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Throttles the requests beyond the given number per second with a ThrottlingException, or none if it is 0.
+     */
+    void setRequestsPerSecond(final int requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    /**
+     * Returns the number of requests received so far.
+     */
+    long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Returns a client builder configured like those of {@link ClientBuilder}, but for this stub.
+     */
+    M2ClientBuilder clientBuilder() {
+        return M2Client.builder()
+            .httpClient(ClientBuilder.getHttpClient())
+            .region(Region.of(REGION))
+            .endpointOverride(URI.create(getEndpoint()));
+    }
+
+    /**
+     * Returns an asynchronous client builder for this stub, with the SDK's default asynchronous HTTP client.
+     */
+    M2AsyncClientBuilder asyncClientBuilder() {
+        return M2AsyncClient.builder()
+            .region(Region.of(REGION))
+            .endpointOverride(URI.create(getEndpoint()));
+    }
+
+    static GetEnvironmentRequest getEnvironmentRequest() {
+        return GetEnvironmentRequest.builder()
+            .environmentId(ENVIRONMENT_ID)
+            .overrideConfiguration(CREDENTIALS)
+            .build();
+    }
+
+    static ListTagsForResourceRequest listTagsRequest() {
+        return ListTagsForResourceRequest.builder()
+            .resourceArn(ENVIRONMENT_ARN)
+            .overrideConfiguration(CREDENTIALS)
+            .build();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+        }
+        pause();
+        final String path = exchange.getRequestURI().getRawPath();
+        if (!admit()) {
+            respond(exchange, 429, "{\"message\":\"Rate exceeded\"}", "ThrottlingException");
+        } else if (path.startsWith("/environments/")) {
+            respond(exchange, 200, ENVIRONMENT_JSON, null);
+        } else if (path.startsWith("/tags/")) {
+            respond(exchange, 200, TAGS_JSON, null);
+        } else {
+            respond(exchange, 404, "{\"message\":\"Not found\"}", "ResourceNotFoundException");
+        }
+    }
+
+    /**
+     * Returns whether the request fits in the capacity of the current one second window.
+     */
+    private synchronized boolean admit() {
+        final int capacity = requestsPerSecond;
+        if (capacity <= 0) {
+            return true;
+        }
+        final long now = System.nanoTime();
+        if (now - windowStartNanos >= TimeUnit.SECONDS.toNanos(1)) {
+            windowStartNanos = now;
+            windowCount = 0;
+        }
+        return ++windowCount <= capacity;
+    }
+
+    private void pause() {
+        final long millis = latencyMillis;
+        if (millis > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(millis);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String json,
+                                final String errorType) throws IOException {
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (errorType != null) {
+            exchange.getResponseHeaders().set("x-amzn-ErrorType", errorType);
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
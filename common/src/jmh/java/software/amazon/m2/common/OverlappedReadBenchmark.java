@@ -0,0 +1,85 @@
+package software.amazon.m2.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
+import software.amazon.awssdk.services.m2.M2Client;
+import software.amazon.awssdk.services.m2.model.ListTagsForResourceResponse;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the latency of a read made of GetEnvironment and ListTagsForResource against a {@link LocalM2Stub} that
+ * takes {@code latencyMillis} to answer each call. The calls are either made one after the other, as before, or
+ * overlapped the way the ReadHandlers do when the ARN is known: ListTagsForResource is started asynchronously, then
+ * GetEnvironment is made and the tags are joined. An overlapped read should take close to one round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OverlappedReadBenchmark {
+
+    @Param({"20", "100"})
+    private long latencyMillis;
+
+    private final ApiRateLimiter rateLimiter = ApiRateLimiter.disabled();
+    private final CircuitBreakerRegistry breakers = new CircuitBreakerRegistry();
+    private final RequestScope scope = new RequestScope("123456789012", LocalM2Stub.REGION);
+
+    private LocalM2Stub stub;
+    private M2Client client;
+    private M2AsyncClient asyncClient;
+
+    @Setup
+    public void setUp() throws IOException {
+        stub = LocalM2Stub.start();
+        stub.setLatencyMillis(latencyMillis);
+        client = stub.clientBuilder().build();
+        asyncClient = stub.asyncClientBuilder().build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        asyncClient.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public void sequential(final Blackhole blackhole) {
+        blackhole.consume(ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, "GetEnvironment",
+            () -> client.getEnvironment(LocalM2Stub.getEnvironmentRequest())));
+        blackhole.consume(ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, "ListTags",
+            () -> client.listTagsForResource(LocalM2Stub.listTagsRequest())));
+    }
+
+    @Benchmark
+    public void overlapped(final Blackhole blackhole) {
+        final CompletableFuture<ListTagsForResourceResponse> listTagsFuture =
+            ExceptionHandlerWrapper.wrapM2ExceptionAsync(rateLimiter, breakers, scope, "ListTags",
+                () -> asyncClient.listTagsForResource(LocalM2Stub.listTagsRequest()));
+        try {
+            blackhole.consume(ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, "GetEnvironment",
+                () -> client.getEnvironment(LocalM2Stub.getEnvironmentRequest())));
+            blackhole.consume(ExceptionHandlerWrapper.join(listTagsFuture));
+        } finally {
+            listTagsFuture.cancel(true);
+        }
+    }
+}
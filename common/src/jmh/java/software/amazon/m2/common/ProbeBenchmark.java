@@ -0,0 +1,56 @@
+package software.amazon.m2.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.m2.model.GetEnvironmentResponse;
+import software.amazon.awssdk.services.m2.model.ResourceNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the cost of a poll of a deleted resource, as made while waiting for a deletion, through
+ * {@link ExceptionHandlerWrapper#probeM2Resource} and through {@link ExceptionHandlerWrapper#wrapM2Exception} with a
+ * caught {@link CfnNotFoundException}. Both include the SDK exception of the response, built with its stack trace as
+ * the SDK does. Run with {@code -prof gc} to report the bytes allocated per poll next to its CPU time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ProbeBenchmark {
+
+    private static final String OPERATION = "GetEnvironment";
+    private static final Supplier<GetEnvironmentResponse> GONE = () -> {
+        throw ResourceNotFoundException.builder().message("Environment not found").build();
+    };
+
+    private final ApiRateLimiter rateLimiter = ApiRateLimiter.disabled();
+    private final CircuitBreakerRegistry breakers = new CircuitBreakerRegistry();
+    private final RequestScope scope = new RequestScope("123456789012", "us-west-2");
+
+    @Benchmark
+    public boolean probe() {
+        return ExceptionHandlerWrapper.probeM2Resource(rateLimiter, breakers, scope, OPERATION, GONE).isPresent();
+    }
+
+    @Benchmark
+    public boolean catchNotFound() {
+        try {
+            ExceptionHandlerWrapper.wrapM2Exception(rateLimiter, breakers, scope, OPERATION, GONE);
+            return true;
+        } catch (final CfnNotFoundException e) {
+            return false;
+        }
+    }
+}
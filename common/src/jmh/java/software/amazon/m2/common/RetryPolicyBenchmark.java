@@ -0,0 +1,136 @@
+package software.amazon.m2.common;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+import software.amazon.awssdk.services.m2.M2Client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the retry policies of the M2 clients under throttling, as in a large stack rollout: {@value #RESOURCES}
+ * resources poll their environment {@value #POLLS_PER_RESOURCE} times each, at once, against a {@link LocalM2Stub}
+ * that throttles the requests beyond {@code requestsPerSecond}. The adaptive policy of {@link RetryPolicies} is
+ * compared with the former flat policy of 6 retries under the default retry condition.
+ * <p>
+ * Each rollout reports its completion time, and as extra counters the requests the stub received, the polls that
+ * succeeded and those that still failed once their retries were used up. Fewer requests for the same polls is load
+ * taken off a throttling service. The clients are kept for the whole run, so the adaptive client's request rate
+ * carries over from one rollout to the next, as it does in a container.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RetryPolicyBenchmark {
+
+    static final int RESOURCES = 24;
+    static final int POLLS_PER_RESOURCE = 5;
+
+    private static final RetryPolicy FLAT_RETRY_POLICY = RetryPolicy.builder()
+        .numRetries(6)
+        .retryCondition(RetryCondition.defaultRetryCondition())
+        .build();
+
+    @Param({"adaptive", "flat"})
+    private String retryPolicy;
+
+    @Param({"40"})
+    private int requestsPerSecond;
+
+    private LocalM2Stub stub;
+    private M2Client client;
+    private ExecutorService executor;
+
+    /**
+     * Extra results of a rollout, summed over the iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long requests;
+        public long succeeded;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            requests = 0;
+            succeeded = 0;
+            failed = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        stub = LocalM2Stub.start();
+        stub.setRequestsPerSecond(requestsPerSecond);
+        final RetryPolicy policy = "adaptive".equals(retryPolicy) ? RetryPolicies.adaptive() : FLAT_RETRY_POLICY;
+        client = stub.clientBuilder()
+            .overrideConfiguration(ClientOverrideConfiguration.builder().retryPolicy(policy).build())
+            .build();
+        executor = Executors.newFixedThreadPool(RESOURCES);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        client.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public void rollout(final Counters counters) throws InterruptedException, ExecutionException {
+        final long requestsBefore = stub.getRequestCount();
+        final List<Callable<Integer>> resources = new ArrayList<>();
+        for (int i = 0; i < RESOURCES; i++) {
+            resources.add(this::pollEnvironment);
+        }
+        for (final Future<Integer> polls : executor.invokeAll(resources)) {
+            final int succeeded = polls.get();
+            counters.succeeded += succeeded;
+            counters.failed += POLLS_PER_RESOURCE - succeeded;
+        }
+        counters.requests += stub.getRequestCount() - requestsBefore;
+    }
+
+    /**
+     * Polls the environment, and returns the number of polls that succeeded.
+     */
+    private int pollEnvironment() {
+        int succeeded = 0;
+        for (int i = 0; i < POLLS_PER_RESOURCE; i++) {
+            try {
+                client.getEnvironment(LocalM2Stub.getEnvironmentRequest());
+                succeeded++;
+            } catch (final SdkException e) {
+                // Retries used up, the next poll is made anyway
+            }
+        }
+        return succeeded;
+    }
+}
@@ -0,0 +1,286 @@
+package software.amazon.m2.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.lang3.Validate;
+import software.amazon.m2.common.RetryPolicies.OperationClass;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Container-wide rate limiter for M2 API calls.
+ * <p>
+ * Calls are limited per account, region and operation with a token bucket. A bucket starts full, so a short burst
+ * of calls goes out at once; after that, calls are spaced out at the bucket's rate instead of reaching the service
+ * together and being throttled. Every call made through {@link ExceptionHandlerWrapper} acquires a permit from the
+ * limiter it is given: the container-wide {@link #getInstance() instance} in the handlers, or the
+ * {@link #disabled() disabled} limiter, which never waits, in tests and simulations.
+ * <p>
+ * Each call names the {@link RequestScope} it is made in. A call never waits longer than {@link #MAX_WAIT_MILLIS};
+ * beyond that it goes out without a permit and is counted as an overflow, leaving the SDK retry policy to deal with
+ * any throttling.
+ */
+public final class ApiRateLimiter {
+
+    static final long MAX_WAIT_MILLIS = 5_000L;
+
+    private static final Map<OperationClass, Limit> DEFAULT_LIMITS = ImmutableMap.of(
+        OperationClass.MUTATING, new Limit(2.0, 5),
+        OperationClass.READ, new Limit(10.0, 20));
+
+    private static final ApiRateLimiter INSTANCE =
+        new ApiRateLimiter(DEFAULT_LIMITS, System::nanoTime, ApiRateLimiter::sleep, true);
+
+    private static final ApiRateLimiter DISABLED =
+        new ApiRateLimiter(DEFAULT_LIMITS, System::nanoTime, ApiRateLimiter::sleep, false);
+
+    private final Map<OperationClass, Limit> limits;
+    private final LongSupplier nanoClock;
+    private final LongConsumer sleeper;
+    private final boolean enabled;
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @VisibleForTesting
+    ApiRateLimiter(final Map<OperationClass, Limit> limits, final LongSupplier nanoClock, final LongConsumer sleeper) {
+        this(limits, nanoClock, sleeper, true);
+    }
+
+    private ApiRateLimiter(final Map<OperationClass, Limit> limits, final LongSupplier nanoClock,
+                           final LongConsumer sleeper, final boolean enabled) {
+        this.limits = limits;
+        this.nanoClock = nanoClock;
+        this.sleeper = sleeper;
+        this.enabled = enabled;
+    }
+
+    public static ApiRateLimiter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a limiter that lets every call go out at once, without waiting or keeping statistics.
+     */
+    public static ApiRateLimiter disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Waits until a call to the given operation may go out in the given scope.
+     *
+     * @return the time waited, in milliseconds
+     */
+    public long acquire(final RequestScope scope, final String operation) {
+        Validate.notNull(scope);
+        Validate.notBlank(operation);
+        if (!enabled) {
+            return 0L;
+        }
+
+        final Bucket bucket = bucket(scope, operation);
+        final long waitNanos = bucket.reserve(nanoClock.getAsLong());
+        if (waitNanos < 0) {
+            bucket.overflows.increment();
+            return 0L;
+        }
+        if (waitNanos > 0) {
+            bucket.queueDepth.incrementAndGet();
+            try {
+                sleeper.accept(waitNanos);
+            } finally {
+                bucket.queueDepth.decrementAndGet();
+            }
+        }
+        bucket.record(waitNanos);
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #acquire(RequestScope, String)}: the returned future completes once a call
+     * to the given operation may go out in the given scope, without blocking the calling thread in the meantime.
+     *
+     * @return a future of the time waited, in milliseconds
+     */
+    public CompletableFuture<Long> acquireAsync(final RequestScope scope, final String operation) {
+        Validate.notNull(scope);
+        Validate.notBlank(operation);
+        if (!enabled) {
+            return CompletableFuture.completedFuture(0L);
+        }
+
+        final Bucket bucket = bucket(scope, operation);
+        final long waitNanos = bucket.reserve(nanoClock.getAsLong());
+        if (waitNanos < 0) {
+            bucket.overflows.increment();
+            return CompletableFuture.completedFuture(0L);
+        }
+        bucket.record(waitNanos);
+        if (waitNanos == 0) {
+            return CompletableFuture.completedFuture(0L);
+        }
+        bucket.queueDepth.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> {
+            bucket.queueDepth.decrementAndGet();
+            return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        }, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Returns a snapshot of the statistics of every bucket, keyed by {@code account|region|operation}.
+     */
+    public Map<String, Stats> getStats() {
+        final ImmutableMap.Builder<String, Stats> builder = ImmutableMap.builder();
+        buckets.forEach((key, bucket) -> builder.put(key, bucket.stats()));
+        return builder.build();
+    }
+
+    private Bucket bucket(final RequestScope scope, final String operation) {
+        final String key = scope + "|" + operation;
+        return buckets.computeIfAbsent(key, k -> new Bucket(limits.get(OperationClass.of(operation)),
+            nanoClock.getAsLong()));
+    }
+
+    private static void sleep(final long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sustained rate and burst size of a bucket.
+     */
+    static final class Limit {
+        private final double permitsPerSecond;
+        private final int burst;
+
+        Limit(final double permitsPerSecond, final int burst) {
+            Validate.isTrue(permitsPerSecond > 0, "permitsPerSecond must be positive");
+            Validate.isTrue(burst > 0, "burst must be positive");
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+    }
+
+    /**
+     * Point-in-time statistics of one bucket.
+     */
+    public static final class Stats {
+        private final int queueDepth;
+        private final long acquired;
+        private final long waited;
+        private final long overflows;
+        private final long totalWaitMillis;
+        private final long maxWaitMillis;
+
+        Stats(final int queueDepth, final long acquired, final long waited, final long overflows,
+              final long totalWaitMillis, final long maxWaitMillis) {
+            this.queueDepth = queueDepth;
+            this.acquired = acquired;
+            this.waited = waited;
+            this.overflows = overflows;
+            this.totalWaitMillis = totalWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        /** Calls currently waiting for a permit. */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /** Calls that got a permit, with or without waiting. */
+        public long getAcquired() {
+            return acquired;
+        }
+
+        /** Calls that had to wait for their permit. */
+        public long getWaited() {
+            return waited;
+        }
+
+        /** Calls that went out without a permit because the wait would have been too long. */
+        public long getOverflows() {
+            return overflows;
+        }
+
+        public long getTotalWaitMillis() {
+            return totalWaitMillis;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("queueDepth=%d acquired=%d waited=%d overflows=%d totalWaitMillis=%d maxWaitMillis=%d",
+                queueDepth, acquired, waited, overflows, totalWaitMillis, maxWaitMillis);
+        }
+    }
+
+    private static final class Bucket {
+        private final double permitsPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefillNanos;
+
+        private final AtomicInteger queueDepth = new AtomicInteger();
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder waited = new LongAdder();
+        private final LongAdder overflows = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        Bucket(final Limit limit, final long nowNanos) {
+            this.permitsPerNano = limit.permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = limit.burst;
+            this.tokens = limit.burst;
+            this.lastRefillNanos = nowNanos;
+        }
+
+        /**
+         * Takes a token and returns how long the caller has to wait for it. Tokens may go negative; the deficit is
+         * the queue of callers already waiting. Returns -1 without taking a token if the wait would be too long.
+         */
+        synchronized long reserve(final long nowNanos) {
+            refill(nowNanos);
+            final double remaining = tokens - 1;
+            final long waitNanos = remaining >= 0 ? 0L : (long) Math.ceil(-remaining / permitsPerNano);
+            if (waitNanos > TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_MILLIS)) {
+                return -1L;
+            }
+            tokens = remaining;
+            return waitNanos;
+        }
+
+        private void refill(final long nowNanos) {
+            if (nowNanos > lastRefillNanos) {
+                tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * permitsPerNano);
+                lastRefillNanos = nowNanos;
+            }
+        }
+
+        void record(final long waitNanos) {
+            acquired.increment();
+            if (waitNanos > 0) {
+                waited.increment();
+                totalWaitNanos.add(waitNanos);
+                maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            }
+        }
+
+        Stats stats() {
+            return new Stats(queueDepth.get(), acquired.sum(), waited.sum(), overflows.sum(),
+                TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum()), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package software.amazon.m2.common;
+
+/**
+ * Selects the stabilization delay of an application from its definition.
+ * <p>
+ * A small inline definition is deployed soon after the call, so it is polled eagerly. A definition read from S3, or a
+ * large inline one, takes longer to fetch and validate, so it starts with longer delays.
+ */
+public final class ApplicationBackoff {
+
+    /**
+     * Length in characters from which an inline definition is considered large. Inline definitions are limited to
+     * 65000 characters.
+     */
+    static final int LARGE_CONTENT_LENGTH = 16_000;
+
+    private ApplicationBackoff() {
+    }
+
+    /**
+     * Returns the delay for polling an application created from the given definition.
+     */
+    public static JitteredExponentialDelay forCreate(final String content, final String s3Location) {
+        return isLarge(content, s3Location)
+            ? Constants.BACKOFF_STRATEGY_STABILIZE_APPLICATION_CREATE_LARGE
+            : Constants.BACKOFF_STRATEGY_STABILIZE_APPLICATION_CREATE;
+    }
+
+    /**
+     * Returns the delay for polling a new version of an application created from the given definition.
+     */
+    public static JitteredExponentialDelay forNewVersion(final String content, final String s3Location) {
+        return isLarge(content, s3Location)
+            ? Constants.BACKOFF_STRATEGY_STABILIZE_APPLICATION_VERSION_LARGE
+            : Constants.BACKOFF_STRATEGY_STABILIZE_APPLICATION_VERSION;
+    }
+
+    public static JitteredExponentialDelay forDelete() {
+        return Constants.BACKOFF_STRATEGY_STABILIZE_APPLICATION_DELETE;
+    }
+
+    static boolean isLarge(final String content, final String s3Location) {
+        return s3Location != null || (content != null && content.length() >= LARGE_CONTENT_LENGTH);
+    }
+}
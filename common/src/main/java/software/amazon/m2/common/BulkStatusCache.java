@@ -0,0 +1,111 @@
+package software.amazon.m2.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Container-wide cache of resource statuses listed in bulk, for stabilization checks.
+ * <p>
+ * Once at least {@link #MIN_WATCHES} resources of the same account and region have been polled within
+ * {@link #WATCH_WINDOW_MILLIS}, one paginated List call every {@link #REFRESH_MILLIS} answers the polls of all of them,
+ * instead of one Get call each. Below that, and for resources missing from the listing, no status is returned and
+ * callers read the resource itself. A listed status only tells that a resource is still in transition: callers
+ * confirm a terminal status with their own read, which also carries its details.
+ * <p>
+ * Resources are watched and listed per {@link RequestScope}, given with each poll.
+ */
+public final class BulkStatusCache<S> {
+
+    static final int MIN_WATCHES = 5;
+    static final long WATCH_WINDOW_MILLIS = 120_000L;
+    static final long REFRESH_MILLIS = 10_000L;
+
+    /**
+     * Most pages read by a listing; resources beyond them are read one by one.
+     */
+    public static final int MAX_PAGES = 10;
+
+    private static final Logger LOG = LogManager.getLogger(BulkStatusCache.class);
+
+    private final int minWatches;
+    private final long watchWindowNanos;
+    private final long refreshNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, Watches> scopes = new ConcurrentHashMap<>();
+
+    public BulkStatusCache() {
+        this(MIN_WATCHES, TimeUnit.MILLISECONDS.toNanos(WATCH_WINDOW_MILLIS),
+            TimeUnit.MILLISECONDS.toNanos(REFRESH_MILLIS), System::nanoTime);
+    }
+
+    @VisibleForTesting
+    BulkStatusCache(final int minWatches, final long watchWindowNanos, final long refreshNanos,
+                    final LongSupplier nanoClock) {
+        this.minWatches = minWatches;
+        this.watchWindowNanos = watchWindowNanos;
+        this.refreshNanos = refreshNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Records a poll of the given resource in the given scope and returns its listed status, or empty if too few
+     * resources are being watched or it is not listed. The listing is refreshed with the given call when it is due; if
+     * that call fails, empty is returned until the next refresh.
+     */
+    public Optional<S> status(final RequestScope scope, final String resourceId,
+                              final Supplier<Map<String, S>> listStatuses) {
+        return status(scope, "", resourceId, listStatuses);
+    }
+
+    /**
+     * Same as {@link #status(RequestScope, String, Supplier)}, for resources listed by group within the scope, such as
+     * the applications of one environment. Each group is watched and listed on its own.
+     */
+    public Optional<S> status(final RequestScope scope, final String group, final String resourceId,
+                              final Supplier<Map<String, S>> listStatuses) {
+        Validate.notNull(scope);
+        if (resourceId == null) {
+            return Optional.empty();
+        }
+        return scopes.computeIfAbsent(scope + "|" + group, key -> new Watches())
+            .status(resourceId, nanoClock.getAsLong(), listStatuses);
+    }
+
+    private final class Watches {
+        private final Map<String, Long> lastPolled = new HashMap<>();
+        private Map<String, S> statuses = Collections.emptyMap();
+        private Long listedAt;
+
+        // Synchronized, so that concurrent polls share a single listing
+        synchronized Optional<S> status(final String resourceId, final long now,
+                                        final Supplier<Map<String, S>> listStatuses) {
+            lastPolled.put(resourceId, now);
+            lastPolled.values().removeIf(polledAt -> now - polledAt >= watchWindowNanos);
+            if (lastPolled.size() < minWatches) {
+                return Optional.empty();
+            }
+            if (listedAt == null || now - listedAt >= refreshNanos) {
+                listedAt = now;
+                try {
+                    statuses = listStatuses.get();
+                } catch (final RuntimeException e) {
+                    LOG.warn("Listing statuses failed, polling resources one by one until the next refresh", e);
+                    statuses = Collections.emptyMap();
+                }
+            }
+            return Optional.ofNullable(statuses.get(resourceId));
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package software.amazon.m2.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.services.m2.model.InternalServerException;
+import software.amazon.awssdk.services.m2.model.ThrottlingException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker of one M2 operation in one account and region.
+ * <p>
+ * The breaker records the outcome of the last {@value #WINDOW_SIZE} calls of its operation. When at least
+ * {@value #MIN_CALLS} calls were recorded and {@value #FAILURE_RATE_PERCENT}% or more of them failed with an
+ * internal server or throttling error, the breaker opens: calls are refused for {@value #OPEN_SECONDS} seconds
+ * instead of piling onto a struggling service. After that the breaker is half open and lets one trial call through,
+ * whose outcome closes or reopens it. Each state change is published as the {@value #TRANSITION_METRIC} metric.
+ * <p>
+ * Each call is given a {@link Permission}, which it passes back with its outcome and releases once done, whatever
+ * the way it ended. Outcomes are only recorded while the breaker is closed, and while it is half open only the
+ * outcome of the trial call counts: a call let through before the breaker opened cannot close it by succeeding late.
+ * Breakers are kept per account, region and operation by a {@link CircuitBreakerRegistry}.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Notified of each state change of a breaker.
+     */
+    @FunctionalInterface
+    interface TransitionListener {
+        void onTransition(String operation, State from, State to);
+    }
+
+    static final int WINDOW_SIZE = 20;
+    static final int MIN_CALLS = 10;
+    static final int FAILURE_RATE_PERCENT = 50;
+    static final int OPEN_SECONDS = 30;
+    static final String TRANSITION_METRIC = "CircuitBreakerTransition";
+
+    private static final Logger LOG = LogManager.getLogger(CircuitBreaker.class);
+
+    private final String operation;
+    private final LongSupplier nanoClock;
+    private final TransitionListener listener;
+    private final boolean[] outcomes = new boolean[WINDOW_SIZE];
+    private int count;
+    private int next;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private Permission trial;
+
+    @VisibleForTesting
+    CircuitBreaker(final String operation, final LongSupplier nanoClock, final TransitionListener listener) {
+        this.operation = operation;
+        this.nanoClock = nanoClock;
+        this.listener = listener;
+    }
+
+    /**
+     * Returns whether a failure of a call counts against the breaker.
+     */
+    public static boolean isFailure(final Throwable throwable) {
+        return throwable instanceof InternalServerException || throwable instanceof ThrottlingException;
+    }
+
+    /**
+     * Asks for permission to make a call. The returned permission must be released once the call is done.
+     *
+     * @throws CircuitBreakerOpenException if the breaker is open, or half open with its trial call in flight
+     */
+    public synchronized Permission acquirePermission() {
+        if (state == State.OPEN) {
+            final long openNanos = nanoClock.getAsLong() - openedAtNanos;
+            if (openNanos < TimeUnit.SECONDS.toNanos(OPEN_SECONDS)) {
+                throw new CircuitBreakerOpenException(operation,
+                    (int) Math.max(1L, OPEN_SECONDS - TimeUnit.NANOSECONDS.toSeconds(openNanos)));
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trial != null) {
+                throw new CircuitBreakerOpenException(operation, OPEN_SECONDS);
+            }
+            trial = new Permission();
+            return trial;
+        }
+        return new Permission();
+    }
+
+    public synchronized void onSuccess(final Permission permission) {
+        Validate.notNull(permission);
+        if (state == State.CLOSED) {
+            record(false);
+        } else if (state == State.HALF_OPEN && permission == trial) {
+            reset();
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    public synchronized void onFailure(final Permission permission) {
+        Validate.notNull(permission);
+        if (state == State.CLOSED) {
+            record(true);
+            if (count >= MIN_CALLS && failures * 100 >= count * FAILURE_RATE_PERCENT) {
+                open();
+            }
+        } else if (state == State.HALF_OPEN && permission == trial) {
+            open();
+        }
+    }
+
+    /**
+     * Ends a call. A call that ended without an outcome, such as one that failed on the client side, says nothing
+     * about the health of the service: if it was the trial call, a half open breaker lets its next call through as
+     * the trial.
+     */
+    public synchronized void release(final Permission permission) {
+        Validate.notNull(permission);
+        if (permission == trial) {
+            trial = null;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(final boolean failure) {
+        if (count == outcomes.length && outcomes[next]) {
+            failures--;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+        count = Math.min(count + 1, outcomes.length);
+    }
+
+    private void open() {
+        reset();
+        openedAtNanos = nanoClock.getAsLong();
+        transitionTo(State.OPEN);
+    }
+
+    private void reset() {
+        count = 0;
+        next = 0;
+        failures = 0;
+        trial = null;
+    }
+
+    private void transitionTo(final State newState) {
+        final State oldState = state;
+        state = newState;
+        listener.onTransition(operation, oldState, newState);
+    }
+
+    static void publishTransition(final String operation, final State from, final State to) {
+        LOG.info("Circuit breaker for {} changed from {} to {}", operation, from, to);
+        EmbeddedMetrics.count(TRANSITION_METRIC, ImmutableMap.of("Operation", operation, "State", to.name()));
+    }
+
+    /**
+     * Permission given to one call, identifying it as the trial call of a half open breaker or not.
+     */
+    public static final class Permission {
+        private Permission() {
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package software.amazon.m2.common;
+
+/**
+ * Thrown instead of making an M2 call while the circuit breaker of its operation is open. Handlers turn it into an
+ * IN_PROGRESS event that calls back after {@link #getRetryAfterSeconds()}.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String operation;
+    private final int retryAfterSeconds;
+
+    public CircuitBreakerOpenException(final String operation, final int retryAfterSeconds) {
+        super(String.format("Circuit breaker for %s is open, retry after %d seconds", operation, retryAfterSeconds));
+        this.operation = operation;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,48 @@
+package software.amazon.m2.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps a {@link CircuitBreaker} per operation in each {@link RequestScope}, so that the failures of one account or
+ * region never refuse the calls of another.
+ * <p>
+ * Calls use the breakers of the registry they are given: the container-wide {@link #getInstance() instance} in the
+ * handlers, or a registry of their own in tests and simulations, whose breakers start closed.
+ */
+public final class CircuitBreakerRegistry {
+
+    private static final CircuitBreakerRegistry INSTANCE = new CircuitBreakerRegistry();
+
+    private final LongSupplier nanoClock;
+    private final CircuitBreaker.TransitionListener listener;
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerRegistry() {
+        this(System::nanoTime, CircuitBreaker::publishTransition);
+    }
+
+    @VisibleForTesting
+    CircuitBreakerRegistry(final LongSupplier nanoClock, final CircuitBreaker.TransitionListener listener) {
+        this.nanoClock = nanoClock;
+        this.listener = listener;
+    }
+
+    public static CircuitBreakerRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the breaker of the given operation in the given scope, creating it closed on first use.
+     */
+    public CircuitBreaker forOperation(final RequestScope scope, final String operation) {
+        Validate.notNull(scope);
+        Validate.notBlank(operation);
+        return breakers.computeIfAbsent(scope + "|" + operation,
+            key -> new CircuitBreaker(operation, nanoClock, listener));
+    }
+}
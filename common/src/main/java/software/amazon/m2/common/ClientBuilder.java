@@ -1,23 +1,112 @@
 package software.amazon.m2.common;
 
+import com.google.common.base.Suppliers;
 import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.core.retry.RetryPolicy;
-import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.m2.M2AsyncClient;
+import software.amazon.awssdk.services.m2.M2AsyncClientBuilder;
 import software.amazon.awssdk.services.m2.M2Client;
-import software.amazon.cloudformation.LambdaWrapper;
+import software.amazon.awssdk.services.m2.M2ClientBuilder;
 
+import java.net.URI;
+import java.util.function.Supplier;
+
+/**
+ * Provides the M2 clients used by the handlers.
+ * <p>
+ * Clients are built once per region and endpoint and pooled for the lifetime of the container, see
+ * {@link ClientPool}. Credentials are injected per request by the CloudFormation proxy, so a single client can
+ * safely serve every account handled by the container. The HTTP transport is chosen with {@link HttpTransport}, and
+ * all pooled clients share one HTTP client. The endpoint can be overridden with the
+ * {@value #ENDPOINT_OVERRIDE_ENV_VARIABLE} environment variable.
+ */
 public final class ClientBuilder {
-    private static final RetryPolicy RETRY_POLICY =
-        RetryPolicy.builder()
-            .numRetries(6)
-            .retryCondition(RetryCondition.defaultRetryCondition())
-            .build();
+    public static final String ENDPOINT_OVERRIDE_ENV_VARIABLE = "M2_ENDPOINT_OVERRIDE";
+
+    // A container serves a handful of regions at most
+    public static final int POOL_SIZE = 8;
+
+    private static final RetryPolicy RETRY_POLICY = RetryPolicies.adaptive();
+    private static final HttpTransport TRANSPORT = HttpTransport.fromEnvironment();
+    private static final String ENDPOINT_OVERRIDE = System.getenv(ENDPOINT_OVERRIDE_ENV_VARIABLE);
+
+    private static final Supplier<SdkHttpClient> HTTP_CLIENT = Suppliers.memoize(TRANSPORT::createSyncHttpClient);
+    private static final Supplier<SdkAsyncHttpClient> ASYNC_HTTP_CLIENT =
+        Suppliers.memoize(TRANSPORT::createAsyncHttpClient);
+
+    private static final ClientPool<M2Client> CLIENTS =
+        new ClientPool<>(POOL_SIZE, ClientBuilder::buildClient, ClientPool.metricsPublisher("M2Client"));
+    private static final ClientPool<M2AsyncClient> ASYNC_CLIENTS =
+        new ClientPool<>(POOL_SIZE, ClientBuilder::buildAsyncClient, ClientPool.metricsPublisher("M2AsyncClient"));
 
+    /**
+     * Returns the M2 client for the region resolved by the SDK default chain.
+     */
     public static M2Client getClient() {
-        return M2Client.builder()
-            .httpClient(LambdaWrapper.HTTP_CLIENT)
-            .overrideConfiguration(ClientOverrideConfiguration.builder().retryPolicy(RETRY_POLICY).build())
-            .build();
+        return getClient(null);
+    }
+
+    /**
+     * Returns the pooled M2 client for the given region, building it on first use. Callers must not close the
+     * returned client.
+     */
+    public static M2Client getClient(final String region) {
+        return CLIENTS.get(new ClientPool.Key(region, ENDPOINT_OVERRIDE));
+    }
+
+    /**
+     * Returns the asynchronous M2 client for the region resolved by the SDK default chain.
+     */
+    public static M2AsyncClient getAsyncClient() {
+        return getAsyncClient(null);
+    }
+
+    /**
+     * Returns the pooled asynchronous M2 client for the given region, building it on first use. Callers must not
+     * close the returned client.
+     */
+    public static M2AsyncClient getAsyncClient(final String region) {
+        return ASYNC_CLIENTS.get(new ClientPool.Key(region, ENDPOINT_OVERRIDE));
+    }
+
+    /**
+     * Returns the HTTP client shared by the synchronous clients of the container, for the clients of other services.
+     * Callers must not close it.
+     */
+    public static SdkHttpClient getHttpClient() {
+        return HTTP_CLIENT.get();
+    }
+
+    private static M2Client buildClient(final ClientPool.Key key) {
+        final M2ClientBuilder builder = M2Client.builder()
+            .httpClient(HTTP_CLIENT.get())
+            .overrideConfiguration(ClientOverrideConfiguration.builder().retryPolicy(RETRY_POLICY).build());
+        if (key.getRegion() != null) {
+            builder.region(Region.of(key.getRegion()));
+        }
+        if (key.getEndpointOverride() != null) {
+            builder.endpointOverride(URI.create(key.getEndpointOverride()));
+        }
+        return builder.build();
+    }
+
+    private static M2AsyncClient buildAsyncClient(final ClientPool.Key key) {
+        final M2AsyncClientBuilder builder = M2AsyncClient.builder()
+            .overrideConfiguration(ClientOverrideConfiguration.builder().retryPolicy(RETRY_POLICY).build());
+        final SdkAsyncHttpClient httpClient = ASYNC_HTTP_CLIENT.get();
+        if (httpClient != null) {
+            builder.httpClient(httpClient);
+        }
+        if (key.getRegion() != null) {
+            builder.region(Region.of(key.getRegion()));
+        }
+        if (key.getEndpointOverride() != null) {
+            builder.endpointOverride(URI.create(key.getEndpointOverride()));
+        }
+        return builder.build();
     }
 
     private ClientBuilder() {
@@ -0,0 +1,115 @@
+package software.amazon.m2.common;
+
+import com.google.common.collect.ImmutableMap;
+import lombok.Value;
+import org.apache.commons.lang3.Validate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A bounded pool of configured clients, keyed by region and endpoint override.
+ * <p>
+ * Clients do not hold credentials, since the CloudFormation proxy injects them per request, so one client per
+ * region and endpoint serves every account handled by the container. When the pool is full, the least recently
+ * used client is dropped without being closed, since a handler may still be using it. Hit and miss counts are kept
+ * to help size the pool, and reported after every miss and every {@link #STATS_INTERVAL} lookups.
+ */
+public final class ClientPool<C> {
+
+    static final int STATS_INTERVAL = 100;
+
+    /**
+     * Identifies a pooled client. A null region or endpoint override means the SDK default is used.
+     */
+    @Value
+    public static class Key {
+        String region;
+        String endpointOverride;
+    }
+
+    /**
+     * Point-in-time usage counts of a pool.
+     */
+    @Value
+    public static class Stats {
+        long hits;
+        long misses;
+        long evictions;
+        int size;
+    }
+
+    private final int maxSize;
+    private final Function<Key, C> factory;
+    private final Consumer<Stats> statsListener;
+    private final LinkedHashMap<Key, C> clients;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ClientPool(final int maxSize, final Function<Key, C> factory, final Consumer<Stats> statsListener) {
+        Validate.isTrue(maxSize > 0, "maxSize must be positive");
+        this.maxSize = maxSize;
+        this.factory = Validate.notNull(factory);
+        this.statsListener = Validate.notNull(statsListener);
+        // Access order makes the eldest entry the least recently used one
+        this.clients = new LinkedHashMap<Key, C>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, C> eldest) {
+                if (size() <= ClientPool.this.maxSize) {
+                    return false;
+                }
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the client for the given key, building it on first use. Callers must not close the returned client.
+     */
+    public C get(final Key key) {
+        Validate.notNull(key);
+
+        final C client;
+        final Stats stats;
+        synchronized (this) {
+            final C pooled = clients.get(key);
+            if (pooled != null) {
+                hits++;
+                client = pooled;
+            } else {
+                misses++;
+                client = factory.apply(key);
+                clients.put(key, client);
+            }
+            stats = pooled == null || (hits + misses) % STATS_INTERVAL == 0 ? getStats() : null;
+        }
+        // Reported outside the lock, so that lookups do not wait for the listener
+        if (stats != null) {
+            statsListener.accept(stats);
+        }
+        return client;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, clients.size());
+    }
+
+    /**
+     * Returns a stats listener that publishes the counts of the named pool as embedded metrics.
+     */
+    public static Consumer<Stats> metricsPublisher(final String pool) {
+        Validate.notBlank(pool);
+        return stats -> EmbeddedMetrics.counts(ImmutableMap.of(
+            "ClientPoolHits", stats.getHits(),
+            "ClientPoolMisses", stats.getMisses(),
+            "ClientPoolEvictions", stats.getEvictions(),
+            "ClientPoolSize", (long) stats.getSize()), ImmutableMap.of("Pool", pool));
+    }
+}
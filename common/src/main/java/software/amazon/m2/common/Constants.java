@@ -10,4 +10,60 @@ public class Constants {
         .timeout(Duration.ofDays(3L))
         .delay(Duration.ofSeconds(20L))
         .build();
+
+    // for polling an environment being created, which takes tens of minutes
+    public static final JitteredExponentialDelay BACKOFF_STRATEGY_STABILIZE_CREATE = JitteredExponentialDelay.of()
+        .timeout(Duration.ofDays(3L))
+        .baseDelay(Duration.ofSeconds(10L))
+        .maxDelay(Duration.ofSeconds(60L))
+        .build();
+
+    // for polling an environment being updated
+    public static final JitteredExponentialDelay BACKOFF_STRATEGY_STABILIZE_UPDATE = JitteredExponentialDelay.of()
+        .timeout(Duration.ofDays(3L))
+        .baseDelay(Duration.ofSeconds(5L))
+        .maxDelay(Duration.ofSeconds(60L))
+        .build();
+
+    // for polling an environment being deleted, which is usually quick
+    public static final JitteredExponentialDelay BACKOFF_STRATEGY_STABILIZE_DELETE = JitteredExponentialDelay.of()
+        .timeout(Duration.ofDays(3L))
+        .baseDelay(Duration.ofSeconds(5L))
+        .maxDelay(Duration.ofSeconds(30L))
+        .build();
+
+    // for polling an application created from a small inline definition, see ApplicationBackoff
+    public static final JitteredExponentialDelay BACKOFF_STRATEGY_STABILIZE_APPLICATION_CREATE = JitteredExponentialDelay.of()
+        .timeout(Duration.ofDays(3L))
+        .baseDelay(Duration.ofSeconds(3L))
+        .maxDelay(Duration.ofSeconds(20L))
+        .build();
+
+    // for polling an application created from an S3 or large inline definition
+    public static final JitteredExponentialDelay BACKOFF_STRATEGY_STABILIZE_APPLICATION_CREATE_LARGE = JitteredExponentialDelay.of()
+        .timeout(Duration.ofDays(3L))
+        .baseDelay(Duration.ofSeconds(5L))
+        .maxDelay(Duration.ofSeconds(30L))
+        .build();
+
+    // for polling a new application version from a small inline definition, which usually settles within a minute
+    public static final JitteredExponentialDelay BACKOFF_STRATEGY_STABILIZE_APPLICATION_VERSION = JitteredExponentialDelay.of()
+        .timeout(Duration.ofDays(3L))
+        .baseDelay(Duration.ofSeconds(2L))
+        .maxDelay(Duration.ofSeconds(15L))
+        .build();
+
+    // for polling a new application version from an S3 or large inline definition
+    public static final JitteredExponentialDelay BACKOFF_STRATEGY_STABILIZE_APPLICATION_VERSION_LARGE = JitteredExponentialDelay.of()
+        .timeout(Duration.ofDays(3L))
+        .baseDelay(Duration.ofSeconds(5L))
+        .maxDelay(Duration.ofSeconds(20L))
+        .build();
+
+    // for polling an application being deleted
+    public static final JitteredExponentialDelay BACKOFF_STRATEGY_STABILIZE_APPLICATION_DELETE = JitteredExponentialDelay.of()
+        .timeout(Duration.ofDays(3L))
+        .baseDelay(Duration.ofSeconds(3L))
+        .maxDelay(Duration.ofSeconds(20L))
+        .build();
 }
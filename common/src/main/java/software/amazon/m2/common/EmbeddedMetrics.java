@@ -0,0 +1,74 @@
+package software.amazon.m2.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Publishes metrics of the handler container in the CloudWatch embedded metric format.
+ * <p>
+ * Each metric is written to standard output as one JSON log line, which CloudWatch Logs turns into a metric in the
+ * {@value #NAMESPACE} namespace.
+ */
+public final class EmbeddedMetrics {
+
+    public static final String NAMESPACE = "M2/ResourceProviders";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private EmbeddedMetrics() {
+    }
+
+    /**
+     * Publishes a count of 1 for the given metric.
+     */
+    public static void count(final String metricName, final Map<String, String> dimensions) {
+        publish(System.out, metricName, 1.0, "Count", dimensions, System.currentTimeMillis());
+    }
+
+    /**
+     * Publishes the given counts as one line, such as the point-in-time counters of a component.
+     */
+    public static void counts(final Map<String, ? extends Number> values, final Map<String, String> dimensions) {
+        publish(System.out, values, "Count", dimensions, System.currentTimeMillis());
+    }
+
+    static void publish(final PrintStream out,
+                        final String metricName,
+                        final double value,
+                        final String unit,
+                        final Map<String, String> dimensions,
+                        final long timestampMillis) {
+        publish(out, ImmutableMap.of(metricName, value), unit, dimensions, timestampMillis);
+    }
+
+    static void publish(final PrintStream out,
+                        final Map<String, ? extends Number> values,
+                        final String unit,
+                        final Map<String, String> dimensions,
+                        final long timestampMillis) {
+        final ImmutableList.Builder<Map<String, String>> metrics = ImmutableList.builder();
+        values.keySet().forEach(metricName -> metrics.add(ImmutableMap.of("Name", metricName, "Unit", unit)));
+
+        final Map<String, Object> event = new LinkedHashMap<>();
+        event.put("_aws", ImmutableMap.of(
+            "Timestamp", timestampMillis,
+            "CloudWatchMetrics", ImmutableList.of(ImmutableMap.of(
+                "Namespace", NAMESPACE,
+                "Dimensions", ImmutableList.of(ImmutableList.copyOf(dimensions.keySet())),
+                "Metrics", metrics.build()))));
+        event.putAll(dimensions);
+        event.putAll(values);
+
+        try {
+            out.println(MAPPER.writeValueAsString(event));
+        } catch (final JsonProcessingException e) {
+            // Metrics are best effort and must never fail a handler
+        }
+    }
+}
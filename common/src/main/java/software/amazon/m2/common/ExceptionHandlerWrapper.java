@@ -18,38 +18,226 @@ import software.amazon.cloudformation.exceptions.CfnNotFoundException;
 import software.amazon.cloudformation.exceptions.CfnServiceLimitExceededException;
 import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Supplier;
 
 /**
- * Convert M2 exceptions to Cfn exceptions for an M2 service call.
+ * Convert M2 exceptions to Cfn exceptions for an M2 service call. Every call first asks the {@link CircuitBreaker} of
+ * its operation for permission, which fails with a {@link CircuitBreakerOpenException} while the breaker is open, and
+ * then acquires a permit from the given {@link ApiRateLimiter}. Both are kept per {@link RequestScope}. The breaker
+ * permission is released once the call is done, however it ended.
  */
 public final class ExceptionHandlerWrapper {
 
     private ExceptionHandlerWrapper() {
     }
 
-    public static <T> T wrapM2Exception(final String operation, final Supplier<T> serviceCall) {
+    public static <T> T wrapM2Exception(final ApiRateLimiter rateLimiter,
+                                        final CircuitBreakerRegistry breakers,
+                                        final RequestScope scope,
+                                        final String operation,
+                                        final Supplier<T> serviceCall) {
+        Validate.notNull(rateLimiter);
+        Validate.notNull(breakers);
+        Validate.notNull(scope);
         Validate.notBlank(operation);
         Validate.notNull(serviceCall);
 
+        final CircuitBreaker breaker = breakers.forOperation(scope, operation);
+        final CircuitBreaker.Permission permission = breaker.acquirePermission();
         try {
-            return serviceCall.get();
-        } catch (final ConflictException ex) {
-            throw new CfnAlreadyExistsException(ex);
-        } catch (final ResourceNotFoundException ex) {
-            throw new CfnNotFoundException(ex);
-        } catch (final ServiceQuotaExceededException ex) {
-            throw new CfnServiceLimitExceededException(ex);
-        } catch (final ValidationException ex) {
-            throw new CfnInvalidRequestException(ex);
-        } catch (final InternalServerException ex) {
-            throw new CfnInternalFailureException(ex);
-        } catch (AccessDeniedException ex) {
-            throw new CfnAccessDeniedException(operation, ex);
-        } catch (ThrottlingException ex) {
-            throw new CfnThrottlingException(ex);
+            rateLimiter.acquire(scope, operation);
+            final T response;
+            try {
+                response = serviceCall.get();
+            } catch (final M2Exception ex) {
+                recordOutcome(breaker, permission, ex);
+                throw toCfnException(operation, ex);
+            }
+            breaker.onSuccess(permission);
+            return response;
+        } finally {
+            breaker.release(permission);
+        }
+    }
+
+    /**
+     * Variant of {@link #wrapM2Exception(ApiRateLimiter, CircuitBreakerRegistry, RequestScope, String, Supplier)} for
+     * existence probes, such as the reads made while waiting for a deletion: a {@link ResourceNotFoundException}
+     * returns empty rather than being converted to a {@link CfnNotFoundException}, so that the expected end of a wait
+     * is not an exception to catch. Other failures are converted as usual.
+     */
+    public static <T> Optional<T> probeM2Resource(final ApiRateLimiter rateLimiter,
+                                                  final CircuitBreakerRegistry breakers,
+                                                  final RequestScope scope,
+                                                  final String operation,
+                                                  final Supplier<T> serviceCall) {
+        Validate.notNull(rateLimiter);
+        Validate.notNull(breakers);
+        Validate.notNull(scope);
+        Validate.notBlank(operation);
+        Validate.notNull(serviceCall);
+
+        final CircuitBreaker breaker = breakers.forOperation(scope, operation);
+        final CircuitBreaker.Permission permission = breaker.acquirePermission();
+        try {
+            rateLimiter.acquire(scope, operation);
+            final T response;
+            try {
+                response = serviceCall.get();
+            } catch (final ResourceNotFoundException ex) {
+                breaker.onSuccess(permission);
+                return Optional.empty();
+            } catch (final M2Exception ex) {
+                recordOutcome(breaker, permission, ex);
+                throw toCfnException(operation, ex);
+            }
+            breaker.onSuccess(permission);
+            return Optional.ofNullable(response);
+        } finally {
+            breaker.release(permission);
+        }
+    }
+
+    /**
+     * Asynchronous counterpart of
+     * {@link #wrapM2Exception(ApiRateLimiter, CircuitBreakerRegistry, RequestScope, String, Supplier)}. The returned
+     * future completes exceptionally with the Cfn exception matching the M2 exception the service call failed with.
+     * The calling thread does not wait for the rate limiter: the call is made from the future once its permit is
+     * available, and only then asks the circuit breaker for permission. Cancelling the returned future cancels the
+     * service call, or skips it if it has not been made yet.
+     */
+    public static <T> CompletableFuture<T> wrapM2ExceptionAsync(final ApiRateLimiter rateLimiter,
+                                                               final CircuitBreakerRegistry breakers,
+                                                               final RequestScope scope,
+                                                               final String operation,
+                                                               final Supplier<CompletableFuture<T>> serviceCall) {
+        Validate.notNull(rateLimiter);
+        Validate.notNull(breakers);
+        Validate.notNull(scope);
+        Validate.notBlank(operation);
+        Validate.notNull(serviceCall);
+
+        final CircuitBreaker breaker = breakers.forOperation(scope, operation);
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        rateLimiter.acquireAsync(scope, operation).thenRun(() -> {
+            if (!result.isDone()) {
+                callAsync(operation, breaker, serviceCall, result);
+            }
+        });
+        return result;
+    }
+
+    private static <T> void callAsync(final String operation,
+                                      final CircuitBreaker breaker,
+                                      final Supplier<CompletableFuture<T>> serviceCall,
+                                      final CompletableFuture<T> result) {
+        final CircuitBreaker.Permission permission;
+        try {
+            permission = breaker.acquirePermission();
+        } catch (final CircuitBreakerOpenException ex) {
+            result.completeExceptionally(ex);
+            return;
+        }
+        final CompletableFuture<T> responseFuture;
+        try {
+            responseFuture = serviceCall.get();
         } catch (final M2Exception ex) {
-            throw new CfnGeneralServiceException(operation, ex);
+            recordOutcome(breaker, permission, ex);
+            breaker.release(permission);
+            result.completeExceptionally(toCfnException(operation, ex));
+            return;
+        } catch (final RuntimeException | Error ex) {
+            breaker.release(permission);
+            result.completeExceptionally(ex);
+            return;
+        }
+
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                responseFuture.cancel(true);
+            }
+        });
+        responseFuture.whenComplete((response, throwable) -> {
+            // The permission is released before the result completes, as its dependents may make calls of their own
+            if (throwable == null) {
+                breaker.onSuccess(permission);
+                breaker.release(permission);
+                result.complete(response);
+                return;
+            }
+            final Throwable cause = unwrap(throwable);
+            if (cause instanceof M2Exception) {
+                recordOutcome(breaker, permission, cause);
+                breaker.release(permission);
+                result.completeExceptionally(toCfnException(operation, (M2Exception) cause));
+            } else {
+                breaker.release(permission);
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+
+    /**
+     * Waits for an asynchronous service call and rethrows its failure as is, rather than wrapped in a
+     * {@link CompletionException}.
+     */
+    public static <T> T join(final CompletableFuture<T> future) {
+        Validate.notNull(future);
+
+        try {
+            return future.join();
+        } catch (final CompletionException ex) {
+            final Throwable cause = unwrap(ex);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CfnInternalFailureException(cause);
+        }
+    }
+
+    /**
+     * Any answer of the service other than an internal server or throttling error shows that it is healthy.
+     */
+    private static void recordOutcome(final CircuitBreaker breaker,
+                                      final CircuitBreaker.Permission permission,
+                                      final Throwable cause) {
+        if (CircuitBreaker.isFailure(cause)) {
+            breaker.onFailure(permission);
+        } else {
+            breaker.onSuccess(permission);
+        }
+    }
+
+    private static RuntimeException toCfnException(final String operation, final M2Exception ex) {
+        if (ex instanceof ConflictException) {
+            return new CfnAlreadyExistsException(ex);
+        } else if (ex instanceof ResourceNotFoundException) {
+            return new CfnNotFoundException(ex);
+        } else if (ex instanceof ServiceQuotaExceededException) {
+            return new CfnServiceLimitExceededException(ex);
+        } else if (ex instanceof ValidationException) {
+            return new CfnInvalidRequestException(ex);
+        } else if (ex instanceof InternalServerException) {
+            return new CfnInternalFailureException(ex);
+        } else if (ex instanceof AccessDeniedException) {
+            return new CfnAccessDeniedException(operation, ex);
+        } else if (ex instanceof ThrottlingException) {
+            return new CfnThrottlingException(ex);
+        }
+        return new CfnGeneralServiceException(operation, ex);
+    }
+
+    private static Throwable unwrap(final Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
         }
+        return cause;
     }
 }
@@ -0,0 +1,267 @@
+package software.amazon.m2.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedges idempotent read calls to cut tail latency.
+ * <p>
+ * When hedging is enabled, a read call that has not answered within the 95th percentile latency seen for its
+ * operation is sent a second time. The first answer is returned and the other attempt is interrupted. Hedges are paid
+ * for from a budget that grows by {@link #HEDGE_RATIO} per call, so hedging adds at most that share of calls. Until
+ * enough latencies have been seen for an operation, its calls are not hedged.
+ * <p>
+ * The first attempt runs on the calling thread; only a hedge uses a thread of its own. Each attempt is a call of its
+ * own, so the given call should include everything a call goes through, such as
+ * {@link ExceptionHandlerWrapper#wrapM2Exception}: a hedge then waits for its own rate limiter permit and is counted
+ * by the circuit breaker like any other call.
+ * <p>
+ * Handlers are given the container-wide {@link #getInstance() instance}, which hedges only if the
+ * {@value #HEDGING_ENV_VARIABLE} environment variable is {@code true}. It must only be used for calls without side
+ * effects.
+ */
+public final class Hedger {
+
+    public static final String HEDGING_ENV_VARIABLE = "M2_HEDGED_READS";
+
+    static final double HEDGE_RATIO = 0.05;
+
+    private static final int SAMPLE_SIZE = 128;
+    private static final int MIN_SAMPLES = 20;
+    private static final double MAX_BUDGET = 5.0;
+
+    private static final Hedger INSTANCE = new Hedger(
+        Boolean.parseBoolean(System.getenv(HEDGING_ENV_VARIABLE)), MIN_SAMPLES);
+
+    private final boolean enabled;
+    private final int minSamples;
+    private final ConcurrentMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final LongAdder hedges = new LongAdder();
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private double budget;
+    private volatile ExecutorService executor;
+
+    @VisibleForTesting
+    Hedger(final boolean enabled, final int minSamples) {
+        this.enabled = enabled;
+        this.minSamples = minSamples;
+    }
+
+    public static Hedger getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a new hedger that hedges slow calls, whatever the environment, for simulations.
+     */
+    public static Hedger enabled() {
+        return new Hedger(true, MIN_SAMPLES);
+    }
+
+    /**
+     * Returns a hedger that makes each call once, for tests.
+     */
+    public static Hedger disabled() {
+        return new Hedger(false, MIN_SAMPLES);
+    }
+
+    /**
+     * Runs the given read call, hedging it when it is slow. The answer of the first attempt to succeed is returned.
+     * If both attempts fail, the failure of the first one is rethrown as is.
+     */
+    public <T> T call(final String operation, final Supplier<T> readCall) {
+        Validate.notBlank(operation);
+        Validate.notNull(readCall);
+
+        if (!enabled) {
+            return readCall.get();
+        }
+
+        final LatencyWindow window = latencies.computeIfAbsent(operation, k -> new LatencyWindow());
+        depositBudget();
+        final long thresholdNanos = window.percentile95(minSamples);
+        if (thresholdNanos < 0) {
+            return timed(window, readCall);
+        }
+
+        final HedgedCall<T> call = new HedgedCall<>(window, readCall);
+        final FutureTask<Void> hedge = new FutureTask<>(call::hedge, null);
+        CompletableFuture.delayedExecutor(thresholdNanos, TimeUnit.NANOSECONDS, executor()).execute(hedge);
+        return call.primary(hedge);
+    }
+
+    /**
+     * Returns the number of hedges sent so far.
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    @VisibleForTesting
+    void recordLatency(final String operation, final long latencyNanos) {
+        latencies.computeIfAbsent(operation, k -> new LatencyWindow()).record(latencyNanos);
+    }
+
+    private static <T> T timed(final LatencyWindow window, final Supplier<T> readCall) {
+        final long start = System.nanoTime();
+        final T result = readCall.get();
+        window.record(System.nanoTime() - start);
+        return result;
+    }
+
+    private synchronized void depositBudget() {
+        budget = Math.min(MAX_BUDGET, budget + HEDGE_RATIO);
+    }
+
+    private synchronized boolean withdrawBudget() {
+        if (budget < 1.0) {
+            return false;
+        }
+        budget -= 1.0;
+        return true;
+    }
+
+    private ExecutorService executor() {
+        ExecutorService result = executor;
+        if (result == null) {
+            synchronized (this) {
+                result = executor;
+                if (result == null) {
+                    result = Executors.newCachedThreadPool(runnable -> {
+                        final Thread thread = new Thread(runnable, "m2-hedger-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The two attempts of one hedged call. The first attempt runs on the calling thread. A hedge that answers first
+     * interrupts it, and hands over its answer once the calling thread may no longer be interrupted by it.
+     */
+    private final class HedgedCall<T> {
+        private static final int RUNNING = 0;
+        private static final int PRIMARY_WON = 1;
+        private static final int HEDGE_WON = 2;
+
+        private final LatencyWindow window;
+        private final Supplier<T> readCall;
+        private final Thread caller = Thread.currentThread();
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        private final AtomicBoolean hedgeClaimed = new AtomicBoolean();
+        private final CountDownLatch hedgeDone = new CountDownLatch(1);
+        private T hedgeResult;
+
+        HedgedCall(final LatencyWindow window, final Supplier<T> readCall) {
+            this.window = window;
+            this.readCall = readCall;
+        }
+
+        T primary(final FutureTask<Void> hedge) {
+            final T result;
+            try {
+                result = timed(window, readCall);
+            } catch (final RuntimeException | Error e) {
+                // A hedge already sent may still answer; otherwise none is sent any more
+                if (state.get() != HEDGE_WON && hedgeClaimed.compareAndSet(false, true)) {
+                    hedge.cancel(false);
+                    throw e;
+                }
+                awaitHedge();
+                if (state.get() == HEDGE_WON) {
+                    return hedgeResult;
+                }
+                throw e;
+            }
+            if (state.compareAndSet(RUNNING, PRIMARY_WON)) {
+                hedge.cancel(true);
+                return result;
+            }
+            awaitHedge();
+            return hedgeResult;
+        }
+
+        void hedge() {
+            if (state.get() != RUNNING || !hedgeClaimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (!withdrawBudget()) {
+                    return;
+                }
+                hedges.increment();
+                final T result = timed(window, readCall);
+                if (state.compareAndSet(RUNNING, HEDGE_WON)) {
+                    hedgeResult = result;
+                    caller.interrupt();
+                }
+            } catch (final RuntimeException e) {
+                // The answer or failure of the first attempt stands
+            } finally {
+                hedgeDone.countDown();
+            }
+        }
+
+        /**
+         * Waits for a sent hedge to finish, then clears the interrupt it may have sent to the calling thread.
+         */
+        private void awaitHedge() {
+            while (true) {
+                try {
+                    hedgeDone.await();
+                    break;
+                } catch (final InterruptedException e) {
+                    // Sent by the hedge before it finishes
+                }
+            }
+            if (state.get() == HEDGE_WON) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * The most recent latencies of one operation.
+     */
+    private static final class LatencyWindow {
+        private final long[] samples = new long[SAMPLE_SIZE];
+        private int count;
+        private int next;
+
+        synchronized void record(final long latencyNanos) {
+            samples[next] = latencyNanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        /**
+         * Returns the 95th percentile latency, or -1 if fewer than {@code minSamples} latencies were recorded.
+         */
+        synchronized long percentile95(final int minSamples) {
+            if (count < minSamples) {
+                return -1L;
+            }
+            final long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(count * 0.95) - 1];
+        }
+    }
+}
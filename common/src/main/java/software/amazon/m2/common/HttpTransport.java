@@ -0,0 +1,150 @@
+package software.amazon.m2.common;
+
+import com.google.common.base.Enums;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.cloudformation.LambdaWrapper;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * HTTP transports the M2 clients can be built with.
+ * <p>
+ * The transport is read once per container from the {@value #TRANSPORT_ENV_VARIABLE} environment variable. If the
+ * variable is missing or does not name a transport, {@link #LAMBDA_DEFAULT} is used.
+ * <p>
+ * The HTTP clients of the other transports are optional dependencies: a handler module that selects one of them must
+ * declare its client. A transport whose client is not on the classpath also falls back to {@link #LAMBDA_DEFAULT}.
+ * The client classes are only loaded once a transport is chosen, so the missing ones are never touched.
+ */
+public enum HttpTransport {
+
+    /**
+     * The Apache client shared with the CloudFormation wrapper. The asynchronous client uses the SDK default.
+     */
+    LAMBDA_DEFAULT(null) {
+        @Override
+        SdkHttpClient createSyncHttpClient() {
+            return LambdaWrapper.HTTP_CLIENT;
+        }
+    },
+
+    /**
+     * The JDK URLConnection client. It loads the fewest classes, which keeps cold starts short, but it does not pool
+     * connections as well as the other transports.
+     */
+    URL_CONNECTION("software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient") {
+        @Override
+        SdkHttpClient createSyncHttpClient() {
+            return UrlConnectionHttpClient.builder()
+                .connectionTimeout(CONNECTION_TIMEOUT)
+                .socketTimeout(SOCKET_TIMEOUT)
+                .build();
+        }
+    },
+
+    /**
+     * The AWS Common Runtime client, for the highest call throughput. Used for both the synchronous and the
+     * asynchronous client.
+     */
+    AWS_CRT("software.amazon.awssdk.http.crt.AwsCrtHttpClient") {
+        @Override
+        SdkHttpClient createSyncHttpClient() {
+            return AwsCrtHttpClient.builder()
+                .maxConcurrency(MAX_CONNECTIONS)
+                .connectionTimeout(CONNECTION_TIMEOUT)
+                .connectionMaxIdleTime(CONNECTION_MAX_IDLE_TIME)
+                .build();
+        }
+
+        @Override
+        SdkAsyncHttpClient createAsyncHttpClient() {
+            return AwsCrtAsyncHttpClient.builder()
+                .maxConcurrency(MAX_CONNECTIONS)
+                .connectionTimeout(CONNECTION_TIMEOUT)
+                .connectionMaxIdleTime(CONNECTION_MAX_IDLE_TIME)
+                .build();
+        }
+    },
+
+    /**
+     * A dedicated Apache client whose pooled connections are kept alive between invocations of a warm container.
+     */
+    APACHE_POOLED("software.amazon.awssdk.http.apache.ApacheHttpClient") {
+        @Override
+        SdkHttpClient createSyncHttpClient() {
+            return ApacheHttpClient.builder()
+                .maxConnections(MAX_CONNECTIONS)
+                .connectionTimeout(CONNECTION_TIMEOUT)
+                .socketTimeout(SOCKET_TIMEOUT)
+                .tcpKeepAlive(true)
+                .connectionMaxIdleTime(CONNECTION_MAX_IDLE_TIME)
+                .connectionTimeToLive(CONNECTION_TIME_TO_LIVE)
+                .useIdleConnectionReaper(true)
+                .build();
+        }
+    };
+
+    public static final String TRANSPORT_ENV_VARIABLE = "M2_HTTP_TRANSPORT";
+
+    private static final int MAX_CONNECTIONS = 50;
+    private static final Duration CONNECTION_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration SOCKET_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration CONNECTION_MAX_IDLE_TIME = Duration.ofSeconds(60);
+    private static final Duration CONNECTION_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    private final String clientClassName;
+
+    HttpTransport(final String clientClassName) {
+        this.clientClassName = clientClassName;
+    }
+
+    /**
+     * Returns the transport named by the {@value #TRANSPORT_ENV_VARIABLE} environment variable.
+     */
+    public static HttpTransport fromEnvironment() {
+        return fromName(System.getenv(TRANSPORT_ENV_VARIABLE));
+    }
+
+    static HttpTransport fromName(final String name) {
+        return fromName(name, HttpTransport::isAvailable);
+    }
+
+    static HttpTransport fromName(final String name, final Predicate<HttpTransport> available) {
+        if (name == null || name.trim().isEmpty()) {
+            return LAMBDA_DEFAULT;
+        }
+        final HttpTransport transport =
+            Enums.getIfPresent(HttpTransport.class, name.trim().toUpperCase()).or(LAMBDA_DEFAULT);
+        return available.test(transport) ? transport : LAMBDA_DEFAULT;
+    }
+
+    /**
+     * Returns whether the HTTP client of this transport is on the classpath, without initializing it.
+     */
+    boolean isAvailable() {
+        if (clientClassName == null) {
+            return true;
+        }
+        try {
+            Class.forName(clientClassName, false, HttpTransport.class.getClassLoader());
+            return true;
+        } catch (final ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    abstract SdkHttpClient createSyncHttpClient();
+
+    /**
+     * Returns the HTTP client for the asynchronous M2 client, or null to use the SDK default.
+     */
+    SdkAsyncHttpClient createAsyncHttpClient() {
+        return null;
+    }
+}
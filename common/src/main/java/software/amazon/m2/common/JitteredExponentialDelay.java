@@ -0,0 +1,137 @@
+package software.amazon.m2.common;
+
+import org.apache.commons.lang3.Validate;
+import software.amazon.cloudformation.proxy.Delay;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Stabilization delay that starts short and doubles up to a cap, with full jitter.
+ * <p>
+ * The delay before poll {@code n} is drawn uniformly between {@code minDelay} and
+ * {@code min(maxDelay, baseDelay * 2^(n-1))}, so quick transitions are noticed soon while long ones are polled at
+ * most every {@code maxDelay}, and handlers started together do not poll in lockstep. Delays are whole seconds, as
+ * handler callbacks are.
+ * <p>
+ * The delay is stateless, as handlers are re-invoked between polls: the timeout is checked against the expected time
+ * spent polling after {@code n} attempts rather than the jittered delays actually taken.
+ */
+public final class JitteredExponentialDelay implements Delay {
+
+    private final long timeoutSeconds;
+    private final long minDelaySeconds;
+    private final long baseDelaySeconds;
+    private final long maxDelaySeconds;
+    private final DoubleSupplier random;
+
+    private JitteredExponentialDelay(final Builder builder) {
+        this.timeoutSeconds = builder.timeout.getSeconds();
+        this.minDelaySeconds = builder.minDelay.getSeconds();
+        this.baseDelaySeconds = builder.baseDelay.getSeconds();
+        this.maxDelaySeconds = builder.maxDelay.getSeconds();
+        this.random = builder.random;
+    }
+
+    public static Builder of() {
+        return new Builder();
+    }
+
+    @Override
+    public Duration nextDelay(final int attempt) {
+        return nextDelay(attempt, maxDelaySeconds);
+    }
+
+    /**
+     * Returns the delay before the given attempt, capped at {@code cap} rather than {@code maxDelay} if that is
+     * shorter.
+     */
+    public Duration nextDelay(final int attempt, final Duration cap) {
+        Validate.notNull(cap);
+        return nextDelay(attempt, Math.min(maxDelaySeconds, cap.getSeconds()));
+    }
+
+    private Duration nextDelay(final int attempt, final long capSeconds) {
+        if (expectedElapsedSeconds(attempt - 1) >= timeoutSeconds) {
+            return Duration.ZERO;
+        }
+        final long ceiling = Math.max(minDelaySeconds, Math.min(capSeconds, ceilingSeconds(attempt)));
+        final long jittered = Math.round(random.getAsDouble() * ceiling);
+        return Duration.ofSeconds(Math.max(minDelaySeconds, jittered));
+    }
+
+    /**
+     * Returns the upper bound of the delay before the given attempt.
+     */
+    long ceilingSeconds(final int attempt) {
+        final int doublings = Math.min(Math.max(attempt - 1, 0), 30);
+        return Math.max(minDelaySeconds, Math.min(maxDelaySeconds, baseDelaySeconds << doublings));
+    }
+
+    /**
+     * Returns the expected total delay of the given number of attempts.
+     */
+    long expectedElapsedSeconds(final int attempts) {
+        long elapsed = 0L;
+        for (int attempt = 1; attempt <= attempts && elapsed < timeoutSeconds; attempt++) {
+            elapsed += Math.max(minDelaySeconds, ceilingSeconds(attempt) / 2);
+        }
+        return elapsed;
+    }
+
+    public static final class Builder {
+        private Duration timeout;
+        private Duration minDelay = Duration.ofSeconds(1L);
+        private Duration baseDelay;
+        private Duration maxDelay;
+        private DoubleSupplier random = () -> ThreadLocalRandom.current().nextDouble();
+
+        private Builder() {
+        }
+
+        public Builder timeout(final Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Sets the shortest delay, 1 second by default.
+         */
+        public Builder minDelay(final Duration minDelay) {
+            this.minDelay = minDelay;
+            return this;
+        }
+
+        /**
+         * Sets the upper bound of the first delay, which doubles with each attempt.
+         */
+        public Builder baseDelay(final Duration baseDelay) {
+            this.baseDelay = baseDelay;
+            return this;
+        }
+
+        public Builder maxDelay(final Duration maxDelay) {
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * Sets the source of uniform random numbers in [0, 1), for tests.
+         */
+        Builder random(final DoubleSupplier random) {
+            this.random = random;
+            return this;
+        }
+
+        public JitteredExponentialDelay build() {
+            Validate.notNull(timeout, "timeout");
+            Validate.notNull(baseDelay, "baseDelay");
+            Validate.notNull(maxDelay, "maxDelay");
+            Validate.isTrue(minDelay.getSeconds() >= 1L, "minDelay must be at least 1 second");
+            Validate.isTrue(baseDelay.compareTo(minDelay) >= 0, "baseDelay must not be less than minDelay");
+            Validate.isTrue(maxDelay.compareTo(baseDelay) >= 0, "maxDelay must not be less than baseDelay");
+            return new JitteredExponentialDelay(this);
+        }
+    }
+}
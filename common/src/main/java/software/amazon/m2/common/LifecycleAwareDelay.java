@@ -0,0 +1,37 @@
+package software.amazon.m2.common;
+
+import org.apache.commons.lang3.Validate;
+import software.amazon.cloudformation.proxy.Delay;
+
+import java.time.Duration;
+
+/**
+ * Stabilization delay that follows the lifecycle state last seen by the stabilization check.
+ * <p>
+ * The check records the state it read with {@link #observe(Duration)}, passing its poll interval from
+ * {@link LifecycleStates}. The next delay is then drawn from the given {@link JitteredExponentialDelay}, capped at
+ * that interval. Until a state is observed, the delay is the one of the underlying strategy. A new instance is
+ * needed for each stabilization.
+ */
+public final class LifecycleAwareDelay implements Delay {
+
+    private final JitteredExponentialDelay delay;
+    private volatile Duration pollInterval;
+
+    public LifecycleAwareDelay(final JitteredExponentialDelay delay) {
+        this.delay = Validate.notNull(delay);
+    }
+
+    /**
+     * Records the poll interval of the state just read, or null if the state has none.
+     */
+    public void observe(final Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public Duration nextDelay(final int attempt) {
+        final Duration cap = pollInterval;
+        return cap == null ? delay.nextDelay(attempt) : delay.nextDelay(attempt, cap);
+    }
+}
@@ -0,0 +1,106 @@
+package software.amazon.m2.common;
+
+import org.apache.commons.lang3.Validate;
+import software.amazon.awssdk.services.m2.model.ApplicationLifecycle;
+import software.amazon.awssdk.services.m2.model.ApplicationVersionLifecycle;
+import software.amazon.awssdk.services.m2.model.EnvironmentLifecycle;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Classification of the lifecycle states of an M2 resource, used to stabilize it.
+ * <p>
+ * Each known state either settles the resource, fails it, or is a transition, which comes with its own poll
+ * interval: long transitions such as environment creation are polled less often than short ones, which are about to
+ * settle. States that are not mapped, including values unknown to the SDK, are {@link Outcome#UNKNOWN}.
+ */
+public final class LifecycleStates<S extends Enum<S>> {
+
+    public enum Outcome {
+        IN_PROGRESS, SUCCEEDED, FAILED, UNKNOWN
+    }
+
+    public static final LifecycleStates<EnvironmentLifecycle> ENVIRONMENT = of(EnvironmentLifecycle.class)
+        .inProgress(EnvironmentLifecycle.CREATING, Duration.ofSeconds(60L))
+        .inProgress(EnvironmentLifecycle.UPDATING, Duration.ofSeconds(30L))
+        .inProgress(EnvironmentLifecycle.DELETING, Duration.ofSeconds(20L))
+        .succeeded(EnvironmentLifecycle.AVAILABLE)
+        .failed(EnvironmentLifecycle.FAILED)
+        .build();
+
+    public static final LifecycleStates<ApplicationLifecycle> APPLICATION = of(ApplicationLifecycle.class)
+        .inProgress(ApplicationLifecycle.CREATING, Duration.ofSeconds(20L))
+        .inProgress(ApplicationLifecycle.DELETING, Duration.ofSeconds(10L))
+        .succeeded(ApplicationLifecycle.CREATED)
+        .succeeded(ApplicationLifecycle.READY)
+        .succeeded(ApplicationLifecycle.STOPPED)
+        .succeeded(ApplicationLifecycle.AVAILABLE)
+        .failed(ApplicationLifecycle.FAILED)
+        .build();
+
+    public static final LifecycleStates<ApplicationVersionLifecycle> APPLICATION_VERSION =
+        of(ApplicationVersionLifecycle.class)
+            .inProgress(ApplicationVersionLifecycle.CREATING, Duration.ofSeconds(10L))
+            .succeeded(ApplicationVersionLifecycle.AVAILABLE)
+            .failed(ApplicationVersionLifecycle.FAILED)
+            .build();
+
+    private final Map<S, Outcome> outcomes;
+    private final Map<S, Duration> pollIntervals;
+
+    private LifecycleStates(final Map<S, Outcome> outcomes, final Map<S, Duration> pollIntervals) {
+        this.outcomes = outcomes;
+        this.pollIntervals = pollIntervals;
+    }
+
+    public static <S extends Enum<S>> Builder<S> of(final Class<S> stateType) {
+        return new Builder<>(stateType);
+    }
+
+    public Outcome outcome(final S state) {
+        return state == null ? Outcome.UNKNOWN : outcomes.getOrDefault(state, Outcome.UNKNOWN);
+    }
+
+    /**
+     * Returns the poll interval of a transition state, or null for other states.
+     */
+    public Duration pollInterval(final S state) {
+        return state == null ? null : pollIntervals.get(state);
+    }
+
+    public static final class Builder<S extends Enum<S>> {
+        private final EnumMap<S, Outcome> outcomes;
+        private final EnumMap<S, Duration> pollIntervals;
+
+        private Builder(final Class<S> stateType) {
+            this.outcomes = new EnumMap<>(stateType);
+            this.pollIntervals = new EnumMap<>(stateType);
+        }
+
+        public Builder<S> inProgress(final S state, final Duration pollInterval) {
+            Validate.notNull(pollInterval);
+            pollIntervals.put(state, pollInterval);
+            return put(state, Outcome.IN_PROGRESS);
+        }
+
+        public Builder<S> succeeded(final S state) {
+            return put(state, Outcome.SUCCEEDED);
+        }
+
+        public Builder<S> failed(final S state) {
+            return put(state, Outcome.FAILED);
+        }
+
+        public LifecycleStates<S> build() {
+            return new LifecycleStates<>(new EnumMap<>(outcomes), new EnumMap<>(pollIntervals));
+        }
+
+        private Builder<S> put(final S state, final Outcome outcome) {
+            Validate.notNull(state);
+            Validate.isTrue(outcomes.putIfAbsent(state, outcome) == null, "State %s is already mapped", state);
+            return this;
+        }
+    }
+}
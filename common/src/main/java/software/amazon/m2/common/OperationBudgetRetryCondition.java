@@ -0,0 +1,53 @@
+package software.amazon.m2.common;
+
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.RetryUtils;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+import software.amazon.m2.common.RetryPolicies.OperationClass;
+import software.amazon.m2.common.RetryPolicies.RetryBudget;
+
+import java.util.Map;
+
+/**
+ * Retries the errors the SDK considers retryable, until the call has used up the budget of its operation class for
+ * that kind of error. Retries already made are counted in the execution attributes of the call. Those attributes
+ * are kept across the attempts of one call and are not shared between calls.
+ */
+final class OperationBudgetRetryCondition implements RetryCondition {
+
+    static final ExecutionAttribute<Integer> THROTTLING_RETRIES = new ExecutionAttribute<>("M2ThrottlingRetries");
+    static final ExecutionAttribute<Integer> TRANSIENT_RETRIES = new ExecutionAttribute<>("M2TransientRetries");
+
+    private final RetryCondition retryableErrors = RetryCondition.defaultRetryCondition();
+    private final Map<OperationClass, RetryBudget> budgets;
+
+    OperationBudgetRetryCondition(final Map<OperationClass, RetryBudget> budgets) {
+        this.budgets = budgets;
+    }
+
+    @Override
+    public boolean shouldRetry(final RetryPolicyContext context) {
+        if (!retryableErrors.shouldRetry(context)) {
+            return false;
+        }
+
+        final ExecutionAttributes attributes = context.executionAttributes();
+        final RetryBudget budget = budgets.get(
+            OperationClass.of(attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME)));
+
+        final boolean throttled = RetryUtils.isThrottlingException(context.exception());
+        final ExecutionAttribute<Integer> counter = throttled ? THROTTLING_RETRIES : TRANSIENT_RETRIES;
+        final int allowed = throttled ? budget.getThrottlingRetries() : budget.getTransientRetries();
+
+        final Integer used = attributes.getAttribute(counter);
+        final int retries = used == null ? 0 : used;
+        if (retries >= allowed) {
+            return false;
+        }
+        attributes.putAttribute(counter, retries + 1);
+        return true;
+    }
+}
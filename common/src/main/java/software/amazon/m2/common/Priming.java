@@ -0,0 +1,63 @@
+package software.amazon.m2.common;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms a handler container before its first request.
+ * <p>
+ * The first request in a new container otherwise pays for building the M2 clients and for loading the SDK model,
+ * Jackson and translation classes. Priming runs that work once at container init, from the static initializer of
+ * the handlers, so that it happens outside the request's clock (and is captured in the snapshot when SnapStart is
+ * enabled). Priming is best effort: a failure is logged and the handler works as if it had not been primed.
+ */
+public final class Priming {
+
+    static final String LAMBDA_FUNCTION_NAME_ENV_VARIABLE = "AWS_LAMBDA_FUNCTION_NAME";
+    static final String REGION_ENV_VARIABLE = "AWS_REGION";
+
+    private static final Logger LOG = LogManager.getLogger(Priming.class);
+
+    /**
+     * Resource specific priming work, such as a serialization round trip of a sample model.
+     */
+    @FunctionalInterface
+    public interface Primer {
+        void prime() throws Exception;
+    }
+
+    private Priming() {
+    }
+
+    /**
+     * Primes the container when running in Lambda. Does nothing elsewhere, e.g. in unit tests.
+     */
+    public static void primeInLambda(final String typeName, final Primer primer) {
+        if (System.getenv(LAMBDA_FUNCTION_NAME_ENV_VARIABLE) != null) {
+            prime(typeName, primer);
+        }
+    }
+
+    /**
+     * Builds the M2 clients and runs the given primer.
+     *
+     * @return whether priming completed
+     */
+    static boolean prime(final String typeName, final Primer primer) {
+        final long start = System.nanoTime();
+        try {
+            // Requests are normally for the region the function runs in, so prime the pooled clients for it
+            final String region = System.getenv(REGION_ENV_VARIABLE);
+            ClientBuilder.getClient(region);
+            ClientBuilder.getAsyncClient(region);
+            primer.prime();
+        } catch (final Exception | LinkageError e) {
+            LOG.warn("Priming {} failed, continuing without it", typeName, e);
+            return false;
+        }
+        LOG.info("Primed {} in {} ms", typeName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return true;
+    }
+}
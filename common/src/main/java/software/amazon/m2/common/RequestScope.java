@@ -0,0 +1,31 @@
+package software.amazon.m2.common;
+
+import lombok.Value;
+import org.apache.commons.lang3.Validate;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+/**
+ * Account and region a handler invocation works in.
+ * <p>
+ * Container-wide components, such as the {@link ApiRateLimiter}, keep their state per scope, so that the calls made
+ * for one account or region never wait for or are refused because of those of another. The scope is built once per
+ * invocation from its request and given to each call.
+ */
+@Value
+public class RequestScope {
+    String awsAccountId;
+    String region;
+
+    public static RequestScope of(final ResourceHandlerRequest<?> request) {
+        Validate.notNull(request);
+        return new RequestScope(request.getAwsAccountId(), request.getRegion());
+    }
+
+    /**
+     * Returns {@code account|region}, the prefix of the keys this scope's state is kept under.
+     */
+    @Override
+    public String toString() {
+        return awsAccountId + "|" + region;
+    }
+}
@@ -0,0 +1,131 @@
+package software.amazon.m2.common;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.lang3.Validate;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
+import software.amazon.awssdk.core.retry.conditions.TokenBucketExceptionCostFunction;
+import software.amazon.awssdk.core.retry.conditions.TokenBucketRetryCondition;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Retry policies for the M2 clients.
+ * <p>
+ * The policies use the SDK's adaptive retry mode, so a client that is being throttled slows its own request rate
+ * down. Every retry also has to take capacity from a client-side token bucket, so a burst of failures cannot turn
+ * into a burst of retries. Throttling errors and transient server errors have separate retry budgets, and the
+ * budgets depend on whether the operation mutates a resource or only reads or polls it.
+ */
+public final class RetryPolicies {
+
+    /**
+     * How an operation is treated when deciding whether to retry it.
+     */
+    public enum OperationClass {
+        /** Create, update, delete, start and tag operations. */
+        MUTATING,
+        /** Get and List operations, including the polls made while waiting for a resource to stabilize. */
+        READ;
+
+        /**
+         * Classifies an M2 operation by its name, e.g. {@code GetEnvironment}. Unknown operations count as mutating,
+         * which gets the larger retry budget.
+         */
+        public static OperationClass of(final String operationName) {
+            if (operationName != null && (operationName.startsWith("Get") || operationName.startsWith("List"))) {
+                return READ;
+            }
+            return MUTATING;
+        }
+    }
+
+    /**
+     * The number of retries allowed for one call, counted separately for throttling errors and for transient
+     * errors such as 5xx responses and I/O failures.
+     */
+    public static final class RetryBudget {
+        private final int throttlingRetries;
+        private final int transientRetries;
+
+        public RetryBudget(final int throttlingRetries, final int transientRetries) {
+            Validate.isTrue(throttlingRetries >= 0, "throttlingRetries must not be negative");
+            Validate.isTrue(transientRetries >= 0, "transientRetries must not be negative");
+            this.throttlingRetries = throttlingRetries;
+            this.transientRetries = transientRetries;
+        }
+
+        public int getThrottlingRetries() {
+            return throttlingRetries;
+        }
+
+        public int getTransientRetries() {
+            return transientRetries;
+        }
+
+        int total() {
+            return throttlingRetries + transientRetries;
+        }
+    }
+
+    // A failed mutation fails the whole stack operation, so mutations get the larger budget. A failed poll is
+    // retried by the next stabilization attempt anyway, so retrying it here mostly adds load.
+    public static final Map<OperationClass, RetryBudget> DEFAULT_BUDGETS = ImmutableMap.of(
+        OperationClass.MUTATING, new RetryBudget(5, 3),
+        OperationClass.READ, new RetryBudget(3, 2));
+
+    private static final Duration BASE_DELAY = Duration.ofMillis(100);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(20);
+    private static final Duration THROTTLING_BASE_DELAY = Duration.ofMillis(500);
+    private static final Duration THROTTLING_MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private static final int TOKEN_BUCKET_SIZE = 500;
+    private static final int THROTTLING_EXCEPTION_COST = 5;
+    private static final int TRANSIENT_EXCEPTION_COST = 10;
+
+    private RetryPolicies() {
+    }
+
+    /**
+     * Returns the adaptive retry policy with the default budgets.
+     */
+    public static RetryPolicy adaptive() {
+        return adaptive(DEFAULT_BUDGETS);
+    }
+
+    /**
+     * Returns the adaptive retry policy with the given budget for each operation class.
+     */
+    public static RetryPolicy adaptive(final Map<OperationClass, RetryBudget> budgets) {
+        Validate.notNull(budgets);
+        for (final OperationClass operationClass : OperationClass.values()) {
+            Validate.notNull(budgets.get(operationClass), "No retry budget for %s operations", operationClass);
+        }
+
+        // The per-class budgets decide how often a call is retried. numRetries only has to be high enough to
+        // never cut a budget short.
+        final int maxRetries = budgets.values().stream().mapToInt(RetryBudget::total).max().orElse(0);
+
+        return RetryPolicy.builder(RetryMode.ADAPTIVE)
+            .numRetries(maxRetries)
+            .retryCondition(new OperationBudgetRetryCondition(budgets))
+            .retryCapacityCondition(TokenBucketRetryCondition.builder()
+                .tokenBucketSize(TOKEN_BUCKET_SIZE)
+                .exceptionCostFunction(TokenBucketExceptionCostFunction.builder()
+                    .throttlingExceptionCost(THROTTLING_EXCEPTION_COST)
+                    .defaultExceptionCost(TRANSIENT_EXCEPTION_COST)
+                    .build())
+                .build())
+            .backoffStrategy(FullJitterBackoffStrategy.builder()
+                .baseDelay(BASE_DELAY)
+                .maxBackoffTime(MAX_BACKOFF)
+                .build())
+            .throttlingBackoffStrategy(FullJitterBackoffStrategy.builder()
+                .baseDelay(THROTTLING_BASE_DELAY)
+                .maxBackoffTime(THROTTLING_MAX_BACKOFF)
+                .build())
+            .build();
+    }
+}
@@ -0,0 +1,38 @@
+package software.amazon.m2.common;
+
+import com.google.common.base.Enums;
+
+/**
+ * How handlers wait for a resource to stabilize after a mutating call.
+ * <p>
+ * The mode is read once per container from the {@value #MODE_ENV_VARIABLE} environment variable. If the variable is
+ * missing or does not name a mode, {@link #POLL} is used.
+ */
+public enum StabilizationMode {
+
+    /**
+     * Poll within the handler invocation, sleeping between polls for as long as the invocation has time left.
+     */
+    POLL,
+
+    /**
+     * Poll once per handler invocation and return IN_PROGRESS with a callback delay until the resource is stable, so
+     * that no compute is paid for while waiting.
+     */
+    CALLBACK;
+
+    public static final String MODE_ENV_VARIABLE = "M2_STABILIZATION_MODE";
+
+    private static final StabilizationMode CONFIGURED = fromName(System.getenv(MODE_ENV_VARIABLE));
+
+    public static StabilizationMode fromEnvironment() {
+        return CONFIGURED;
+    }
+
+    static StabilizationMode fromName(final String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return POLL;
+        }
+        return Enums.getIfPresent(StabilizationMode.class, name.trim().toUpperCase()).or(POLL);
+    }
+}
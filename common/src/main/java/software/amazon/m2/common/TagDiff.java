@@ -0,0 +1,225 @@
+package software.amazon.m2.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.lang3.Validate;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Tags to add to and remove from a resource on update, computed once from its previous and desired tags.
+ * <p>
+ * The tags of a resource are its stack level tags and the tags of its own {@code Tags} property, which take
+ * precedence. Each of these maps is read once, without merging or copying them. {@code aws:} system tags are managed
+ * by AWS and are neither added nor removed. Tag and untag requests take at most {@link #MAX_TAGS_PER_CALL} tags, so
+ * both sides are also available in chunks of that size.
+ */
+public final class TagDiff {
+
+    /**
+     * Most tags a single TagResource or UntagResource call takes.
+     */
+    public static final int MAX_TAGS_PER_CALL = 200;
+
+    static final String SYSTEM_TAG_PREFIX = "aws:";
+
+    private final Map<String, String> tagsToAdd;
+    private final Set<String> tagsToRemove;
+    private final int unchangedCount;
+
+    private TagDiff(final Map<String, String> tagsToAdd, final Set<String> tagsToRemove, final int unchangedCount) {
+        this.tagsToAdd = Collections.unmodifiableMap(tagsToAdd);
+        this.tagsToRemove = Collections.unmodifiableSet(tagsToRemove);
+        this.unchangedCount = unchangedCount;
+    }
+
+    /**
+     * Returns the difference between the previous and desired stack level tags of the request.
+     */
+    public static <T> TagDiff of(final ResourceHandlerRequest<T> handlerRequest) {
+        return of(handlerRequest, model -> null);
+    }
+
+    /**
+     * Returns the difference between the previous and desired tags of the request, including the ones of the
+     * {@code Tags} property of the previous and desired resource states, read with the given function.
+     */
+    public static <T> TagDiff of(final ResourceHandlerRequest<T> handlerRequest,
+                                 final Function<T, Map<String, String>> resourceTags) {
+        Validate.notNull(handlerRequest);
+        Validate.notNull(resourceTags);
+        return between(
+            handlerRequest.getPreviousResourceTags(),
+            handlerRequest.getPreviousResourceState() == null ? null
+                : resourceTags.apply(handlerRequest.getPreviousResourceState()),
+            handlerRequest.getDesiredResourceTags(),
+            handlerRequest.getDesiredResourceState() == null ? null
+                : resourceTags.apply(handlerRequest.getDesiredResourceState()));
+    }
+
+    @VisibleForTesting
+    static TagDiff between(final Map<String, String> previousTags, final Map<String, String> previousResourceTags,
+                           final Map<String, String> desiredTags, final Map<String, String> desiredResourceTags) {
+        final Map<String, String> previousStack = orEmpty(previousTags);
+        final Map<String, String> previousResource = orEmpty(previousResourceTags);
+        final Map<String, String> desiredStack = orEmpty(desiredTags);
+        final Map<String, String> desiredResource = orEmpty(desiredResourceTags);
+
+        final Map<String, String> tagsToAdd = new HashMap<>();
+        int unchangedCount = 0;
+        for (final Map.Entry<String, String> tag : desiredResource.entrySet()) {
+            unchangedCount += addIfChanged(tag, previousStack, previousResource, tagsToAdd);
+        }
+        for (final Map.Entry<String, String> tag : desiredStack.entrySet()) {
+            if (!desiredResource.containsKey(tag.getKey())) {
+                unchangedCount += addIfChanged(tag, previousStack, previousResource, tagsToAdd);
+            }
+        }
+
+        final Set<String> tagsToRemove = new HashSet<>();
+        addIfDropped(previousResource.keySet(), desiredStack, desiredResource, tagsToRemove);
+        addIfDropped(previousStack.keySet(), desiredStack, desiredResource, tagsToRemove);
+        return new TagDiff(tagsToAdd, tagsToRemove, unchangedCount);
+    }
+
+    /**
+     * Adds the tag if it is new or its value changed, and returns 1 if it is unchanged, 0 otherwise.
+     */
+    private static int addIfChanged(final Map.Entry<String, String> tag,
+                                    final Map<String, String> previousStack,
+                                    final Map<String, String> previousResource,
+                                    final Map<String, String> tagsToAdd) {
+        final String key = tag.getKey();
+        if (isSystemTag(key)) {
+            return 0;
+        }
+        final boolean existed = previousResource.containsKey(key) || previousStack.containsKey(key);
+        final String previousValue = previousResource.containsKey(key) ? previousResource.get(key) : previousStack.get(key);
+        if (existed && Objects.equals(previousValue, tag.getValue())) {
+            return 1;
+        }
+        tagsToAdd.put(key, tag.getValue());
+        return 0;
+    }
+
+    private static void addIfDropped(final Set<String> previousKeys,
+                                     final Map<String, String> desiredStack,
+                                     final Map<String, String> desiredResource,
+                                     final Set<String> tagsToRemove) {
+        for (final String key : previousKeys) {
+            if (!isSystemTag(key) && !desiredResource.containsKey(key) && !desiredStack.containsKey(key)) {
+                tagsToRemove.add(key);
+            }
+        }
+    }
+
+    private static boolean isSystemTag(final String key) {
+        return key != null && key.regionMatches(true, 0, SYSTEM_TAG_PREFIX, 0, SYSTEM_TAG_PREFIX.length());
+    }
+
+    private static Map<String, String> orEmpty(final Map<String, String> tags) {
+        return tags == null ? Collections.emptyMap() : tags;
+    }
+
+    /**
+     * Returns the tags that are new or whose value changed.
+     */
+    public Map<String, String> getTagsToAdd() {
+        return tagsToAdd;
+    }
+
+    /**
+     * Returns the keys of the tags that are no longer desired.
+     */
+    public Set<String> getTagsToRemove() {
+        return tagsToRemove;
+    }
+
+    /**
+     * Returns the number of desired tags that are already attached with the same value.
+     */
+    public int getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    /**
+     * Returns true if no tag is to be added or removed.
+     */
+    public boolean isEmpty() {
+        return tagsToAdd.isEmpty() && tagsToRemove.isEmpty();
+    }
+
+    /**
+     * Returns the tags to add, split into chunks that fit a single TagResource call.
+     */
+    public List<Map<String, String>> getTagsToAddChunks() {
+        return getTagsToAddChunks(MAX_TAGS_PER_CALL);
+    }
+
+    @VisibleForTesting
+    List<Map<String, String>> getTagsToAddChunks(final int maxTagsPerCall) {
+        return chunks(tagsToAdd.entrySet(), maxTagsPerCall, tagsToAdd, HashMap::new,
+            (chunk, tag) -> chunk.put(tag.getKey(), tag.getValue()));
+    }
+
+    /**
+     * Returns the keys of the tags to remove, split into chunks that fit a single UntagResource call.
+     */
+    public List<Set<String>> getTagsToRemoveChunks() {
+        return getTagsToRemoveChunks(MAX_TAGS_PER_CALL);
+    }
+
+    @VisibleForTesting
+    List<Set<String>> getTagsToRemoveChunks(final int maxTagsPerCall) {
+        return chunks(tagsToRemove, maxTagsPerCall, tagsToRemove, HashSet::new, Set::add);
+    }
+
+    /**
+     * Returns the call graph name of the tagging call of the given chunk. The proxy records each call in the callback
+     * context under its call graph name, so every chunk needs its own; the first chunk keeps the given name.
+     */
+    public static String chunkCallGraph(final String callGraph, final int chunkIndex) {
+        return chunkIndex == 0 ? callGraph : callGraph + "-" + (chunkIndex + 1);
+    }
+
+    private static <E, C> List<C> chunks(final Collection<E> elements, final int maxTagsPerCall, final C whole,
+                                         final Function<Integer, C> newChunk,
+                                         final BiConsumer<C, E> add) {
+        Validate.isTrue(maxTagsPerCall > 0, "maxTagsPerCall must be positive");
+        if (elements.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (elements.size() <= maxTagsPerCall) {
+            return Collections.singletonList(whole);
+        }
+        final List<C> chunks = new ArrayList<>();
+        C chunk = null;
+        int chunkSize = 0;
+        for (final E element : elements) {
+            if (chunk == null || chunkSize == maxTagsPerCall) {
+                chunk = newChunk.apply(maxTagsPerCall);
+                chunkSize = 0;
+                chunks.add(chunk);
+            }
+            add.accept(chunk, element);
+            chunkSize++;
+        }
+        return chunks;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d tags to add, %d to remove, %d unchanged",
+            tagsToAdd.size(), tagsToRemove.size(), unchangedCount);
+    }
+}
@@ -0,0 +1,109 @@
+package software.amazon.m2.common;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.m2.common.RetryPolicies.OperationClass;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ApiRateLimiterTest {
+
+    private static final RequestScope SCOPE = new RequestScope("123456789012", "us-west-2");
+
+    private long nowNanos;
+    private ApiRateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setup() {
+        nowNanos = 0L;
+        rateLimiter = new ApiRateLimiter(
+            ImmutableMap.of(
+                OperationClass.MUTATING, new ApiRateLimiter.Limit(1.0, 1),
+                OperationClass.READ, new ApiRateLimiter.Limit(2.0, 2)),
+            () -> nowNanos,
+            nanos -> nowNanos += nanos);
+    }
+
+    @Test
+    public void burstGoesOutThenCallsAreSpacedAtTheRate() {
+        assertThat(rateLimiter.acquire(SCOPE, "GetEnvironment")).isEqualTo(0L);
+        assertThat(rateLimiter.acquire(SCOPE, "GetEnvironment")).isEqualTo(0L);
+        assertThat(rateLimiter.acquire(SCOPE, "GetEnvironment")).isEqualTo(500L);
+        assertThat(rateLimiter.acquire(SCOPE, "GetEnvironment")).isEqualTo(500L);
+
+        final ApiRateLimiter.Stats stats = rateLimiter.getStats().get("123456789012|us-west-2|GetEnvironment");
+        assertThat(stats.getAcquired()).isEqualTo(4L);
+        assertThat(stats.getWaited()).isEqualTo(2L);
+        assertThat(stats.getTotalWaitMillis()).isEqualTo(1000L);
+        assertThat(stats.getMaxWaitMillis()).isEqualTo(500L);
+        assertThat(stats.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void asyncAcquireDoesNotBlockTheCaller() {
+        assertThat(rateLimiter.acquireAsync(SCOPE, "GetEnvironment")).isCompletedWithValue(0L);
+        assertThat(rateLimiter.acquireAsync(SCOPE, "GetEnvironment")).isCompletedWithValue(0L);
+
+        final CompletableFuture<Long> waiting = rateLimiter.acquireAsync(SCOPE, "GetEnvironment");
+        assertThat(waiting).isNotDone();
+        assertThat(rateLimiter.getStats().get("123456789012|us-west-2|GetEnvironment").getQueueDepth()).isEqualTo(1);
+        assertThat(waiting.join()).isEqualTo(500L);
+        assertThat(rateLimiter.getStats().get("123456789012|us-west-2|GetEnvironment").getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void disabledLimiterNeverWaits() {
+        final ApiRateLimiter disabled = ApiRateLimiter.disabled();
+        for (int i = 0; i < 100; i++) {
+            assertThat(disabled.acquire(SCOPE, "CreateEnvironment")).isEqualTo(0L);
+            assertThat(disabled.acquireAsync(SCOPE, "CreateEnvironment")).isCompletedWithValue(0L);
+        }
+        assertThat(disabled.getStats()).isEmpty();
+    }
+
+    @Test
+    public void bucketRefillsWhileIdle() {
+        rateLimiter.acquire(SCOPE, "CreateEnvironment");
+        nowNanos += TimeUnit.SECONDS.toNanos(1);
+
+        assertThat(rateLimiter.acquire(SCOPE, "CreateEnvironment")).isEqualTo(0L);
+    }
+
+    @Test
+    public void bucketsAreKeyedByScopeAndOperation() {
+        rateLimiter.acquire(SCOPE, "CreateEnvironment");
+        assertThat(rateLimiter.acquire(SCOPE, "DeleteEnvironment")).isEqualTo(0L);
+
+        assertThat(rateLimiter.acquire(new RequestScope("123456789012", "eu-west-1"), "CreateEnvironment"))
+            .isEqualTo(0L);
+
+        assertThat(rateLimiter.getStats()).containsOnlyKeys(
+            "123456789012|us-west-2|CreateEnvironment",
+            "123456789012|us-west-2|DeleteEnvironment",
+            "123456789012|eu-west-1|CreateEnvironment");
+    }
+
+    @Test
+    public void callsThatWouldWaitTooLongGoOutAsOverflow() {
+        // Queue up calls without letting the clock advance, as if they were all waiting at once
+        final ApiRateLimiter queued = new ApiRateLimiter(
+            ImmutableMap.of(
+                OperationClass.MUTATING, new ApiRateLimiter.Limit(1.0, 1),
+                OperationClass.READ, new ApiRateLimiter.Limit(1.0, 1)),
+            () -> 0L,
+            nanos -> { });
+
+        for (int i = 0; i <= TimeUnit.MILLISECONDS.toSeconds(ApiRateLimiter.MAX_WAIT_MILLIS); i++) {
+            queued.acquire(SCOPE, "UpdateEnvironment");
+        }
+        assertThat(queued.acquire(SCOPE, "UpdateEnvironment")).isEqualTo(0L);
+
+        final ApiRateLimiter.Stats stats = queued.getStats().get("123456789012|us-west-2|UpdateEnvironment");
+        assertThat(stats.getOverflows()).isEqualTo(1L);
+        assertThat(stats.getMaxWaitMillis()).isEqualTo(ApiRateLimiter.MAX_WAIT_MILLIS);
+    }
+}
@@ -0,0 +1,69 @@
+package software.amazon.m2.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static software.amazon.m2.common.JitteredExponentialDelayTest.simulate;
+
+public class ApplicationBackoffTest {
+
+    private static final String SMALL_CONTENT = "{\"template-version\": \"2.0\"}";
+
+    @Test
+    public void smallInlineDefinitionsArePolledEagerly() {
+        assertThat(ApplicationBackoff.forCreate(SMALL_CONTENT, null))
+            .isSameAs(Constants.BACKOFF_STRATEGY_STABILIZE_APPLICATION_CREATE);
+        assertThat(ApplicationBackoff.forNewVersion(SMALL_CONTENT, null))
+            .isSameAs(Constants.BACKOFF_STRATEGY_STABILIZE_APPLICATION_VERSION);
+        assertThat(ApplicationBackoff.forNewVersion(null, null))
+            .isSameAs(Constants.BACKOFF_STRATEGY_STABILIZE_APPLICATION_VERSION);
+    }
+
+    @Test
+    public void s3AndLargeDefinitionsUseLongerDelays() {
+        final String largeContent = new String(new char[ApplicationBackoff.LARGE_CONTENT_LENGTH]).replace('\0', ' ');
+
+        assertThat(ApplicationBackoff.forCreate(null, "s3://bucket/definition.json"))
+            .isSameAs(Constants.BACKOFF_STRATEGY_STABILIZE_APPLICATION_CREATE_LARGE);
+        assertThat(ApplicationBackoff.forCreate(largeContent, null))
+            .isSameAs(Constants.BACKOFF_STRATEGY_STABILIZE_APPLICATION_CREATE_LARGE);
+        assertThat(ApplicationBackoff.forNewVersion(null, "s3://bucket/definition.json"))
+            .isSameAs(Constants.BACKOFF_STRATEGY_STABILIZE_APPLICATION_VERSION_LARGE);
+        assertThat(ApplicationBackoff.forNewVersion(largeContent.substring(1), null))
+            .isSameAs(Constants.BACKOFF_STRATEGY_STABILIZE_APPLICATION_VERSION);
+    }
+
+    /**
+     * Polls simulated application transitions in virtual time, with each strategy and with the former single
+     * application strategy, and compares how long after the transition it is noticed.
+     */
+    @Test
+    public void virtualTimeBenchmark() {
+        final JitteredExponentialDelay former = JitteredExponentialDelay.of()
+            .timeout(Duration.ofDays(3L))
+            .baseDelay(Duration.ofSeconds(5L))
+            .maxDelay(Duration.ofSeconds(30L))
+            .build();
+
+        final JitteredExponentialDelayTest.Result createSmall =
+            simulate(ApplicationBackoff.forCreate(SMALL_CONTENT, null), Duration.ofMinutes(2L));
+        final JitteredExponentialDelayTest.Result versionSmall =
+            simulate(ApplicationBackoff.forNewVersion(SMALL_CONTENT, null), Duration.ofMinutes(1L));
+        final JitteredExponentialDelayTest.Result delete = simulate(ApplicationBackoff.forDelete(), Duration.ofMinutes(1L));
+        final JitteredExponentialDelayTest.Result createLarge =
+            simulate(ApplicationBackoff.forCreate(null, "s3://b/d"), Duration.ofMinutes(6L));
+        final JitteredExponentialDelayTest.Result versionLarge =
+            simulate(ApplicationBackoff.forNewVersion(null, "s3://b/d"), Duration.ofMinutes(4L));
+
+        // Quick transitions are noticed in about two thirds of the time, or better
+        final double formerDetection = simulate(former, Duration.ofMinutes(2L)).detectionSeconds;
+        assertThat(createSmall.detectionSeconds).isLessThan(formerDetection * 0.75);
+        assertThat(versionSmall.detectionSeconds).isLessThan(formerDetection * 0.75);
+        assertThat(delete.detectionSeconds).isLessThan(formerDetection * 0.75);
+        // Slower transitions are noticed no later than before
+        assertThat(createLarge.detectionSeconds).isLessThan(formerDetection + 2.0);
+        assertThat(versionLarge.detectionSeconds).isLessThan(formerDetection);
+    }
+}
@@ -0,0 +1,126 @@
+package software.amazon.m2.common;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BulkStatusCacheTest {
+
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(2L);
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(10L);
+
+    private static final RequestScope SCOPE = new RequestScope("123456789012", "us-west-2");
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger listings = new AtomicInteger();
+    private final Map<String, String> listed = new HashMap<>();
+    private final BulkStatusCache<String> cache = new BulkStatusCache<>(3, WINDOW_NANOS, REFRESH_NANOS, now::get);
+
+    @BeforeEach
+    public void setup() {
+        listed.put("env-1", "CREATING");
+        listed.put("env-2", "CREATING");
+        listed.put("env-3", "AVAILABLE");
+    }
+
+    @Test
+    public void doesNotListForFewWatches() {
+        assertThat(status("env-1")).isEmpty();
+        assertThat(status("env-2")).isEmpty();
+        assertThat(listings.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void listsOncePerRefreshForManyWatches() {
+        status("env-1");
+        status("env-2");
+
+        assertThat(status("env-3")).contains("AVAILABLE");
+        assertThat(status("env-1")).contains("CREATING");
+        assertThat(status("env-2")).contains("CREATING");
+        assertThat(listings.get()).isEqualTo(1);
+
+        listed.put("env-1", "AVAILABLE");
+        now.addAndGet(REFRESH_NANOS);
+        assertThat(status("env-1")).contains("AVAILABLE");
+        assertThat(listings.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void unlistedResourceHasNoStatus() {
+        status("env-1");
+        status("env-2");
+
+        assertThat(status("env-4")).isEmpty();
+    }
+
+    @Test
+    public void watchesExpire() {
+        status("env-1");
+        status("env-2");
+        now.addAndGet(WINDOW_NANOS);
+
+        assertThat(status("env-3")).isEmpty();
+        assertThat(listings.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void watchesAreScopedToAccountAndRegion() {
+        status("env-1");
+        status("env-2");
+
+        assertThat(cache.status(new RequestScope("123456789012", "eu-west-1"), "env-3", () -> {
+            listings.incrementAndGet();
+            return new HashMap<>(listed);
+        })).isEmpty();
+        assertThat(cache.status(new RequestScope("210987654321", "us-west-2"), "env-3", () -> {
+            listings.incrementAndGet();
+            return new HashMap<>(listed);
+        })).isEmpty();
+        assertThat(listings.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void groupsAreWatchedAndListedSeparately() {
+        status("env-1");
+        status("env-2");
+        assertThat(cache.status(SCOPE, "group", "env-3", () -> {
+            listings.incrementAndGet();
+            return new HashMap<>(listed);
+        })).isEmpty();
+
+        assertThat(status("env-3")).contains("AVAILABLE");
+        assertThat(listings.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void failedListingFallsBackUntilNextRefresh() {
+        status("env-1");
+        status("env-2");
+
+        assertThat(cache.status(SCOPE, "env-3", () -> {
+            listings.incrementAndGet();
+            throw new IllegalStateException("throttled");
+        })).isEmpty();
+        assertThat(status("env-1")).isEmpty();
+        assertThat(listings.get()).isEqualTo(1);
+
+        now.addAndGet(REFRESH_NANOS);
+        assertThat(status("env-1")).contains("CREATING");
+    }
+
+    private Optional<String> status(final String resourceId) {
+        return cache.status(SCOPE, resourceId, () -> {
+            listings.incrementAndGet();
+            return new HashMap<>(listed);
+        });
+    }
+}
@@ -0,0 +1,216 @@
+package software.amazon.m2.common;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.m2.model.InternalServerException;
+import software.amazon.awssdk.services.m2.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.m2.model.ThrottlingException;
+import software.amazon.m2.common.CircuitBreaker.Permission;
+import software.amazon.m2.common.CircuitBreaker.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CircuitBreakerTest {
+
+    private static final String OPERATION = "GetEnvironment";
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<State> transitions = new ArrayList<>();
+    private final CircuitBreaker breaker =
+        new CircuitBreaker(OPERATION, clock::get, (operation, from, to) -> transitions.add(to));
+
+    @Test
+    public void staysClosedBelowMinimumCalls() {
+        for (int i = 0; i < CircuitBreaker.MIN_CALLS - 1; i++) {
+            fail();
+        }
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(transitions).isEmpty();
+    }
+
+    @Test
+    public void staysClosedBelowFailureRate() {
+        for (int i = 0; i < CircuitBreaker.WINDOW_SIZE; i++) {
+            if (i % 3 == 0) {
+                fail();
+            } else {
+                succeed();
+            }
+        }
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void opensAtFailureRateAndRefusesCalls() {
+        open();
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(transitions).containsExactly(State.OPEN);
+
+        advanceSeconds(10);
+        assertThatThrownBy(breaker::acquirePermission)
+            .isInstanceOfSatisfying(CircuitBreakerOpenException.class, e -> {
+                assertThat(e.getOperation()).isEqualTo(OPERATION);
+                assertThat(e.getRetryAfterSeconds()).isEqualTo(CircuitBreaker.OPEN_SECONDS - 10);
+            });
+    }
+
+    @Test
+    public void oldOutcomesLeaveTheWindow() {
+        for (int i = 0; i < CircuitBreaker.WINDOW_SIZE / 2 - 1; i++) {
+            fail();
+        }
+        for (int i = 0; i < CircuitBreaker.WINDOW_SIZE * 2; i++) {
+            succeed();
+        }
+        for (int i = 0; i < CircuitBreaker.WINDOW_SIZE / 2 - 1; i++) {
+            fail();
+        }
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void halfOpenTrialSuccessCloses() {
+        open();
+        advanceSeconds(CircuitBreaker.OPEN_SECONDS);
+
+        final Permission trial = breaker.acquirePermission();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        // Only one trial call at a time
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(CircuitBreakerOpenException.class);
+
+        breaker.onSuccess(trial);
+        breaker.release(trial);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(transitions).containsExactly(State.OPEN, State.HALF_OPEN, State.CLOSED);
+        breaker.acquirePermission();
+    }
+
+    @Test
+    public void halfOpenTrialFailureReopens() {
+        open();
+        advanceSeconds(CircuitBreaker.OPEN_SECONDS);
+
+        final Permission trial = breaker.acquirePermission();
+        breaker.onFailure(trial);
+        breaker.release(trial);
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(transitions).containsExactly(State.OPEN, State.HALF_OPEN, State.OPEN);
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(CircuitBreakerOpenException.class);
+    }
+
+    @Test
+    public void releasedTrialWithoutOutcomeFreesTheSlot() {
+        open();
+        advanceSeconds(CircuitBreaker.OPEN_SECONDS);
+
+        breaker.release(breaker.acquirePermission());
+        breaker.acquirePermission();
+
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+    }
+
+    @Test
+    public void lateSuccessDoesNotCloseHalfOpenBreaker() {
+        final Permission late = breaker.acquirePermission();
+        open();
+        advanceSeconds(CircuitBreaker.OPEN_SECONDS);
+        final Permission trial = breaker.acquirePermission();
+
+        breaker.onSuccess(late);
+        breaker.release(late);
+
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(CircuitBreakerOpenException.class);
+        breaker.onSuccess(trial);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void staleReleaseKeepsTheNewTrial() {
+        open();
+        advanceSeconds(CircuitBreaker.OPEN_SECONDS);
+        final Permission firstTrial = breaker.acquirePermission();
+        breaker.onFailure(firstTrial);
+        advanceSeconds(CircuitBreaker.OPEN_SECONDS);
+        breaker.acquirePermission();
+
+        breaker.release(firstTrial);
+
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(CircuitBreakerOpenException.class);
+    }
+
+    @Test
+    public void onlyServerErrorsAndThrottlingAreFailures() {
+        assertThat(CircuitBreaker.isFailure(InternalServerException.builder().build())).isTrue();
+        assertThat(CircuitBreaker.isFailure(ThrottlingException.builder().build())).isTrue();
+        assertThat(CircuitBreaker.isFailure(ResourceNotFoundException.builder().build())).isFalse();
+        assertThat(CircuitBreaker.isFailure(new IllegalStateException())).isFalse();
+    }
+
+    @Test
+    public void breakersAreSharedPerScopeAndOperation() {
+        final CircuitBreakerRegistry registry = new CircuitBreakerRegistry();
+        final RequestScope scope = new RequestScope("123456789012", "us-west-2");
+        final CircuitBreaker getApplication = registry.forOperation(scope, "GetApplication");
+        assertThat(registry.forOperation(scope, "GetApplication")).isSameAs(getApplication);
+        assertThat(registry.forOperation(scope, "ListApplications")).isNotSameAs(getApplication);
+
+        assertThat(registry.forOperation(new RequestScope("123456789012", "eu-west-1"), "GetApplication"))
+            .isNotSameAs(getApplication);
+        assertThat(registry.forOperation(new RequestScope("210987654321", "us-west-2"), "GetApplication"))
+            .isNotSameAs(getApplication);
+        assertThat(new CircuitBreakerRegistry().forOperation(scope, "GetApplication")).isNotSameAs(getApplication);
+    }
+
+    @Test
+    public void transitionIsPublishedAsEmbeddedMetric() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        EmbeddedMetrics.publish(new PrintStream(bytes, true, StandardCharsets.UTF_8), CircuitBreaker.TRANSITION_METRIC,
+            1.0, "Count", Collections.singletonMap("State", "OPEN"), 42L);
+
+        assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8).trim()).isEqualTo(
+            "{\"_aws\":{\"Timestamp\":42,\"CloudWatchMetrics\":[{\"Namespace\":\"" + EmbeddedMetrics.NAMESPACE + "\","
+                + "\"Dimensions\":[[\"State\"]],\"Metrics\":[{\"Name\":\"CircuitBreakerTransition\",\"Unit\":\"Count\"}]}]},"
+                + "\"State\":\"OPEN\",\"CircuitBreakerTransition\":1.0}");
+    }
+
+    private void open() {
+        for (int i = 0; i < CircuitBreaker.MIN_CALLS; i++) {
+            if (i % 2 == 0) {
+                succeed();
+            } else {
+                fail();
+            }
+        }
+    }
+
+    private void succeed() {
+        final Permission permission = breaker.acquirePermission();
+        breaker.onSuccess(permission);
+        breaker.release(permission);
+    }
+
+    private void fail() {
+        final Permission permission = breaker.acquirePermission();
+        breaker.onFailure(permission);
+        breaker.release(permission);
+    }
+
+    private void advanceSeconds(final long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
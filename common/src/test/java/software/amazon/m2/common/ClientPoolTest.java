@@ -0,0 +1,66 @@
+package software.amazon.m2.common;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClientPoolTest {
+
+    private static final class FakeClient implements SdkAutoCloseable {
+        private final ClientPool.Key key;
+        private boolean closed;
+
+        FakeClient(final ClientPool.Key key) {
+            this.key = key;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private final List<ClientPool.Stats> reported = new ArrayList<>();
+    private final ClientPool<FakeClient> pool = new ClientPool<>(2, FakeClient::new, reported::add);
+
+    @Test
+    public void reusesClientsPerRegionAndEndpoint() {
+        final FakeClient west = pool.get(new ClientPool.Key("us-west-2", null));
+
+        assertThat(pool.get(new ClientPool.Key("us-west-2", null))).isSameAs(west);
+        assertThat(pool.get(new ClientPool.Key("us-west-2", "https://m2.example.com")).key.getEndpointOverride())
+            .isEqualTo("https://m2.example.com");
+
+        assertThat(pool.getStats()).isEqualTo(new ClientPool.Stats(1, 2, 0, 2));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedClientWithoutClosingIt() {
+        final FakeClient west = pool.get(new ClientPool.Key("us-west-2", null));
+        final FakeClient east = pool.get(new ClientPool.Key("us-east-1", null));
+        pool.get(new ClientPool.Key("us-west-2", null));
+
+        pool.get(new ClientPool.Key("eu-west-1", null));
+
+        assertThat(east.closed).isFalse();
+        assertThat(west.closed).isFalse();
+        assertThat(pool.get(new ClientPool.Key("us-east-1", null))).isNotSameAs(east);
+        assertThat(pool.getStats().getEvictions()).isEqualTo(2);
+    }
+
+    @Test
+    public void reportsStatsOnMissesAndEveryIntervalOfLookups() {
+        pool.get(new ClientPool.Key("us-west-2", null));
+        assertThat(reported).containsExactly(new ClientPool.Stats(0, 1, 0, 1));
+
+        for (int i = 1; i < ClientPool.STATS_INTERVAL; i++) {
+            pool.get(new ClientPool.Key("us-west-2", null));
+        }
+        assertThat(reported).hasSize(2);
+        assertThat(reported.get(1)).isEqualTo(new ClientPool.Stats(ClientPool.STATS_INTERVAL - 1, 1, 0, 1));
+    }
+}
@@ -0,0 +1,97 @@
+package software.amazon.m2.common;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.m2.model.InternalServerException;
+import software.amazon.awssdk.services.m2.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.m2.model.ValidationException;
+import software.amazon.cloudformation.exceptions.CfnInternalFailureException;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ExceptionHandlerWrapperTest {
+
+    private static final ApiRateLimiter LIMITER = ApiRateLimiter.disabled();
+    private static final CircuitBreakerRegistry BREAKERS = new CircuitBreakerRegistry();
+    private static final RequestScope SCOPE = new RequestScope("123456789012", "us-west-2");
+
+    private static final Supplier<String> GONE = () -> {
+        throw ResourceNotFoundException.builder().message("Resource not found").build();
+    };
+
+    @Test
+    public void probeReturnsResponse() {
+        assertThat(ExceptionHandlerWrapper.probeM2Resource(LIMITER, BREAKERS, SCOPE, "GetProbeFound", () -> "found"))
+            .contains("found");
+    }
+
+    @Test
+    public void probeReturnsEmptyWhenNotFound() {
+        assertThat(ExceptionHandlerWrapper.probeM2Resource(LIMITER, BREAKERS, SCOPE, "GetProbeGone", GONE)).isEmpty();
+        assertThat(BREAKERS.forOperation(SCOPE, "GetProbeGone").getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void probeConvertsOtherErrors() {
+        assertThatThrownBy(() -> ExceptionHandlerWrapper.probeM2Resource(LIMITER, BREAKERS, SCOPE, "GetProbeInvalid",
+            () -> {
+                throw ValidationException.builder().message("Invalid").build();
+            })).isInstanceOf(CfnInvalidRequestException.class);
+    }
+
+    @Test
+    public void cancellingAsyncCallCancelsServiceCall() {
+        final CompletableFuture<String> serviceCall = new CompletableFuture<>();
+        final CompletableFuture<String> wrapped =
+            ExceptionHandlerWrapper.wrapM2ExceptionAsync(LIMITER, BREAKERS, SCOPE, "GetAsyncCancelled",
+                () -> serviceCall);
+
+        wrapped.cancel(true);
+
+        assertThat(serviceCall).isCancelled();
+    }
+
+    @Test
+    public void repeatedProbesOfDeletedResourceReturnEmptyWithoutThrowing() {
+        for (int i = 0; i < 15; i++) {
+            assertThatCode(() -> assertThat(
+                ExceptionHandlerWrapper.probeM2Resource(LIMITER, BREAKERS, SCOPE, "GetProbeDeleted", GONE)).isEmpty())
+                .doesNotThrowAnyException();
+        }
+        assertThat(BREAKERS.forOperation(SCOPE, "GetProbeDeleted").getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        assertThatThrownBy(
+            () -> ExceptionHandlerWrapper.wrapM2Exception(LIMITER, BREAKERS, SCOPE, "GetProbeDeleted", GONE))
+            .isInstanceOf(CfnNotFoundException.class);
+    }
+
+    @Test
+    public void trialEndedByErrorFreesTheSlot() {
+        final AtomicLong clock = new AtomicLong();
+        final CircuitBreakerRegistry breakers = new CircuitBreakerRegistry(clock::get, (operation, from, to) -> {
+        });
+        for (int i = 0; i < CircuitBreaker.MIN_CALLS; i++) {
+            assertThatThrownBy(() -> ExceptionHandlerWrapper.wrapM2Exception(LIMITER, breakers, SCOPE, "GetTrial",
+                () -> {
+                    throw InternalServerException.builder().message("Internal").build();
+                })).isInstanceOf(CfnInternalFailureException.class);
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(CircuitBreaker.OPEN_SECONDS));
+
+        assertThatThrownBy(() -> ExceptionHandlerWrapper.wrapM2Exception(LIMITER, breakers, SCOPE, "GetTrial", () -> {
+            throw new AssertionError("Client failure");
+        })).isInstanceOf(AssertionError.class);
+
+        assertThat(ExceptionHandlerWrapper.wrapM2Exception(LIMITER, breakers, SCOPE, "GetTrial", () -> "found"))
+            .isEqualTo("found");
+        assertThat(breakers.forOperation(SCOPE, "GetTrial").getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
@@ -0,0 +1,142 @@
+package software.amazon.m2.common;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HedgerTest {
+
+    private static final String OPERATION = "GetEnvironment";
+
+    @Test
+    public void disabledHedgerCallsDirectly() {
+        final Hedger hedger = new Hedger(false, 1);
+        final AtomicInteger calls = new AtomicInteger();
+
+        assertThat(hedger.call(OPERATION, calls::incrementAndGet)).isEqualTo(1);
+        assertThat(hedger.getHedgeCount()).isEqualTo(0L);
+    }
+
+    @Test
+    public void callsAreNotHedgedUntilLatenciesAreKnown() {
+        final Hedger hedger = new Hedger(true, 20);
+
+        for (int i = 0; i < 30; i++) {
+            assertThat(hedger.call(OPERATION, () -> "answer")).isEqualTo("answer");
+        }
+        assertThat(hedger.getHedgeCount()).isEqualTo(0L);
+    }
+
+    @Test
+    public void slowCallIsHedgedAndInterrupted() {
+        final Hedger hedger = seededHedger();
+        final CountDownLatch never = new CountDownLatch(1);
+        final AtomicBoolean primaryInterrupted = new AtomicBoolean();
+        final AtomicInteger attempts = new AtomicInteger();
+        final Thread caller = Thread.currentThread();
+        final AtomicReference<Thread> primaryThread = new AtomicReference<>();
+
+        final String result = hedger.call(OPERATION, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                primaryThread.set(Thread.currentThread());
+                try {
+                    never.await(10, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    primaryInterrupted.set(true);
+                }
+                return "slow";
+            }
+            return "fast";
+        });
+
+        assertThat(result).isEqualTo("fast");
+        assertThat(hedger.getHedgeCount()).isEqualTo(1L);
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(primaryThread.get()).isSameAs(caller);
+        assertThat(primaryInterrupted.get()).isTrue();
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+
+    @Test
+    public void failedFirstAttemptWaitsForHedge() {
+        final Hedger hedger = seededHedger();
+        final CountDownLatch hedgeSent = new CountDownLatch(1);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final String result = hedger.call(OPERATION, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    hedgeSent.await(10, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new CfnThrottlingException(new RuntimeException("Rate exceeded"));
+            }
+            hedgeSent.countDown();
+            sleep(100);
+            return "hedged";
+        });
+
+        assertThat(result).isEqualTo("hedged");
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+
+    @Test
+    public void hedgingStopsWhenBudgetIsSpent() {
+        final Hedger hedger = seededHedger();
+        final AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            hedger.call(OPERATION, () -> {
+                attempts.incrementAndGet();
+                sleep(200);
+                return "slow";
+            });
+        }
+
+        // The budget after 26 calls pays for one hedge only
+        assertThat(hedger.getHedgeCount()).isEqualTo(1L);
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void failuresAreRethrown() {
+        final Hedger hedger = seededHedger();
+
+        assertThatThrownBy(() -> hedger.call(OPERATION, () -> {
+            throw new CfnNotFoundException("AWS::M2::Environment", "env-id");
+        })).isInstanceOf(CfnNotFoundException.class);
+    }
+
+    /**
+     * Returns a hedger with a known 50 ms 95th percentile and a budget for one hedge.
+     */
+    private static Hedger seededHedger() {
+        final Hedger hedger = new Hedger(true, 20);
+        for (int i = 0; i < 20; i++) {
+            hedger.recordLatency(OPERATION, TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        for (int i = 0; i < 25; i++) {
+            hedger.call(OPERATION, () -> "answer");
+        }
+        return hedger;
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
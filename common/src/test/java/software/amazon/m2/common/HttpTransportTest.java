@@ -0,0 +1,37 @@
+package software.amazon.m2.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpTransportTest {
+
+    @Test
+    public void defaultsToLambdaTransport() {
+        assertThat(HttpTransport.fromName(null)).isEqualTo(HttpTransport.LAMBDA_DEFAULT);
+        assertThat(HttpTransport.fromName(" ")).isEqualTo(HttpTransport.LAMBDA_DEFAULT);
+        assertThat(HttpTransport.fromName("not-a-transport")).isEqualTo(HttpTransport.LAMBDA_DEFAULT);
+    }
+
+    @Test
+    public void parsesTransportNames() {
+        assertThat(HttpTransport.fromName("url_connection")).isEqualTo(HttpTransport.URL_CONNECTION);
+        assertThat(HttpTransport.fromName("AWS_CRT")).isEqualTo(HttpTransport.AWS_CRT);
+        assertThat(HttpTransport.fromName(" apache_pooled ")).isEqualTo(HttpTransport.APACHE_POOLED);
+    }
+
+    @Test
+    public void fallsBackToLambdaTransportWithoutItsClient() {
+        assertThat(HttpTransport.fromName("aws_crt", transport -> transport != HttpTransport.AWS_CRT))
+            .isEqualTo(HttpTransport.LAMBDA_DEFAULT);
+        assertThat(HttpTransport.fromName("apache_pooled", transport -> transport != HttpTransport.AWS_CRT))
+            .isEqualTo(HttpTransport.APACHE_POOLED);
+    }
+
+    @Test
+    public void findsClientsOnTheClasspath() {
+        for (final HttpTransport transport : HttpTransport.values()) {
+            assertThat(transport.isAvailable()).as(transport.name()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package software.amazon.m2.common;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.Delay;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JitteredExponentialDelayTest {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(10L);
+
+    @Test
+    public void delaysDoubleUpToTheCap() {
+        final JitteredExponentialDelay delay = delay(() -> 0.999);
+
+        assertThat(delay.nextDelay(1)).isEqualTo(Duration.ofSeconds(5L));
+        assertThat(delay.nextDelay(2)).isEqualTo(Duration.ofSeconds(10L));
+        assertThat(delay.nextDelay(3)).isEqualTo(Duration.ofSeconds(20L));
+        assertThat(delay.nextDelay(4)).isEqualTo(Duration.ofSeconds(40L));
+        assertThat(delay.nextDelay(5)).isEqualTo(Duration.ofSeconds(60L));
+        assertThat(delay.nextDelay(50)).isEqualTo(Duration.ofSeconds(60L));
+    }
+
+    @Test
+    public void delaysAreJitteredDownToTheFloor() {
+        assertThat(delay(() -> 0.5).nextDelay(5)).isEqualTo(Duration.ofSeconds(30L));
+        assertThat(delay(() -> 0.0).nextDelay(5)).isEqualTo(Duration.ofSeconds(1L));
+    }
+
+    @Test
+    public void delayIsZeroOnceTimeoutIsExpected() {
+        final JitteredExponentialDelay delay = delay(() -> 0.5);
+
+        int attempt = 1;
+        while (!delay.nextDelay(attempt).isZero()) {
+            attempt++;
+        }
+
+        assertThat(delay.expectedElapsedSeconds(attempt - 1)).isGreaterThanOrEqualTo(TIMEOUT.getSeconds());
+        assertThat(delay.expectedElapsedSeconds(attempt - 2)).isLessThan(TIMEOUT.getSeconds());
+    }
+
+    @Test
+    public void invalidBoundsAreRejected() {
+        assertThatThrownBy(() -> JitteredExponentialDelay.of()
+            .timeout(TIMEOUT)
+            .baseDelay(Duration.ofSeconds(30L))
+            .maxDelay(Duration.ofSeconds(10L))
+            .build()).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> JitteredExponentialDelay.of()
+            .timeout(TIMEOUT)
+            .minDelay(Duration.ZERO)
+            .baseDelay(Duration.ofSeconds(5L))
+            .maxDelay(Duration.ofSeconds(10L))
+            .build()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Polls simulated transitions in virtual time and compares the stabilization delays with the former constant
+     * 20 second delay: the number of polls made and how long after the transition it is noticed.
+     */
+    @Test
+    public void virtualTimeBenchmark() {
+        final Result createConstant = simulate(Constants.BACKOFF_STRATEGY_STABILIZE, Duration.ofMinutes(30L));
+        final Result createJittered = simulate(Constants.BACKOFF_STRATEGY_STABILIZE_CREATE, Duration.ofMinutes(30L));
+        final Result deleteConstant = simulate(Constants.BACKOFF_STRATEGY_STABILIZE, Duration.ofMinutes(2L));
+        final Result deleteJittered = simulate(Constants.BACKOFF_STRATEGY_STABILIZE_DELETE, Duration.ofMinutes(2L));
+
+        // Long operations take at least a quarter fewer polls, and are noticed within half the cap
+        assertThat(createJittered.polls).isLessThan(createConstant.polls * 0.75);
+        assertThat(createJittered.detectionSeconds).isLessThan(30.0);
+        // Short operations are noticed about as quickly as with the constant delay
+        assertThat(deleteJittered.detectionSeconds).isLessThan(deleteConstant.detectionSeconds + 5.0);
+    }
+
+    private static JitteredExponentialDelay delay(final DoubleSupplier random) {
+        return JitteredExponentialDelay.of()
+            .timeout(TIMEOUT)
+            .baseDelay(Duration.ofSeconds(5L))
+            .maxDelay(Duration.ofSeconds(60L))
+            .random(random)
+            .build();
+    }
+
+    /**
+     * Averages the polls of 1000 runs of a transition that takes the given time. Runs start at random offsets, as
+     * operations do not complete in step with polls.
+     */
+    static Result simulate(final Delay delay, final Duration transition) {
+        final Random offsets = new Random(7L);
+        final int runs = 1000;
+        long polls = 0L;
+        long detection = 0L;
+        for (int run = 0; run < runs; run++) {
+            final long doneAt = transition.getSeconds() + offsets.nextInt(20);
+            long now = 0L;
+            int attempt = 1;
+            while (now < doneAt) {
+                now += delay.nextDelay(attempt++).getSeconds();
+                polls++;
+            }
+            detection += now - doneAt;
+        }
+        return new Result((double) polls / runs, (double) detection / runs);
+    }
+
+    static final class Result {
+        final double polls;
+        final double detectionSeconds;
+
+        private Result(final double polls, final double detectionSeconds) {
+            this.polls = polls;
+            this.detectionSeconds = detectionSeconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f polls, noticed after %.1f s", polls, detectionSeconds);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package software.amazon.m2.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LifecycleAwareDelayTest {
+
+    private final LifecycleAwareDelay delay = new LifecycleAwareDelay(JitteredExponentialDelay.of()
+        .timeout(Duration.ofMinutes(10L))
+        .baseDelay(Duration.ofSeconds(5L))
+        .maxDelay(Duration.ofSeconds(60L))
+        .random(() -> 0.999)
+        .build());
+
+    @Test
+    public void followsUnderlyingDelayUntilStateIsObserved() {
+        assertThat(delay.nextDelay(1)).isEqualTo(Duration.ofSeconds(5L));
+        assertThat(delay.nextDelay(6)).isEqualTo(Duration.ofSeconds(60L));
+    }
+
+    @Test
+    public void observedPollIntervalCapsTheDelay() {
+        delay.observe(Duration.ofSeconds(10L));
+        assertThat(delay.nextDelay(1)).isEqualTo(Duration.ofSeconds(5L));
+        assertThat(delay.nextDelay(6)).isEqualTo(Duration.ofSeconds(10L));
+
+        delay.observe(null);
+        assertThat(delay.nextDelay(6)).isEqualTo(Duration.ofSeconds(60L));
+    }
+
+    @Test
+    public void timesOutLikeUnderlyingDelay() {
+        delay.observe(Duration.ofSeconds(10L));
+        assertThat(delay.nextDelay(1000)).isEqualTo(Duration.ZERO);
+    }
+}
@@ -0,0 +1,58 @@
+package software.amazon.m2.common;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.m2.model.ApplicationLifecycle;
+import software.amazon.awssdk.services.m2.model.ApplicationVersionLifecycle;
+import software.amazon.awssdk.services.m2.model.EnvironmentLifecycle;
+import software.amazon.m2.common.LifecycleStates.Outcome;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LifecycleStatesTest {
+
+    @Test
+    public void environmentStatesAreClassified() {
+        assertThat(LifecycleStates.ENVIRONMENT.outcome(EnvironmentLifecycle.CREATING)).isEqualTo(Outcome.IN_PROGRESS);
+        assertThat(LifecycleStates.ENVIRONMENT.outcome(EnvironmentLifecycle.AVAILABLE)).isEqualTo(Outcome.SUCCEEDED);
+        assertThat(LifecycleStates.ENVIRONMENT.outcome(EnvironmentLifecycle.FAILED)).isEqualTo(Outcome.FAILED);
+        assertThat(LifecycleStates.ENVIRONMENT.outcome(EnvironmentLifecycle.UNKNOWN_TO_SDK_VERSION))
+            .isEqualTo(Outcome.UNKNOWN);
+        assertThat(LifecycleStates.ENVIRONMENT.outcome(null)).isEqualTo(Outcome.UNKNOWN);
+    }
+
+    @Test
+    public void longTransitionsArePolledLessOften() {
+        assertThat(LifecycleStates.ENVIRONMENT.pollInterval(EnvironmentLifecycle.CREATING))
+            .isGreaterThan(LifecycleStates.ENVIRONMENT.pollInterval(EnvironmentLifecycle.DELETING));
+        assertThat(LifecycleStates.APPLICATION.pollInterval(ApplicationLifecycle.CREATING))
+            .isGreaterThan(LifecycleStates.APPLICATION_VERSION.pollInterval(ApplicationVersionLifecycle.CREATING));
+        assertThat(LifecycleStates.ENVIRONMENT.pollInterval(EnvironmentLifecycle.AVAILABLE)).isNull();
+        assertThat(LifecycleStates.APPLICATION.pollInterval(null)).isNull();
+    }
+
+    @Test
+    public void applicationStatesAreClassified() {
+        assertThat(LifecycleStates.APPLICATION.outcome(ApplicationLifecycle.DELETING)).isEqualTo(Outcome.IN_PROGRESS);
+        assertThat(LifecycleStates.APPLICATION.outcome(ApplicationLifecycle.STOPPED)).isEqualTo(Outcome.SUCCEEDED);
+        assertThat(LifecycleStates.APPLICATION.outcome(ApplicationLifecycle.FAILED)).isEqualTo(Outcome.FAILED);
+        // Not settled by stabilization, as before the state tables
+        assertThat(LifecycleStates.APPLICATION.outcome(ApplicationLifecycle.RUNNING)).isEqualTo(Outcome.UNKNOWN);
+        assertThat(LifecycleStates.APPLICATION.outcome(ApplicationLifecycle.STARTING)).isEqualTo(Outcome.UNKNOWN);
+        assertThat(LifecycleStates.APPLICATION.outcome(ApplicationLifecycle.STOPPING)).isEqualTo(Outcome.UNKNOWN);
+        assertThat(LifecycleStates.APPLICATION.outcome(ApplicationLifecycle.DELETING_FROM_ENVIRONMENT))
+            .isEqualTo(Outcome.UNKNOWN);
+        assertThat(LifecycleStates.APPLICATION_VERSION.outcome(ApplicationVersionLifecycle.AVAILABLE))
+            .isEqualTo(Outcome.SUCCEEDED);
+    }
+
+    @Test
+    public void statesAreMappedOnce() {
+        assertThatThrownBy(() -> LifecycleStates.of(EnvironmentLifecycle.class)
+            .inProgress(EnvironmentLifecycle.CREATING, Duration.ofSeconds(10L))
+            .failed(EnvironmentLifecycle.CREATING))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,87 @@
+package software.amazon.m2.common;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.services.m2.model.InternalServerException;
+import software.amazon.awssdk.services.m2.model.ThrottlingException;
+import software.amazon.awssdk.services.m2.model.ValidationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OperationBudgetRetryConditionTest {
+
+    private final OperationBudgetRetryCondition condition =
+        new OperationBudgetRetryCondition(RetryPolicies.DEFAULT_BUDGETS);
+
+    @Test
+    public void classifiesOperations() {
+        assertThat(RetryPolicies.OperationClass.of("GetEnvironment")).isEqualTo(RetryPolicies.OperationClass.READ);
+        assertThat(RetryPolicies.OperationClass.of("ListTagsForResource")).isEqualTo(RetryPolicies.OperationClass.READ);
+        assertThat(RetryPolicies.OperationClass.of("UpdateApplication")).isEqualTo(RetryPolicies.OperationClass.MUTATING);
+        assertThat(RetryPolicies.OperationClass.of(null)).isEqualTo(RetryPolicies.OperationClass.MUTATING);
+    }
+
+    @Test
+    public void throttlingAndTransientErrorsHaveSeparateBudgets() {
+        final ExecutionAttributes attributes = attributesFor("GetEnvironment");
+        final SdkException throttled = ThrottlingException.builder().statusCode(429).build();
+        final SdkException serverError = InternalServerException.builder().statusCode(500).build();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(condition.shouldRetry(context(throttled, attributes))).isTrue();
+        }
+        assertThat(condition.shouldRetry(context(throttled, attributes))).isFalse();
+
+        // Using up the throttling budget leaves the transient budget untouched
+        assertThat(condition.shouldRetry(context(serverError, attributes))).isTrue();
+        assertThat(condition.shouldRetry(context(serverError, attributes))).isTrue();
+        assertThat(condition.shouldRetry(context(serverError, attributes))).isFalse();
+    }
+
+    @Test
+    public void mutatingOperationsGetTheirOwnBudget() {
+        final ExecutionAttributes attributes = attributesFor("CreateEnvironment");
+        final SdkException throttled = ThrottlingException.builder().statusCode(429).build();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(condition.shouldRetry(context(throttled, attributes))).isTrue();
+        }
+        assertThat(condition.shouldRetry(context(throttled, attributes))).isFalse();
+    }
+
+    @Test
+    public void nonRetryableErrorsAreNotRetried() {
+        final ExecutionAttributes attributes = attributesFor("CreateEnvironment");
+
+        assertThat(condition.shouldRetry(context(ValidationException.builder().statusCode(400).build(), attributes)))
+            .isFalse();
+        assertThat(attributes.getAttribute(OperationBudgetRetryCondition.TRANSIENT_RETRIES)).isNull();
+    }
+
+    @Test
+    public void budgetsAreCountedPerCall() {
+        final SdkException throttled = ThrottlingException.builder().statusCode(429).build();
+        final ExecutionAttributes firstCall = attributesFor("GetApplication");
+        for (int i = 0; i < 3; i++) {
+            condition.shouldRetry(context(throttled, firstCall));
+        }
+
+        assertThat(condition.shouldRetry(context(throttled, attributesFor("GetApplication")))).isTrue();
+    }
+
+    private static ExecutionAttributes attributesFor(final String operationName) {
+        final ExecutionAttributes attributes = new ExecutionAttributes();
+        attributes.putAttribute(SdkExecutionAttribute.OPERATION_NAME, operationName);
+        return attributes;
+    }
+
+    private static RetryPolicyContext context(final SdkException exception, final ExecutionAttributes attributes) {
+        return RetryPolicyContext.builder()
+            .exception(exception)
+            .executionAttributes(attributes)
+            .build();
+    }
+}
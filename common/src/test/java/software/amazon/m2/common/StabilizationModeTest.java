@@ -0,0 +1,21 @@
+package software.amazon.m2.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StabilizationModeTest {
+
+    @Test
+    public void defaultsToPolling() {
+        assertThat(StabilizationMode.fromName(null)).isEqualTo(StabilizationMode.POLL);
+        assertThat(StabilizationMode.fromName(" ")).isEqualTo(StabilizationMode.POLL);
+        assertThat(StabilizationMode.fromName("not-a-mode")).isEqualTo(StabilizationMode.POLL);
+    }
+
+    @Test
+    public void parsesModeNames() {
+        assertThat(StabilizationMode.fromName("callback")).isEqualTo(StabilizationMode.CALLBACK);
+        assertThat(StabilizationMode.fromName(" POLL ")).isEqualTo(StabilizationMode.POLL);
+    }
+}
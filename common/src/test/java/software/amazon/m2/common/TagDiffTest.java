@@ -0,0 +1,115 @@
+package software.amazon.m2.common;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TagDiffTest {
+
+    @Test
+    public void addsChangedAndRemovesDroppedTags() {
+        final TagDiff diff = TagDiff.between(
+            ImmutableMap.of("kept", "v", "changed", "v1", "dropped", "v"), null,
+            ImmutableMap.of("kept", "v", "changed", "v2", "added", "v"), null);
+
+        assertThat(diff.getTagsToAdd()).isEqualTo(ImmutableMap.of("changed", "v2", "added", "v"));
+        assertThat(diff.getTagsToRemove()).containsExactly("dropped");
+        assertThat(diff.getUnchangedCount()).isEqualTo(1);
+        assertThat(diff.isEmpty()).isFalse();
+    }
+
+    @Test
+    public void unchangedTagsAreEmpty() {
+        final Map<String, String> tags = ImmutableMap.of("k1", "v1", "k2", "v2");
+        final TagDiff diff = TagDiff.between(tags, null, ImmutableMap.copyOf(tags), null);
+
+        assertThat(diff.isEmpty()).isTrue();
+        assertThat(diff.getUnchangedCount()).isEqualTo(2);
+        assertThat(diff.getTagsToAddChunks()).isEmpty();
+        assertThat(diff.getTagsToRemoveChunks()).isEmpty();
+        assertThat(TagDiff.between(null, null, null, null).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void resourceTagsTakePrecedenceOverStackTags() {
+        final TagDiff diff = TagDiff.between(
+            ImmutableMap.of("team", "a", "stage", "dev"), ImmutableMap.of("team", "b"),
+            ImmutableMap.of("team", "a"), ImmutableMap.of("team", "b", "owner", "me"));
+
+        assertThat(diff.getTagsToAdd()).isEqualTo(ImmutableMap.of("owner", "me"));
+        assertThat(diff.getTagsToRemove()).containsExactly("stage");
+        assertThat(diff.getUnchangedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void movingTagToResourceKeepsIt() {
+        final TagDiff diff = TagDiff.between(
+            ImmutableMap.of("team", "a"), null,
+            null, ImmutableMap.of("team", "a"));
+
+        assertThat(diff.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void systemTagsAreIgnored() {
+        final TagDiff diff = TagDiff.between(
+            ImmutableMap.of("aws:cloudformation:stack-name", "old"), null,
+            ImmutableMap.of("aws:cloudformation:stack-name", "new", "AWS:other", "v"), null);
+
+        assertThat(diff.isEmpty()).isTrue();
+        assertThat(diff.getUnchangedCount()).isZero();
+    }
+
+    @Test
+    public void readsRequestTags() {
+        final ResourceHandlerRequest<Map<String, String>> request = ResourceHandlerRequest.<Map<String, String>>builder()
+            .previousResourceTags(ImmutableMap.of("stack", "v"))
+            .previousResourceState(ImmutableMap.of("resource", "v"))
+            .desiredResourceTags(ImmutableMap.of("stack", "v"))
+            .desiredResourceState(ImmutableMap.of())
+            .build();
+
+        assertThat(TagDiff.of(request).isEmpty()).isTrue();
+        assertThat(TagDiff.of(request, state -> state).getTagsToRemove()).containsExactly("resource");
+    }
+
+    @Test
+    public void splitsIntoChunks() {
+        final TagDiff diff = TagDiff.between(tags("old", 5), null, tags("new", 5), null);
+
+        final List<Map<String, String>> addChunks = diff.getTagsToAddChunks(2);
+        assertThat(addChunks).hasSize(3);
+        assertThat(addChunks).allSatisfy(chunk -> assertThat(chunk.size()).isBetween(1, 2));
+        final Map<String, String> added = new HashMap<>();
+        addChunks.forEach(added::putAll);
+        assertThat(added).isEqualTo(diff.getTagsToAdd());
+
+        final List<Set<String>> removeChunks = diff.getTagsToRemoveChunks(5);
+        assertThat(removeChunks).containsExactly(diff.getTagsToRemove());
+
+        assertThat(diff.getTagsToAddChunks()).containsExactly(diff.getTagsToAdd());
+    }
+
+    @Test
+    public void chunkCallGraphsAreDistinct() {
+        assertThat(TagDiff.chunkCallGraph("AWS::M2::Environment-TagResource", 0))
+            .isEqualTo("AWS::M2::Environment-TagResource");
+        assertThat(TagDiff.chunkCallGraph("AWS::M2::Environment-TagResource", 1))
+            .isEqualTo("AWS::M2::Environment-TagResource-2");
+    }
+
+    private static Map<String, String> tags(final String prefix, final int count) {
+        final Map<String, String> tags = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            tags.put(prefix + i, "value");
+        }
+        return tags;
+    }
+}